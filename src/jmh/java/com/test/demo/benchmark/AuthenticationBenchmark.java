@@ -0,0 +1,95 @@
+package com.test.demo.benchmark;
+
+import com.test.demo.security.CachingAuthenticationProvider;
+import com.test.demo.security.ObservableUserDetailsManager;
+import com.test.demo.security.TokenService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/**
+ * The per-request cost of authenticating: HTTP Basic through BCrypt as every request paid originally, HTTP Basic
+ * answered from the credential cache, and a bearer token from {@link TokenService}, whose signature is checked and
+ * roles mapped on every request. {@code issueToken} is the one-off cost of the exchange, on top of one BCrypt check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+  private DaoAuthenticationProvider basicProvider;
+
+  private CachingAuthenticationProvider cachingProvider;
+
+  private TokenService tokenService;
+
+  private JwtDecoder jwtDecoder;
+
+  private Converter<Jwt, AbstractAuthenticationToken> tokenConverter;
+
+  private Authentication authenticated;
+
+  private String token;
+
+  @Setup
+  public void setUp() {
+    PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    basicProvider = new DaoAuthenticationProvider(passwordEncoder);
+    basicProvider.setUserDetailsService(new ObservableUserDetailsManager(
+        User.withUsername("user").password(passwordEncoder.encode("password")).roles("USER").build()));
+    cachingProvider = new CachingAuthenticationProvider(basicProvider, 100, Duration.ofMinutes(5));
+
+    tokenService = new TokenService("", Duration.ofMinutes(15));
+    jwtDecoder = tokenService.jwtDecoder();
+    tokenConverter = TokenService.authenticationConverter();
+    authenticated = basicProvider.authenticate(credentials());
+    token = tokenService.issue(authenticated).accessToken();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public Authentication basic() {
+    return basicProvider.authenticate(credentials());
+  }
+
+  @Benchmark
+  public Authentication basicCached() {
+    return cachingProvider.authenticate(credentials());
+  }
+
+  @Benchmark
+  public Authentication bearerToken() {
+    return tokenConverter.convert(jwtDecoder.decode(token));
+  }
+
+  @Benchmark
+  public String issueToken() {
+    return tokenService.issue(authenticated).accessToken();
+  }
+
+  private static UsernamePasswordAuthenticationToken credentials() {
+    return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+  }
+}
@@ -0,0 +1,58 @@
+package com.test.demo.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, e.g. from two commits, and prints the score change of every benchmark present
+ * in both:
+ * <pre>
+ * mvn -Pjmh test-compile exec:java@compare -Djmh.baseline=baseline.json [-Djmh.result=candidate.json]
+ * </pre>
+ */
+public final class BenchmarkComparison {
+
+  private BenchmarkComparison() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+      System.exit(2);
+    }
+    Map<String, JsonNode> baseline = read(new File(args[0]));
+    Map<String, JsonNode> candidate = read(new File(args[1]));
+
+    System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+    candidate.forEach((name, result) -> {
+      JsonNode before = baseline.get(name);
+      if (before == null) {
+        return;
+      }
+      double from = before.path("primaryMetric").path("score").asDouble();
+      double to = result.path("primaryMetric").path("score").asDouble();
+      String unit = result.path("primaryMetric").path("scoreUnit").asText();
+      System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%n", name, from, to, (to - from) / from * 100, unit);
+    });
+  }
+
+  /**
+   * Results keyed by benchmark name, mode and parameters, which together identify a row across runs.
+   */
+  private static Map<String, JsonNode> read(File file) throws IOException {
+    Map<String, JsonNode> results = new TreeMap<>();
+    for (JsonNode result : new ObjectMapper().readTree(file)) {
+      Map<String, String> params = new LinkedHashMap<>();
+      result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+      String name = result.path("benchmark").asText().replace("com.test.demo.benchmark.", "")
+          + " [" + result.path("mode").asText() + "]" + (params.isEmpty() ? "" : " " + params);
+      results.put(name, result);
+    }
+    return results;
+  }
+}
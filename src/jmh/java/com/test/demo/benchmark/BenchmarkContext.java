@@ -0,0 +1,67 @@
+package com.test.demo.benchmark;
+
+import com.test.demo.cache.CacheConfig;
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.model.Product;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.InMemoryProductRepository;
+import com.test.demo.repository.ProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import com.test.demo.service.ProductCacheReloader;
+import com.test.demo.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The service layer with its real caches and cache configuration from {@code application.properties}, wired to an
+ * {@link InMemoryProductRepository} instead of Mongo. Nothing is auto-configured, so no web server, security or
+ * database client is started. Deliberately not a {@code @Configuration}, so the application's component scan never
+ * picks it up when benchmark sources are on the classpath.
+ */
+@EnableCaching
+@Import({CacheConfig.class, ProductPageCache.class, MissingProductCache.class, ProductMapper.class,
+    ProductService.class, ProductCacheReloader.class, ProductSearchIndex.class})
+public class BenchmarkContext {
+
+  @Bean
+  public ProductRepository productRepository() {
+    return new InMemoryProductRepository();
+  }
+
+  @Bean
+  public MeterRegistry meterRegistry() {
+    return new SimpleMeterRegistry();
+  }
+
+  static ConfigurableApplicationContext start(int products) {
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkContext.class)
+        .web(WebApplicationType.NONE)
+        .logStartupInfo(false)
+        .run("--logging.level.root=WARN");
+    ProductRepository repository = context.getBean(ProductRepository.class);
+    for (int i = 0; i < products; i++) {
+      repository.save(product(i));
+    }
+    return context;
+  }
+
+  public static Product product(int i) {
+    Product product = new Product();
+    product.setId(String.format("%024x", i));
+    product.setName("Product " + i);
+    product.setStock(i);
+    product.setPrice(10.0 + i);
+    product.setCreatedDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+    product.setLastModifiedDate(product.getCreatedDate());
+    product.setVersion(0L);
+    return product;
+  }
+}
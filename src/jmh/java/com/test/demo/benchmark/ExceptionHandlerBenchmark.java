@@ -0,0 +1,117 @@
+package com.test.demo.benchmark;
+
+import com.test.demo.controller.ProductController;
+import com.test.demo.exception.ExceptionResponseModel;
+import com.test.demo.exception.GlobalExceptionHandler;
+import com.test.demo.exception.ProductNotFoundException;
+import com.test.demo.model.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+/**
+ * {@link GlobalExceptionHandler} response building for pre-built exceptions, plus the not-found path including the
+ * cost of constructing the exception as the service does on every miss. {@code productNotFoundDistinctIds} cycles
+ * through many ids, as probing bots do, next to {@code productNotFound} for one repeated id.
+ * {@code notFoundWithStackTrace} constructs an exception that fills in its stack trace, as domain exceptions did
+ * before they became stackless, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+  private GlobalExceptionHandler handler;
+
+  private static final int DISTINCT_IDS = 1 << 16;
+
+  private ProductNotFoundException notFound;
+
+  private ProductNotFoundException[] distinctNotFound;
+
+  private int next;
+
+  private IllegalArgumentException illegalArgument;
+
+  private MethodArgumentNotValidException invalid;
+
+  private RuntimeException unexpected;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+    notFound = new ProductNotFoundException("66b0c2f5e4b0a1a2b3c4d5e6");
+    distinctNotFound = new ProductNotFoundException[DISTINCT_IDS];
+    for (int i = 0; i < DISTINCT_IDS; i++) {
+      distinctNotFound[i] = new ProductNotFoundException(String.format("66b0c2f5e4b0a1a2b3%06x", i));
+    }
+    illegalArgument = new IllegalArgumentException("Size must be a positive value");
+    unexpected = new IllegalStateException("boom");
+
+    BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(
+        new ProductDTO(null, "", -1, -1.0, null), "productDTO");
+    bindingResult.rejectValue("name", "NotBlank", "Name is mandatory");
+    bindingResult.rejectValue("stock", "PositiveOrZero", "Stock must be zero or positive");
+    bindingResult.rejectValue("price", "Positive", "Price must be a positive value");
+    MethodParameter parameter = new MethodParameter(
+        ProductController.class.getMethod("createProduct", ProductDTO.class), 0);
+    invalid = new MethodArgumentNotValidException(parameter, bindingResult);
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> productNotFound() {
+    return handler.handleProductNotFoundException(notFound);
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> productNotFoundDistinctIds() {
+    next = (next + 1) & (DISTINCT_IDS - 1);
+    return handler.handleProductNotFoundException(distinctNotFound[next]);
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> productNotFoundIncludingThrow() {
+    return handler.handleProductNotFoundException(new ProductNotFoundException("66b0c2f5e4b0a1a2b3c4d5e6"));
+  }
+
+  @Benchmark
+  public RuntimeException notFoundWithStackTrace() {
+    return new RuntimeException("Product not found with id: 66b0c2f5e4b0a1a2b3c4d5e6");
+  }
+
+  @Benchmark
+  public RuntimeException notFound() {
+    return new ProductNotFoundException("66b0c2f5e4b0a1a2b3c4d5e6");
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> illegalArgument() {
+    return handler.handleIllegalArgumentException(illegalArgument);
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> validation() {
+    return handler.handleValidationExceptions(invalid);
+  }
+
+  @Benchmark
+  public ResponseEntity<ExceptionResponseModel> unexpected() {
+    return handler.handleGlobalException(unexpected);
+  }
+}
@@ -0,0 +1,116 @@
+package com.test.demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductPage;
+import com.test.demo.model.mapper.ProductMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * A listing page encoded as JSON, Smile and CBOR, both in Spring's {@link Page} envelope and in the compact
+ * {@link ProductPage} one. The time is that of serialization; the bytes on the wire, plain and gzipped, are printed
+ * once per trial since they do not vary between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductEncodingBenchmark {
+
+  @Param({"json", "smile", "cbor"})
+  public String format;
+
+  @Param({"20", "100"})
+  public int pageSize;
+
+  private ObjectWriter pageWriter;
+
+  private ObjectWriter compactPageWriter;
+
+  private Page<ProductDTO> page;
+
+  private ProductPage compactPage;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .factory(factory(format))
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    pageWriter = objectMapper.writerFor(Page.class);
+    compactPageWriter = objectMapper.writerFor(ProductPage.class);
+
+    ProductMapper productMapper = new ProductMapper();
+    List<ProductDTO> content = IntStream.range(0, pageSize)
+        .mapToObj(i -> productMapper.toDto(BenchmarkContext.product(i)))
+        .toList();
+    page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+    compactPage = ProductPage.of(page);
+
+    printSize("page", page());
+    printSize("compactPage", compactPage());
+  }
+
+  @Benchmark
+  public byte[] page() throws JsonProcessingException {
+    return pageWriter.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] compactPage() throws JsonProcessingException {
+    return compactPageWriter.writeValueAsBytes(compactPage);
+  }
+
+  private void printSize(String envelope, byte[] body) {
+    System.out.printf("%n%s %s of %d products: %d bytes, %d gzipped%n", format, envelope, pageSize, body.length,
+        gzip(body).length);
+  }
+
+  private static JsonFactory factory(String format) {
+    return switch (format) {
+      case "json" -> new JsonFactory();
+      case "smile" -> new SmileFactory();
+      case "cbor" -> new CBORFactory();
+      default -> throw new IllegalArgumentException("Unknown format: " + format);
+    };
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+}
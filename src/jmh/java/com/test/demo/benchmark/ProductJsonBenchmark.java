@@ -0,0 +1,76 @@
+package com.test.demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Response body serialization of a single {@link ProductDTO} and of a listing {@link Page}, with an
+ * {@link ObjectMapper} configured like the one Spring Boot hands to the HTTP message converters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+  @Param({"20", "100"})
+  public int pageSize;
+
+  private ObjectWriter productWriter;
+
+  private ObjectWriter pageWriter;
+
+  private ProductDTO product;
+
+  private Page<ProductDTO> page;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    productWriter = objectMapper.writerFor(ProductDTO.class);
+    pageWriter = objectMapper.writerFor(Page.class);
+
+    ProductMapper productMapper = new ProductMapper();
+    List<ProductDTO> content = IntStream.range(0, pageSize)
+        .mapToObj(i -> productMapper.toDto(BenchmarkContext.product(i)))
+        .toList();
+    product = content.get(0);
+    page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+  }
+
+  @Benchmark
+  public byte[] product() throws JsonProcessingException {
+    return productWriter.writeValueAsBytes(product);
+  }
+
+  @Benchmark
+  public byte[] page() throws JsonProcessingException {
+    return pageWriter.writeValueAsBytes(page);
+  }
+}
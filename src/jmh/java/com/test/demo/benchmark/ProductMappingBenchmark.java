@@ -0,0 +1,99 @@
+package com.test.demo.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Jackson {@code convertValue} (the previous mapping path) against {@link ProductMapper}, for a single product and
+ * for a listing page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+  private ObjectMapper objectMapper;
+
+  private ProductMapper productMapper;
+
+  private Product product;
+
+  private ProductDTO productDTO;
+
+  private List<Product> page;
+
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    productMapper = new ProductMapper();
+
+    page = IntStream.range(0, 100).mapToObj(ProductMappingBenchmark::product).toList();
+    product = page.get(0);
+    productDTO = productMapper.toDto(product);
+  }
+
+  @Benchmark
+  public ProductDTO jacksonToDto() {
+    return objectMapper.convertValue(product, ProductDTO.class);
+  }
+
+  @Benchmark
+  public ProductDTO mapperToDto() {
+    return productMapper.toDto(product);
+  }
+
+  @Benchmark
+  public Product jacksonToEntity() {
+    return objectMapper.convertValue(productDTO, Product.class);
+  }
+
+  @Benchmark
+  public Product mapperToEntity() {
+    return productMapper.toEntity(productDTO);
+  }
+
+  @Benchmark
+  public List<ProductDTO> jacksonPageOf100() {
+    return page.stream().map(row -> objectMapper.convertValue(row, ProductDTO.class)).toList();
+  }
+
+  @Benchmark
+  public List<ProductDTO> mapperPageOf100() {
+    return page.stream().map(productMapper::toDto).toList();
+  }
+
+  static Product product(int i) {
+    Product product = new Product();
+    product.setId(String.format("%024x", i));
+    product.setName("Product " + i);
+    product.setStock(i);
+    product.setPrice(10.0 + i);
+    product.setCreatedDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i));
+    return product;
+  }
+}
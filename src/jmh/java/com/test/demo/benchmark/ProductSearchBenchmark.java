@@ -0,0 +1,69 @@
+package com.test.demo.benchmark;
+
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.search.ProductSearchIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ProductSearchIndex} lookups over a catalogue of generated three-word names. The short prefix matches a
+ * large share of the catalogue, so it bounds the cost of typeahead on the first keystrokes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+  private static final String[] COLOURS = {"Red", "Blue", "Green", "Black", "White", "Silver", "Golden", "Amber"};
+
+  private static final String[] MATERIALS = {"Oak", "Steel", "Glass", "Leather", "Cotton", "Ceramic", "Bamboo",
+      "Marble", "Wool", "Copper"};
+
+  private static final String[] ITEMS = {"Chair", "Table", "Lamp", "Vase", "Shelf", "Mirror", "Rug", "Clock",
+      "Bowl", "Bench", "Basket", "Candle"};
+
+  @Param({"100000"})
+  public int products;
+
+  private ProductSearchIndex index;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    index = new ProductSearchIndex();
+    for (int i = 0; i < products; i++) {
+      String name = COLOURS[i % COLOURS.length] + " " + MATERIALS[i / COLOURS.length % MATERIALS.length] + " "
+          + ITEMS[i / (COLOURS.length * MATERIALS.length) % ITEMS.length] + " " + i;
+      index.put(new ProductDTO(String.format("%024x", i), name, i, 10.0, null, 0L));
+    }
+  }
+
+  @Benchmark
+  public List<ProductDTO> shortPrefix() {
+    return index.search("c", 10);
+  }
+
+  @Benchmark
+  public List<ProductDTO> twoWords() {
+    return index.search("green lam", 10);
+  }
+
+  @Benchmark
+  public List<ProductDTO> exactNumber() {
+    return index.search("4242", 10);
+  }
+}
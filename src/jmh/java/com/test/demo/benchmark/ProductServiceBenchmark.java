@@ -0,0 +1,135 @@
+package com.test.demo.benchmark;
+
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.exception.ProductNotFoundException;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.service.ProductService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+/**
+ * {@link ProductService} read and write paths through the Spring cache proxies, against an in-memory catalogue. Hit
+ * benchmarks serve from Caffeine; miss benchmarks evict first, so they measure eviction, repository read, mapping
+ * and cache population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+  @Param({"10000"})
+  public int products;
+
+  @Param({"20"})
+  public int pageSize;
+
+  private ConfigurableApplicationContext context;
+
+  private ProductService productService;
+
+  private ProductPageCache productPageCache;
+
+  private Cache productsCache;
+
+  private String productId;
+
+  private String missingId;
+
+  private Cache missingProductsCache;
+
+  private double price;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkContext.start(products);
+    productService = context.getBean(ProductService.class);
+    productPageCache = context.getBean(ProductPageCache.class);
+    productsCache = context.getBean(CacheManager.class).getCache("products");
+    missingProductsCache = context.getBean(CacheManager.class).getCache(MissingProductCache.CACHE_NAME);
+    productId = BenchmarkContext.product(products / 2).getId();
+    missingId = BenchmarkContext.product(products + 1).getId();
+    productService.getProductById(productId);
+    productService.getAllProducts(0, pageSize);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public ProductDTO getProductByIdHit() {
+    return productService.getProductById(productId);
+  }
+
+  @Benchmark
+  public ProductDTO getProductByIdMiss() {
+    productsCache.evict(productId);
+    return productService.getProductById(productId);
+  }
+
+  /**
+   * A repeated lookup of an id that does not exist, answered from the {@code missingProducts} cache.
+   */
+  @Benchmark
+  public ProductNotFoundException getProductByIdMissing() {
+    return missing();
+  }
+
+  @Benchmark
+  public ProductNotFoundException getProductByIdMissingUncached() {
+    missingProductsCache.evict(missingId);
+    return missing();
+  }
+
+  @Benchmark
+  public ProductDTO loadProductUncached() {
+    return productService.loadProduct(productId);
+  }
+
+  @Benchmark
+  public Page<ProductDTO> getAllProductsHit() {
+    return productService.getAllProducts(0, pageSize);
+  }
+
+  @Benchmark
+  public Page<ProductDTO> getAllProductsMiss() {
+    productPageCache.clear();
+    return productService.getAllProducts(0, pageSize);
+  }
+
+  @Benchmark
+  public ProductDTO updateProductPrice() {
+    price = price > 1000 ? 1 : price + 1;
+    return productService.updateProductPrice(productId, price, null);
+  }
+
+  private ProductNotFoundException missing() {
+    try {
+      productService.getProductById(missingId);
+      throw new IllegalStateException("Product " + missingId + " should not exist");
+    } catch (ProductNotFoundException e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.test.demo.load;
+
+import com.test.demo.model.Product;
+import com.test.demo.repository.InMemoryProductRepository;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+/**
+ * An {@link InMemoryProductRepository} whose reads block the calling thread for a fixed time, standing in for the
+ * round trip to MongoDB that the synchronous driver makes.
+ */
+class SlowProductRepository extends InMemoryProductRepository {
+
+  private final Duration latency;
+
+  SlowProductRepository(Duration latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  public Optional<Product> findById(String id) {
+    block();
+    return super.findById(id);
+  }
+
+  @Override
+  public Page<Product> findAll(Pageable pageable) {
+    block();
+    return super.findAll(pageable);
+  }
+
+  @Override
+  public Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit) {
+    block();
+    return super.findAllBy(position, sort, limit);
+  }
+
+  @Override
+  public long count() {
+    block();
+    return super.count();
+  }
+
+  private void block() {
+    try {
+      Thread.sleep(latency.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.test.demo.load;
+
+import com.test.demo.HubApplication;
+import com.test.demo.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Starts the whole application on a random port with {@code repository} in place of the Mongo backed one, and no
+ * MongoDB client at all, so load tests run offline.
+ */
+final class StandInApplication {
+
+  private static ProductRepository standIn;
+
+  private StandInApplication() {
+  }
+
+  /**
+   * @param profile    a Spring profile to activate, or {@code null}
+   * @param properties more {@code --name=value} arguments
+   */
+  static synchronized ConfigurableApplicationContext start(ProductRepository repository, String profile,
+                                                           String... properties) {
+    SpringApplicationBuilder application = new SpringApplicationBuilder(HubApplication.class, StandIn.class);
+    if (profile != null) {
+      application.profiles(profile);
+    }
+
+    // Command line arguments, so they override application.properties; there is no MongoDB behind the stand-in, and
+    // the request limits would throttle the load, which all comes from the same two users; every run starts cold rather
+    // than warmed from the snapshot a previous run left behind
+    List<String> args = new ArrayList<>(List.of(
+        "--server.port=0",
+        "--logging.level.root=WARN",
+        "--spring.main.banner-mode=off",
+        "--hub.mongo.indexes.enabled=false",
+        "--hub.mongo.indexes.verify-on-startup=false",
+        "--hub.changes.enabled=false",
+        "--hub.limits.enabled=false",
+        "--hub.cache.warmup.enabled=false",
+        "--spring.autoconfigure.exclude="
+            + "org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.data.mongo.MongoRepositoriesAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration,"
+            + "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration"));
+    args.addAll(List.of(properties));
+    standIn = repository;
+    try {
+      return application.run(args.toArray(String[]::new));
+    } finally {
+      standIn = null;
+    }
+  }
+
+  static int port(ConfigurableApplicationContext context) {
+    return ((WebServerApplicationContext) context).getWebServer().getPort();
+  }
+
+  /**
+   * Replaces the Mongo backed repository. Not a {@code @Configuration}, so only this runner registers it.
+   */
+  static class StandIn {
+
+    @Bean
+    ProductRepository productRepository() {
+      return standIn;
+    }
+  }
+}
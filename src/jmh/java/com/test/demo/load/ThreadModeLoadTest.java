@@ -0,0 +1,123 @@
+package com.test.demo.load;
+
+import com.test.demo.benchmark.BenchmarkContext;
+import com.test.demo.repository.ProductRepository;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application twice, on Tomcat's platform thread pool and with the {@code virtual-threads} profile, each
+ * backed by a repository with a fixed per-call latency, and drives both with the same number of concurrent clients
+ * hitting the uncached cursor listing. Prints throughput and latency percentiles per mode.
+ * <pre>
+ * JAVA_HOME=&lt;jdk 21&gt; mvn -Pjmh,java21 test-compile exec:java@thread-modes \
+ *     [-Dload.clients=2000] [-Dload.requests=20] [-Dload.latency-ms=50] [-Dload.max-concurrent-operations=1000]
+ * </pre>
+ * Each client sends its requests back to back, so with a blocking repository the platform mode serves at most
+ * {@code server.tomcat.threads.max} requests at a time, while the virtual thread mode is bounded by
+ * {@code hub.mongo.max-concurrent-operations}.
+ */
+public final class ThreadModeLoadTest {
+
+  private static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+  private static final int REQUESTS = Integer.getInteger("load.requests", 20);
+  private static final Duration LATENCY = Duration.ofMillis(Integer.getInteger("load.latency-ms", 50));
+  private static final int MAX_CONCURRENT_OPERATIONS = Integer.getInteger("load.max-concurrent-operations", 1000);
+
+  private ThreadModeLoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%d clients x %d requests, repository latency %d ms, concurrency limit %d%n%n",
+        CLIENTS, REQUESTS, LATENCY.toMillis(), MAX_CONCURRENT_OPERATIONS);
+    System.out.printf("%-16s %10s %10s %10s %10s %10s %8s%n", "Mode", "req/s", "p50 ms", "p90 ms", "p99 ms",
+        "max ms", "errors");
+    run("platform");
+    if (Runtime.version().feature() >= 21) {
+      run("virtual-threads");
+    } else {
+      System.out.printf("%-16s skipped, needs Java 21 (running on %s)%n", "virtual-threads", Runtime.version());
+    }
+  }
+
+  private static void run(String mode) throws Exception {
+    try (ConfigurableApplicationContext context = StandInApplication.start(new SlowProductRepository(LATENCY),
+        mode.equals("platform") ? null : mode,
+        "--hub.mongo.max-concurrent-operations=" + MAX_CONCURRENT_OPERATIONS)) {
+      ProductRepository repository = context.getBean(ProductRepository.class);
+      IntStream.range(0, 1000).mapToObj(BenchmarkContext::product).forEach(repository::save);
+      int port = StandInApplication.port(context);
+      Result warmUp = drive(port, Math.min(CLIENTS, 100), 5);
+      if (warmUp.errors() == warmUp.latencies().length) {
+        throw new IllegalStateException("Every warm-up request failed");
+      }
+      drive(port, CLIENTS, REQUESTS).print(mode);
+    }
+  }
+
+  private static Result drive(int port, int clients, int requests) {
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + port + "/api/v1/products/cursor?size=10"))
+        .header("Authorization", "Basic "
+            + Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8)))
+        .timeout(Duration.ofMinutes(2))
+        .build();
+
+    long[] latencies = new long[clients * requests];
+    AtomicInteger recorded = new AtomicInteger();
+    AtomicInteger errors = new AtomicInteger();
+    long start = System.nanoTime();
+    CompletableFuture<?>[] sessions = IntStream.range(0, clients)
+        .mapToObj(ignored -> session(client, request, requests, latencies, recorded, errors))
+        .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(sessions).join();
+    return new Result(Arrays.copyOf(latencies, recorded.get()), errors.get(), System.nanoTime() - start);
+  }
+
+  /**
+   * One client sending {@code remaining} requests back to back, each as soon as the previous response arrived.
+   */
+  private static CompletableFuture<Void> session(HttpClient client, HttpRequest request, int remaining,
+                                                 long[] latencies, AtomicInteger recorded, AtomicInteger errors) {
+    if (remaining == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    long sent = System.nanoTime();
+    return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .handle((response, failure) -> {
+          latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+          if (failure != null || response.statusCode() != 200) {
+            errors.incrementAndGet();
+          }
+          return null;
+        })
+        .thenCompose(ignored -> session(client, request, remaining - 1, latencies, recorded, errors));
+  }
+
+  private record Result(long[] latencies, int errors, long elapsedNanos) {
+
+    void print(String mode) {
+      long[] sorted = latencies.clone();
+      Arrays.sort(sorted);
+      System.out.printf("%-16s %10.0f %10.1f %10.1f %10.1f %10.1f %8d%n", mode,
+          sorted.length / (elapsedNanos / 1e9), millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99),
+          millis(sorted, 1.0), errors);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+      int index = (int) Math.ceil(quantile * sorted.length) - 1;
+      return sorted[Math.max(0, index)] / 1e6;
+    }
+  }
+}
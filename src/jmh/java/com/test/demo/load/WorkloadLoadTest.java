@@ -0,0 +1,300 @@
+package com.test.demo.load;
+
+import com.test.demo.benchmark.BenchmarkContext;
+import com.test.demo.load.WorkloadProfile.Operation;
+import com.test.demo.repository.InMemoryProductRepository;
+import com.test.demo.repository.ProductRepository;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end load test: starts the application against an in-process {@link InMemoryProductRepository}, seeds a
+ * catalog, and sends the requests of one or more {@link WorkloadProfile}s at a fixed arrival rate over HTTP. Prints
+ * throughput, errors and latency percentiles per operation, and writes each operation's full HdrHistogram
+ * percentile distribution to {@code load.report-dir}.
+ * <pre>
+ * mvn -Pjmh test-compile exec:java@load [-Dload.profile=mixed,hot-keys,deep-paging,write-heavy,bulk-import]
+ *     [-Dload.rate=500] [-Dload.duration-s=30] [-Dload.warmup-s=10] [-Dload.products=10000] [-Dload.latency-ms=0]
+ *     [-Dload.seed=42] [-Dload.max-outstanding=5000] [-Dload.report-dir=target/load]
+ * </pre>
+ * Requests are sent on schedule whether or not earlier ones have been answered, and latency is measured from when a
+ * request was due rather than when it went out, so a stalled server shows up in the tail instead of slowing the
+ * load down. The same seed draws the same request sequence. Each profile gets a freshly started application.
+ */
+public final class WorkloadLoadTest {
+
+  private static final String PROFILES = System.getProperty("load.profile", "mixed");
+  private static final int RATE = Integer.getInteger("load.rate", 500);
+  private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration-s", 30));
+  private static final Duration WARM_UP = Duration.ofSeconds(Integer.getInteger("load.warmup-s", 10));
+  private static final int PRODUCTS = Integer.getInteger("load.products", 10_000);
+  private static final Duration LATENCY = Duration.ofMillis(Integer.getInteger("load.latency-ms", 0));
+  private static final long SEED = Long.getLong("load.seed", 42);
+  private static final int MAX_OUTSTANDING = Integer.getInteger("load.max-outstanding", 5000);
+  private static final Path REPORT_DIR = Path.of(System.getProperty("load.report-dir", "target/load"));
+
+  private static final int PAGE_SIZE = 20;
+  private static final int LOOKUP_SIZE = 20;
+  private static final int IMPORT_SIZE = 500;
+  private static final double ZIPF_EXPONENT = 1.1;
+
+  private static final String USER = basic("user");
+  private static final String ADMIN = basic("admin");
+
+  private WorkloadLoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    System.out.printf("%d requests/s for %d s after %d s warm-up, %d products, repository latency %d ms, seed %d%n",
+        RATE, DURATION.toSeconds(), WARM_UP.toSeconds(), PRODUCTS, LATENCY.toMillis(), SEED);
+    for (String label : PROFILES.split(",")) {
+      run(WorkloadProfile.fromLabel(label));
+    }
+  }
+
+  private static void run(WorkloadProfile profile) throws IOException {
+    ProductRepository repository = LATENCY.isZero()
+        ? new InMemoryProductRepository()
+        : new SlowProductRepository(LATENCY);
+    IntStream.range(0, PRODUCTS).mapToObj(BenchmarkContext::product).forEach(repository::save);
+    try (ConfigurableApplicationContext context = StandInApplication.start(repository, null)) {
+      Workload workload = new Workload(profile, StandInApplication.port(context));
+      workload.drive(WARM_UP);
+      Result result = workload.drive(DURATION);
+      result.print(profile);
+      result.write(REPORT_DIR.resolve(profile.label()));
+    }
+  }
+
+  private static String basic(String username) {
+    return "Basic " + Base64.getEncoder().encodeToString((username + ":password").getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Draws requests from a profile with a seeded generator, so reruns send the same sequence.
+   */
+  private static final class Workload {
+
+    private final WorkloadProfile profile;
+
+    private final String base;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    /**
+     * Cumulative Zipf probabilities by product rank, for skewed profiles.
+     */
+    private final double[] zipf;
+
+    Workload(WorkloadProfile profile, int port) {
+      this.profile = profile;
+      this.base = "http://localhost:" + port + "/api/v1/products";
+      this.zipf = profile.skewed ? zipf(PRODUCTS, ZIPF_EXPONENT) : null;
+    }
+
+    Result drive(Duration duration) {
+      Result result = new Result();
+      long interval = 1_000_000_000L / RATE;
+      long requests = duration.toSeconds() * RATE;
+      AtomicInteger outstanding = new AtomicInteger();
+      long start = System.nanoTime();
+      for (long i = 0; i < requests; i++) {
+        long due = start + i * interval;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+          LockSupport.parkNanos(wait);
+        }
+        Operation operation = profile.operation(random.nextInt(profile.totalWeight));
+        HttpRequest request = request(operation);
+        if (outstanding.incrementAndGet() > MAX_OUTSTANDING) {
+          outstanding.decrementAndGet();
+          result.dropped.incrementAndGet();
+          continue;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, failure) -> {
+              outstanding.decrementAndGet();
+              result.record(operation, System.nanoTime() - due,
+                  failure == null && response.statusCode() < 400);
+            });
+      }
+      long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+      while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+        LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+      }
+      result.elapsedNanos = System.nanoTime() - start;
+      return result;
+    }
+
+    private HttpRequest request(Operation operation) {
+      return switch (operation) {
+        case GET -> get("/" + id(product()), USER);
+        case LIST -> get("?page=" + random.nextInt(5) + "&size=" + PAGE_SIZE, USER);
+        case DEEP_LIST -> get("?page=" + random.nextInt(Math.max(1, PRODUCTS / PAGE_SIZE)) + "&size=" + PAGE_SIZE
+            + "&sort=" + (random.nextBoolean() ? "price" : "createdDate"), USER);
+        case SEARCH -> get("/search?q=" + URLEncoder.encode("product " + random.nextInt(1000), StandardCharsets.UTF_8),
+            USER);
+        case LOOKUP -> {
+          StringJoiner ids = new StringJoiner(",", "[", "]");
+          for (int i = 0; i < LOOKUP_SIZE; i++) {
+            ids.add("\"" + id(product()) + "\"");
+          }
+          yield send("POST", "/lookup", ids.toString(), "application/json", USER);
+        }
+        case PRICE -> send("PATCH", "/" + id(product()) + "/price?price=" + (1 + random.nextInt(10_000) / 100.0),
+            null, null, ADMIN);
+        case STOCK -> send("PATCH", "/" + id(product()) + "/stock?delta=" + (1 + random.nextInt(10)), null, null,
+            ADMIN);
+        case IMPORT -> {
+          StringBuilder lines = new StringBuilder();
+          int first = random.nextInt(Math.max(1, PRODUCTS - IMPORT_SIZE));
+          for (int i = first; i < first + IMPORT_SIZE && i < PRODUCTS; i++) {
+            lines.append("{\"id\":\"").append(id(i)).append("\",\"name\":\"Product ").append(i)
+                .append("\",\"stock\":").append(random.nextInt(1000))
+                .append(",\"price\":").append(1 + random.nextInt(10_000) / 100.0).append("}\n");
+          }
+          yield send("POST", "/batch", lines.toString(), "application/x-ndjson", ADMIN);
+        }
+      };
+    }
+
+    private int product() {
+      if (zipf == null) {
+        return random.nextInt(PRODUCTS);
+      }
+      int rank = Arrays.binarySearch(zipf, random.nextDouble());
+      return Math.min(rank < 0 ? -rank - 1 : rank, PRODUCTS - 1);
+    }
+
+    private HttpRequest get(String path, String authorization) {
+      return send("GET", path, null, null, authorization);
+    }
+
+    private HttpRequest send(String method, String path, String body, String contentType, String authorization) {
+      HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+          .header("Authorization", authorization)
+          .timeout(Duration.ofSeconds(30))
+          .method(method, body == null
+              ? HttpRequest.BodyPublishers.noBody()
+              : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+      if (contentType != null) {
+        request.header("Content-Type", contentType);
+      }
+      return request.build();
+    }
+
+    private static String id(int product) {
+      return BenchmarkContext.product(product).getId();
+    }
+
+    private static double[] zipf(int n, double exponent) {
+      double[] cumulative = new double[n];
+      double sum = 0;
+      for (int rank = 0; rank < n; rank++) {
+        sum += 1 / Math.pow(rank + 1, exponent);
+        cumulative[rank] = sum;
+      }
+      for (int rank = 0; rank < n; rank++) {
+        cumulative[rank] /= sum;
+      }
+      return cumulative;
+    }
+  }
+
+  /**
+   * Latencies in microseconds, by operation.
+   */
+  private static final class Result {
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long elapsedNanos;
+
+    Result() {
+      for (Operation operation : Operation.values()) {
+        latencies.put(operation, new ConcurrentHistogram(3));
+        errors.put(operation, new AtomicLong());
+      }
+    }
+
+    void record(Operation operation, long nanos, boolean success) {
+      latencies.get(operation).recordValue(Math.max(1, nanos / 1000));
+      if (!success) {
+        errors.get(operation).incrementAndGet();
+      }
+    }
+
+    void print(WorkloadProfile profile) {
+      double seconds = elapsedNanos / 1e9;
+      System.out.printf("%n%s%n%-10s %9s %9s %7s %9s %9s %9s %9s %9s%n", profile.label(), "Operation", "requests",
+          "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+      Histogram total = new Histogram(3);
+      long totalErrors = 0;
+      for (Operation operation : Operation.values()) {
+        Histogram histogram = latencies.get(operation);
+        if (histogram.getTotalCount() == 0) {
+          continue;
+        }
+        total.add(histogram);
+        totalErrors += errors.get(operation).get();
+        print(operation.label(), histogram, errors.get(operation).get(), seconds);
+      }
+      print("total", total, totalErrors, seconds);
+      if (dropped.get() > 0) {
+        System.out.printf("%d requests not sent: more than %d outstanding%n", dropped.get(), MAX_OUTSTANDING);
+      }
+    }
+
+    void write(Path directory) throws IOException {
+      Files.createDirectories(directory);
+      for (Operation operation : Operation.values()) {
+        Histogram histogram = latencies.get(operation);
+        if (histogram.getTotalCount() > 0) {
+          try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(operation.label() + ".hgrm")),
+              false, StandardCharsets.UTF_8)) {
+            // Microseconds recorded, milliseconds reported
+            histogram.outputPercentileDistribution(out, 1000.0);
+          }
+        }
+      }
+    }
+
+    private static void print(String label, Histogram histogram, long errors, double seconds) {
+      System.out.printf("%-10s %9d %9.0f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", label, histogram.getTotalCount(),
+          histogram.getTotalCount() / seconds, errors, millis(histogram, 50), millis(histogram, 90),
+          millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+      return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.test.demo.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A reproducible mix of requests: how often each {@link Operation} is sent and how the products it touches are
+ * picked. Selected with {@code -Dload.profile=<name>}.
+ */
+enum WorkloadProfile {
+
+  /**
+   * Browsing with occasional repricing: reads by id over the whole catalog, the first listing pages, some search.
+   */
+  MIXED(false, weights(Operation.GET, 60, Operation.LIST, 15, Operation.SEARCH, 5, Operation.LOOKUP, 5,
+      Operation.PRICE, 10, Operation.STOCK, 5)),
+
+  /**
+   * Nearly all reads concentrate on a few products (Zipf distributed), with restocking of the same products.
+   */
+  HOT_KEYS(true, weights(Operation.GET, 85, Operation.LOOKUP, 5, Operation.PRICE, 5, Operation.STOCK, 5)),
+
+  /**
+   * Listings far into the catalog, with offset pages sorted by price and by creation date.
+   */
+  DEEP_PAGING(false, weights(Operation.DEEP_LIST, 70, Operation.LIST, 20, Operation.GET, 10)),
+
+  /**
+   * Mostly price and stock updates, as from a repricing feed.
+   */
+  WRITE_HEAVY(true, weights(Operation.PRICE, 45, Operation.STOCK, 35, Operation.GET, 20)),
+
+  /**
+   * Reads by id while catalog chunks are re-imported through the batch endpoint.
+   */
+  BULK_IMPORT(false, weights(Operation.GET, 80, Operation.LIST, 10, Operation.IMPORT, 10));
+
+  enum Operation {
+    GET, LIST, DEEP_LIST, SEARCH, LOOKUP, PRICE, STOCK, IMPORT;
+
+    String label() {
+      return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+  }
+
+  /**
+   * Whether product ids follow a Zipf distribution instead of a uniform one.
+   */
+  final boolean skewed;
+
+  final Map<Operation, Integer> weights;
+
+  final int totalWeight;
+
+  WorkloadProfile(boolean skewed, Map<Operation, Integer> weights) {
+    this.skewed = skewed;
+    this.weights = weights;
+    this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  /**
+   * The operation for a uniformly drawn {@code 0 <= draw < totalWeight}.
+   */
+  Operation operation(int draw) {
+    for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+      draw -= weight.getValue();
+      if (draw < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalArgumentException("Draw out of range");
+  }
+
+  String label() {
+    return name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+
+  static WorkloadProfile fromLabel(String label) {
+    return valueOf(label.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+
+  private static Map<Operation, Integer> weights(Object... operationsAndWeights) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for (int i = 0; i < operationsAndWeights.length; i += 2) {
+      weights.put((Operation) operationsAndWeights[i], (Integer) operationsAndWeights[i + 1]);
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,121 @@
+package com.test.demo.cache;
+
+import com.test.demo.cache.AccessSnapshot.PageCount;
+import com.test.demo.cache.AccessSnapshot.ProductCount;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts reads of single products and of unfiltered listing pages, which is what the {@code products} and
+ * {@code paginatedProducts} caches hold, so the working set can be saved and warmed on the next start.
+ * <p>
+ * Counts are halved on every {@link #decay()}, so old popularity fades out. At most
+ * {@code hub.cache.warmup.max-tracked} keys are counted per kind; while full, new keys are ignored until a decay drops
+ * the ones that went cold. Nothing is counted unless {@code hub.cache.warmup.enabled}.
+ */
+@Component
+public class AccessFrequencies {
+
+  private final boolean enabled;
+
+  private final int maxTracked;
+
+  private final Map<String, LongAdder> products = new ConcurrentHashMap<>();
+
+  private final Map<PageKey, LongAdder> pages = new ConcurrentHashMap<>();
+
+  public AccessFrequencies(@Value("${hub.cache.warmup.enabled}") boolean enabled,
+                           @Value("${hub.cache.warmup.max-tracked}") int maxTracked) {
+    this.enabled = enabled;
+    this.maxTracked = maxTracked;
+  }
+
+  public void productRead(String id) {
+    if (enabled) {
+      increment(products, id, 1);
+    }
+  }
+
+  public void pageRead(int page, int size) {
+    if (enabled) {
+      increment(pages, new PageKey(page, size), 1);
+    }
+  }
+
+  /**
+   * Adds the counts of a snapshot saved by a previous run, so its working set is not lost before it is seen again.
+   */
+  public void seed(AccessSnapshot snapshot) {
+    snapshot.products().forEach(product -> increment(products, product.id(), product.count()));
+    snapshot.pages().forEach(page -> increment(pages, new PageKey(page.page(), page.size()), page.count()));
+  }
+
+  /**
+   * The {@code topProducts} most read products and {@code topPages} most read pages, hottest first.
+   */
+  public AccessSnapshot snapshot(int topProducts, int topPages) {
+    return new AccessSnapshot(
+        top(products, topProducts).stream()
+            .map(entry -> new ProductCount(entry.getKey(), entry.getValue()))
+            .toList(),
+        top(pages, topPages).stream()
+            .map(entry -> new PageCount(entry.getKey().page(), entry.getKey().size(), entry.getValue()))
+            .toList());
+  }
+
+  /**
+   * Halves every count and forgets the keys that reach zero. Increments racing with it may be lost, which only makes
+   * the counts slightly less exact.
+   */
+  public void decay() {
+    decay(products);
+    decay(pages);
+  }
+
+  private <K> void increment(Map<K, LongAdder> counts, K key, long amount) {
+    LongAdder count = counts.get(key);
+    if (count == null) {
+      if (counts.size() >= maxTracked) {
+        return;
+      }
+      count = counts.computeIfAbsent(key, k -> new LongAdder());
+    }
+    count.add(amount);
+  }
+
+  private static <K> void decay(Map<K, LongAdder> counts) {
+    counts.values().removeIf(count -> {
+      long halved = count.sumThenReset() / 2;
+      count.add(halved);
+      return halved == 0;
+    });
+  }
+
+  /**
+   * The {@code limit} largest counts, selected with a bounded min-heap rather than sorting every key.
+   */
+  private static <K> List<Map.Entry<K, Long>> top(Map<K, LongAdder> counts, int limit) {
+    if (limit < 1) {
+      return List.of();
+    }
+    PriorityQueue<Map.Entry<K, Long>> heap = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+    counts.forEach((key, count) -> {
+      heap.offer(Map.entry(key, count.sum()));
+      if (heap.size() > limit) {
+        heap.poll();
+      }
+    });
+    List<Map.Entry<K, Long>> hottest = new ArrayList<>(heap);
+    hottest.sort(Map.Entry.<K, Long>comparingByValue(Comparator.reverseOrder()));
+    return hottest;
+  }
+
+  private record PageKey(int page, int size) { }
+}
@@ -0,0 +1,23 @@
+package com.test.demo.cache;
+
+import java.util.List;
+
+/**
+ * The hottest products and listing pages at one point in time, hottest first, as saved between runs.
+ *
+ * @param products product ids with their decayed read counts
+ * @param pages    unfiltered listing pages with their decayed read counts
+ */
+public record AccessSnapshot(List<ProductCount> products, List<PageCount> pages) {
+
+  public static final AccessSnapshot EMPTY = new AccessSnapshot(List.of(), List.of());
+
+  public AccessSnapshot {
+    products = products == null ? List.of() : List.copyOf(products);
+    pages = pages == null ? List.of() : List.copyOf(pages);
+  }
+
+  public record ProductCount(String id, long count) { }
+
+  public record PageCount(int page, int size, long count) { }
+}
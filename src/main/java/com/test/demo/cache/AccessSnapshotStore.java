@@ -0,0 +1,64 @@
+package com.test.demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the last {@link AccessSnapshot} as JSON in a file ({@code hub.cache.warmup.snapshot-file}), so the next start
+ * knows which products and pages to warm. Each instance needs its own file.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.cache.warmup.enabled", havingValue = "true")
+public class AccessSnapshotStore {
+
+  private static final Logger log = LoggerFactory.getLogger(AccessSnapshotStore.class);
+
+  private final Path file;
+
+  private final ObjectMapper objectMapper;
+
+  public AccessSnapshotStore(@Value("${hub.cache.warmup.snapshot-file}") Path file, ObjectMapper objectMapper) {
+    this.file = file;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * @return the saved snapshot, or an empty one if none was saved yet or it cannot be read; a lost snapshot only
+   * means a cold start
+   */
+  public AccessSnapshot load() {
+    if (!Files.exists(file)) {
+      return AccessSnapshot.EMPTY;
+    }
+    try {
+      return objectMapper.readValue(file.toFile(), AccessSnapshot.class);
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable cache access snapshot {}: {}", file, e.getMessage());
+      return AccessSnapshot.EMPTY;
+    }
+  }
+
+  /**
+   * Replaces the saved snapshot atomically, so a crash mid-write leaves the previous one in place.
+   */
+  public void save(AccessSnapshot snapshot) {
+    try {
+      Path directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      Path written = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      objectMapper.writeValue(written.toFile(), snapshot);
+      Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot save cache access snapshot to " + file, e);
+    }
+  }
+}
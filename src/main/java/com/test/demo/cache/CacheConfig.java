@@ -0,0 +1,151 @@
+package com.test.demo.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.test.demo.cache.HubCacheProperties.CacheSpec;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+/**
+ * Caffeine backed caches, one per name configured under {@code hub.cache.caches}. Size bounded caches use Caffeine's
+ * W-TinyLFU admission and eviction policy; all of them record statistics, which Actuator publishes as
+ * {@code cache.gets}, {@code cache.evictions} and {@code cache.load.duration}.
+ */
+@Configuration
+@EnableConfigurationProperties(HubCacheProperties.class)
+public class CacheConfig {
+
+  @Bean
+  public CacheManager cacheManager(HubCacheProperties properties, ObjectProvider<CacheReloader> reloaders,
+      ObjectProvider<CacheEvictionListener> evictionListeners) {
+    List<CaffeineCache> caches = properties.caches().entrySet().stream()
+        .map(entry -> createCache(entry.getKey(), entry.getValue(), reloaders, evictionListeners))
+        .toList();
+
+    SimpleCacheManager cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(caches);
+    return cacheManager;
+  }
+
+  private static CaffeineCache createCache(String name, CacheSpec spec, ObjectProvider<CacheReloader> reloaders,
+      ObjectProvider<CacheEvictionListener> evictionListeners) {
+    if (spec.maximumSize() != null && spec.maximumWeight() != null) {
+      throw new IllegalStateException("Cache '" + name + "' may define maximum-size or maximum-weight, not both");
+    }
+
+    Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats()
+        .removalListener(new EvictionNotifier(name, evictionListeners));
+    if (spec.maximumSize() != null) {
+      builder.maximumSize(spec.maximumSize());
+    }
+    if (spec.maximumWeight() != null) {
+      builder.maximumWeight(spec.maximumWeight()).weigher(CacheConfig::weigh);
+    }
+    if (spec.expireAfterWrite() != null) {
+      builder.expireAfterWrite(spec.expireAfterWrite());
+    }
+    if (spec.refreshAfterWrite() == null) {
+      return new CaffeineCache(name, builder.build());
+    }
+
+    builder.refreshAfterWrite(spec.refreshAfterWrite());
+    return new RefreshingCaffeineCache(name, builder.build(new ReloaderCacheLoader(name, reloaders)));
+  }
+
+  private static int weigh(Object key, Object value) {
+    if (value instanceof Collection<?> collection) {
+      return Math.max(1, collection.size());
+    }
+    if (value instanceof Page<?> page) {
+      return Math.max(1, page.getNumberOfElements());
+    }
+    return 1;
+  }
+
+  /**
+   * Spring's {@link CaffeineCache} turns every lookup on a {@link LoadingCache} into a load. Here the loader only
+   * serves refresh-ahead, so a lookup has to stay a plain {@code getIfPresent}, which still triggers the refresh.
+   */
+  private static class RefreshingCaffeineCache extends CaffeineCache {
+
+    RefreshingCaffeineCache(String name, LoadingCache<Object, Object> cache) {
+      super(name, cache);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+      return getNativeCache().getIfPresent(key);
+    }
+  }
+
+  private static class ReloaderCacheLoader implements CacheLoader<Object, Object> {
+
+    private final String cacheName;
+    private final ObjectProvider<CacheReloader> reloaders;
+    private volatile CacheReloader reloader;
+
+    ReloaderCacheLoader(String cacheName, ObjectProvider<CacheReloader> reloaders) {
+      this.cacheName = cacheName;
+      this.reloaders = reloaders;
+    }
+
+    @Override
+    public Object load(Object key) {
+      return reloader().reload(key);
+    }
+
+    private CacheReloader reloader() {
+      if (reloader == null) {
+        reloader = reloaders.orderedStream()
+            .filter(candidate -> cacheName.equals(candidate.cacheName()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No CacheReloader for cache '" + cacheName + "'"));
+      }
+      return reloader;
+    }
+  }
+
+  /**
+   * Forwards size and expiry evictions to the cache's {@link CacheEvictionListener}, if there is one. Resolved on
+   * first use, since listeners usually depend on the cache manager themselves.
+   */
+  private static class EvictionNotifier implements RemovalListener<Object, Object> {
+
+    private final String cacheName;
+    private final ObjectProvider<CacheEvictionListener> listeners;
+    private volatile Optional<CacheEvictionListener> listener;
+
+    EvictionNotifier(String cacheName, ObjectProvider<CacheEvictionListener> listeners) {
+      this.cacheName = cacheName;
+      this.listeners = listeners;
+    }
+
+    @Override
+    public void onRemoval(Object key, Object value, RemovalCause cause) {
+      if (cause.wasEvicted()) {
+        listener().ifPresent(candidate -> candidate.evicted(key));
+      }
+    }
+
+    private Optional<CacheEvictionListener> listener() {
+      if (listener == null) {
+        listener = listeners.orderedStream()
+            .filter(candidate -> cacheName.equals(candidate.cacheName()))
+            .findFirst();
+      }
+      return listener;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.test.demo.cache;
+
+/**
+ * Told about entries a cache dropped on its own, by size or expiry, so state derived from them can be forgotten.
+ * Explicit evictions and replacements are not reported.
+ */
+public interface CacheEvictionListener {
+
+  String cacheName();
+
+  /**
+   * Called asynchronously, after the entry is gone; the key may have been cached again by then.
+   */
+  void evicted(Object key);
+}
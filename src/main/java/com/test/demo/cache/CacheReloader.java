@@ -0,0 +1,14 @@
+package com.test.demo.cache;
+
+/**
+ * Source of fresh values for a cache configured with {@code refresh-after-write}.
+ */
+public interface CacheReloader {
+
+  String cacheName();
+
+  /**
+   * @return the current value for the key, or {@code null} if it no longer exists and the entry should be dropped
+   */
+  Object reload(Object key);
+}
@@ -0,0 +1,27 @@
+package com.test.demo.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Per cache name settings, e.g. {@code hub.cache.caches.products.maximum-size=10000}.
+ */
+@ConfigurationProperties(prefix = "hub.cache")
+public record HubCacheProperties(Map<String, CacheSpec> caches) {
+
+  public HubCacheProperties {
+    caches = caches == null ? Map.of() : Map.copyOf(caches);
+  }
+
+  /**
+   * @param maximumSize       maximum number of entries, mutually exclusive with {@code maximumWeight}
+   * @param maximumWeight     maximum total weight, where a cached collection or page weighs as many elements as it
+   *                          holds
+   * @param expireAfterWrite  time after which an entry is dropped
+   * @param refreshAfterWrite time after which the next read triggers an asynchronous reload; needs a
+   *                          {@link CacheReloader}
+   */
+  public record CacheSpec(Long maximumSize, Long maximumWeight, Duration expireAfterWrite,
+                          Duration refreshAfterWrite) { }
+}
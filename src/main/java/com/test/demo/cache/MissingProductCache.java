@@ -0,0 +1,52 @@
+package com.test.demo.cache;
+
+import com.test.demo.exception.ProductNotFoundException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code missingProducts} cache: ids that were looked up and not found, with the exception that answered them, so
+ * repeated misses for the same id, typically clients probing ids, neither query MongoDB nor build a new exception.
+ * Nothing is remembered when the cache is not configured.
+ * <p>
+ * Every write that can make a product exist forgets its id, including inserts observed on the change stream. A miss
+ * recorded while the product was being created elsewhere, or with change following off, lasts until the cache's
+ * {@code expire-after-write}, which should therefore stay short.
+ */
+@Component
+public class MissingProductCache {
+
+  public static final String CACHE_NAME = "missingProducts";
+
+  private final Cache cache;
+
+  public MissingProductCache(CacheManager cacheManager) {
+    this.cache = cacheManager.getCache(CACHE_NAME);
+  }
+
+  /**
+   * The exception a previous lookup of {@code id} ended with, or {@code null} if the id is not known to be missing.
+   */
+  public ProductNotFoundException get(String id) {
+    return cache == null ? null : cache.get(id, ProductNotFoundException.class);
+  }
+
+  public void put(ProductNotFoundException missing) {
+    if (cache != null) {
+      cache.put(missing.getId(), missing);
+    }
+  }
+
+  public void forget(String id) {
+    if (cache != null && id != null) {
+      cache.evict(id);
+    }
+  }
+
+  public void clear() {
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+}
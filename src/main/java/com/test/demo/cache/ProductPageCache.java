@@ -0,0 +1,303 @@
+package com.test.demo.cache;
+
+import com.test.demo.model.dto.ProductDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code paginatedProducts} cache plus an index of which product ids sit on which cached page, so a write only
+ * touches the pages it actually affects instead of clearing every page.
+ * <p>
+ * Pages are cached without their total; the total count is tracked separately, adjusted on insert and re-counted
+ * lazily after a delete. Listings are unsorted and follow the collection's natural (insertion) order, so an insert
+ * lands at position {@code total} and a delete shifts everything after the deleted product's position.
+ * <p>
+ * Inserts and deletes are also observed on the change stream, including those made by this instance. Recently applied
+ * local ones are remembered so their echo is not applied twice.
+ */
+@Component
+public class ProductPageCache implements CacheEvictionListener {
+
+  public static final String CACHE_NAME = "paginatedProducts";
+
+  private static final long UNKNOWN = -1;
+
+  private static final int REMEMBERED_WRITES = 1024;
+
+  private final Cache cache;
+
+  private final SingleFlight<PageKey, LoadedPage> pageLoads;
+
+  private final Map<PageKey, List<String>> idsByPage = new HashMap<>();
+  private final Map<String, Set<PageKey>> pagesById = new HashMap<>();
+
+  private final Set<String> recentInserts = boundedSet();
+  private final Set<String> recentDeletes = boundedSet();
+
+  private long generation;
+  private long totalCount = UNKNOWN;
+
+  public ProductPageCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+    this.cache = cacheManager.getCache(CACHE_NAME);
+    if (cache == null) {
+      throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured");
+    }
+    this.pageLoads = new SingleFlight<>(CACHE_NAME, meterRegistry);
+  }
+
+  /**
+   * Serves a page from the cache, or loads it and indexes its product ids. Concurrent misses for the same page share
+   * a single load. A page loaded while a write was in progress is returned but not cached, since it may already be
+   * stale.
+   */
+  @SuppressWarnings("unchecked")
+  public Page<ProductDTO> getPage(int page, int size, Function<Pageable, Page<ProductDTO>> loader, LongSupplier counter) {
+    PageKey key = new PageKey(page, size);
+    Pageable pageable = PageRequest.of(page, size);
+
+    List<ProductDTO> content = cache.get(key, List.class);
+    if (content != null) {
+      return new PageImpl<>(content, pageable, totalCount(counter));
+    }
+
+    LoadedPage loaded = pageLoads.execute(key, () -> {
+      long observedGeneration = currentGeneration();
+      return new LoadedPage(loader.apply(pageable), observedGeneration);
+    });
+    pageLoaded(page, size, loaded.page(), loaded.generation());
+    return loaded.page();
+  }
+
+  /**
+   * A page answered from memory alone, or {@code null} unless both its content and the total count are cached. For
+   * callers that must not block on a load, which load the page themselves and hand it to {@link #pageLoaded}.
+   */
+  @SuppressWarnings("unchecked")
+  public Page<ProductDTO> cachedPage(int page, int size) {
+    List<ProductDTO> content = cache.get(new PageKey(page, size), List.class);
+    if (content == null) {
+      return null;
+    }
+    long total;
+    synchronized (this) {
+      total = totalCount;
+    }
+    return total == UNKNOWN ? null : new PageImpl<>(content, PageRequest.of(page, size), total);
+  }
+
+  /**
+   * Caches and indexes a loaded page with its total, unless a write happened since {@code observedGeneration}, which
+   * must be read from {@link #currentGeneration()} before the load started.
+   */
+  public synchronized void pageLoaded(int page, int size, Page<ProductDTO> loaded, long observedGeneration) {
+    if (generation == observedGeneration) {
+      PageKey key = new PageKey(page, size);
+      List<ProductDTO> content = List.copyOf(loaded.getContent());
+      index(key, content);
+      cache.put(key, content);
+      totalCount = loaded.getTotalElements();
+    }
+  }
+
+  /**
+   * Replaces the product in every cached page that shows it; no other page can be affected. A page already showing a
+   * newer version keeps it.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void productUpdated(ProductDTO product) {
+    generation++;
+    for (PageKey key : List.copyOf(pagesById.getOrDefault(product.id(), Set.of()))) {
+      List<ProductDTO> content = cache.get(key, List.class);
+      if (content == null) {
+        unindex(key);
+        continue;
+      }
+      List<ProductDTO> patched = new ArrayList<>(content.size());
+      content.forEach(cached -> patched.add(product.id().equals(cached.id()) && !newer(cached, product)
+          ? product : cached));
+      cache.put(key, List.copyOf(patched));
+    }
+  }
+
+  /**
+   * A new product is appended at position {@code total}: only the pages reaching that position are evicted.
+   */
+  public synchronized void productInserted(String id) {
+    recentInserts.add(id);
+    generation++;
+    if (totalCount == UNKNOWN) {
+      clear();
+      return;
+    }
+    evictFrom(totalCount);
+    totalCount++;
+  }
+
+  /**
+   * An insert seen on the change stream. The echo of a local insert is skipped; for any other the tracked total may or
+   * may not include it yet, so the pages from the last known position on are evicted and the total is re-counted.
+   */
+  public synchronized void productInsertObserved(String id) {
+    if (recentInserts.remove(id)) {
+      return;
+    }
+    generation++;
+    if (totalCount == UNKNOWN) {
+      clear();
+      return;
+    }
+    evictFrom(Math.max(0, totalCount - 1));
+    totalCount = UNKNOWN;
+  }
+
+  /**
+   * Everything after the deleted product moves up by one, so pages from its position onwards are evicted. If the
+   * product is not on any cached page its position is unknown and all pages are evicted.
+   */
+  public synchronized void productDeleted(String id) {
+    recentDeletes.add(id);
+    evictDeleted(id);
+  }
+
+  /**
+   * A delete seen on the change stream; the echo of a local delete is skipped.
+   */
+  public synchronized void productDeleteObserved(String id) {
+    if (!recentDeletes.remove(id)) {
+      evictDeleted(id);
+    }
+  }
+
+  private void evictDeleted(String id) {
+    generation++;
+    long position = Long.MAX_VALUE;
+    for (PageKey key : pagesById.getOrDefault(id, Set.of())) {
+      int index = idsByPage.get(key).indexOf(id);
+      position = Math.min(position, (long) key.page() * key.size() + index);
+    }
+    if (position == Long.MAX_VALUE) {
+      clear();
+    } else {
+      evictFrom(position);
+    }
+    totalCount = UNKNOWN;
+  }
+
+  public synchronized void clear() {
+    generation++;
+    cache.clear();
+    idsByPage.clear();
+    pagesById.clear();
+    totalCount = UNKNOWN;
+  }
+
+  @Override
+  public String cacheName() {
+    return CACHE_NAME;
+  }
+
+  /**
+   * Forgets the ids of a page the cache dropped by size or expiry, unless the page has been cached again since.
+   */
+  @Override
+  public synchronized void evicted(Object key) {
+    if (key instanceof PageKey pageKey && !isCached(pageKey)) {
+      unindex(pageKey);
+    }
+  }
+
+  /**
+   * The tracked number of products, counted with {@code counter} only when unknown.
+   */
+  public long totalCount(LongSupplier counter) {
+    synchronized (this) {
+      if (totalCount != UNKNOWN) {
+        return totalCount;
+      }
+    }
+    long observedGeneration = currentGeneration();
+    long counted = counter.getAsLong();
+    synchronized (this) {
+      if (generation == observedGeneration) {
+        totalCount = counted;
+      }
+    }
+    return counted;
+  }
+
+  synchronized int indexedPages() {
+    return idsByPage.size();
+  }
+
+  private boolean isCached(PageKey key) {
+    return cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+        ? caffeine.asMap().containsKey(key)
+        : cache.get(key) != null;
+  }
+
+  public synchronized long currentGeneration() {
+    return generation;
+  }
+
+  private static boolean newer(ProductDTO cached, ProductDTO product) {
+    return cached.version() != null && product.version() != null && cached.version() > product.version();
+  }
+
+  private static Set<String> boundedSet() {
+    return Collections.newSetFromMap(new LinkedHashMap<>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        return size() > REMEMBERED_WRITES;
+      }
+    });
+  }
+
+  private void evictFrom(long position) {
+    for (PageKey key : List.copyOf(idsByPage.keySet())) {
+      if ((long) (key.page() + 1) * key.size() > position) {
+        cache.evict(key);
+        unindex(key);
+      }
+    }
+  }
+
+  private void index(PageKey key, List<ProductDTO> content) {
+    unindex(key);
+    List<String> ids = content.stream().map(ProductDTO::id).toList();
+    idsByPage.put(key, ids);
+    ids.forEach(id -> pagesById.computeIfAbsent(id, ignored -> new HashSet<>()).add(key));
+  }
+
+  private void unindex(PageKey key) {
+    List<String> ids = idsByPage.remove(key);
+    if (ids == null) {
+      return;
+    }
+    for (String id : ids) {
+      Set<PageKey> pages = pagesById.get(id);
+      if (pages != null && pages.remove(key) && pages.isEmpty()) {
+        pagesById.remove(id);
+      }
+    }
+  }
+
+  public record PageKey(int page, int size) { }
+
+  private record LoadedPage(Page<ProductDTO> page, long generation) { }
+}
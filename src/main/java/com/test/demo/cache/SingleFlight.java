@@ -0,0 +1,77 @@
+package com.test.demo.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, every caller arriving while it is
+ * still running waits for and shares its result (or exception) instead of issuing its own query.
+ * <p>
+ * Publishes {@code cache.singleflight.load} (loads actually executed) and {@code cache.singleflight.coalesced}
+ * (callers that piggybacked on another caller's load), both tagged with the cache name.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  private final Timer loads;
+
+  private final Counter coalesced;
+
+  public SingleFlight(String cacheName, MeterRegistry meterRegistry) {
+    this.loads = Timer.builder("cache.singleflight.load")
+        .tag("cache", cacheName)
+        .register(meterRegistry);
+    this.coalesced = Counter.builder("cache.singleflight.coalesced")
+        .tag("cache", cacheName)
+        .register(meterRegistry);
+    Gauge.builder("cache.singleflight.in.flight", inFlight, ConcurrentMap::size)
+        .tag("cache", cacheName)
+        .register(meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return await(existing);
+    }
+
+    try {
+      V value = loads.record(loader);
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  public long coalescedCount() {
+    return (long) coalesced.count();
+  }
+
+  private V await(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
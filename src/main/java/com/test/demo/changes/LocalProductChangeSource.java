@@ -0,0 +1,49 @@
+package com.test.demo.changes;
+
+import com.test.demo.changes.ProductChange.Type;
+import com.test.demo.model.dto.ProductDTO;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process stand-in for the change stream, for tests and for running without a replica set. Changes are only what
+ * is {@link #publish published} here, delivered on the publishing thread; every change is kept, so a subscriber can
+ * resume after any of them.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.changes.source", havingValue = "local")
+public class LocalProductChangeSource implements ProductChangeSource {
+
+  private final List<ProductChange> history = new ArrayList<>();
+
+  private final List<Consumer<ProductChange>> consumers = new ArrayList<>();
+
+  public synchronized ProductChange publish(Type type, String id, ProductDTO product) {
+    ProductChange change = new ProductChange(type, id, product, String.valueOf(history.size() + 1), Instant.now());
+    history.add(change);
+    consumers.forEach(consumer -> consumer.accept(change));
+    return change;
+  }
+
+  @Override
+  public synchronized Subscription subscribe(String resumeToken, Consumer<ProductChange> consumer) {
+    if (resumeToken != null) {
+      int position = history.stream().map(ProductChange::resumeToken).toList().indexOf(resumeToken);
+      if (position < 0) {
+        consumer.accept(new ProductChange(Type.RESET, null, null, null, Instant.now()));
+      } else {
+        history.subList(position + 1, history.size()).forEach(consumer);
+      }
+    }
+    consumers.add(consumer);
+    return () -> {
+      synchronized (this) {
+        consumers.remove(consumer);
+      }
+    };
+  }
+}
@@ -0,0 +1,210 @@
+package com.test.demo.changes;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.test.demo.changes.ProductChange.Type;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the change stream of the products collection on a dedicated thread. Updates are delivered with the
+ * document as it is when the change is read, so a burst of updates to one product converges on its latest state.
+ * <p>
+ * A failed cursor is reopened after {@code hub.changes.retry-delay}, resuming after the last delivered change. Change
+ * streams need a replica set; against a standalone server the source logs a warning and delivers nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.changes.source", havingValue = "mongo", matchIfMissing = true)
+public class MongoProductChangeSource implements ProductChangeSource {
+
+  private static final Logger log = LoggerFactory.getLogger(MongoProductChangeSource.class);
+
+  /**
+   * ChangeStreamFatalError and ChangeStreamHistoryLost: the resume position is gone.
+   */
+  private static final Set<Integer> POSITION_LOST = Set.of(280, 286);
+
+  /**
+   * The server does not support change streams (standalone, or too old).
+   */
+  private static final Set<Integer> UNSUPPORTED = Set.of(40573, 40324);
+
+  private static final Duration MAX_AWAIT = Duration.ofSeconds(1);
+
+  private final MongoTemplate mongoTemplate;
+
+  private final ProductMapper productMapper;
+
+  private final Duration retryDelay;
+
+  private final Counter restarts;
+
+  public MongoProductChangeSource(MongoTemplate mongoTemplate, ProductMapper productMapper,
+                                  @Value("${hub.changes.retry-delay}") Duration retryDelay,
+                                  MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.productMapper = productMapper;
+    this.retryDelay = retryDelay;
+    this.restarts = Counter.builder("hub.changes.restarts")
+        .description("Change stream cursors reopened after a failure")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Subscription subscribe(String resumeToken, Consumer<ProductChange> consumer) {
+    Follower follower = new Follower(resumeToken, consumer);
+    follower.thread.start();
+    return follower;
+  }
+
+  private ProductChange toChange(ChangeStreamDocument<Document> event) {
+    String token = event.getResumeToken() == null ? null : event.getResumeToken().toJson();
+    Instant occurredAt = event.getWallTime() != null
+        ? Instant.ofEpochMilli(event.getWallTime().getValue())
+        : event.getClusterTime() != null ? Instant.ofEpochSecond(event.getClusterTime().getTime()) : Instant.now();
+    String id = event.getDocumentKey() == null ? null : id(event.getDocumentKey().get("_id"));
+    return switch (event.getOperationType()) {
+      case INSERT -> new ProductChange(Type.INSERT, id, product(event.getFullDocument()), token, occurredAt);
+      case UPDATE, REPLACE -> new ProductChange(Type.UPDATE, id, product(event.getFullDocument()), token, occurredAt);
+      case DELETE -> new ProductChange(Type.DELETE, id, null, token, occurredAt);
+      case DROP, RENAME, DROP_DATABASE, INVALIDATE -> new ProductChange(Type.RESET, null, null, token, occurredAt);
+      default -> null;
+    };
+  }
+
+  private ProductDTO product(Document document) {
+    return document == null ? null : productMapper.toDto(mongoTemplate.getConverter().read(Product.class, document));
+  }
+
+  private static String id(BsonValue id) {
+    if (id == null) {
+      return null;
+    }
+    if (id.isObjectId()) {
+      return id.asObjectId().getValue().toHexString();
+    }
+    return id.isString() ? id.asString().getValue() : id.toString();
+  }
+
+  private class Follower implements Subscription, Runnable {
+
+    private final Consumer<ProductChange> consumer;
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private String resumeToken;
+
+    Follower(String resumeToken, Consumer<ProductChange> consumer) {
+      this.resumeToken = resumeToken;
+      this.consumer = consumer;
+      this.thread = new Thread(this, "product-changes");
+      this.thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        try {
+          follow();
+        } catch (MongoServerException e) {
+          if (UNSUPPORTED.contains(e.getCode())) {
+            log.warn("Change streams are not available, caches only follow this instance's writes: {}",
+                e.getMessage());
+            return;
+          }
+          if (POSITION_LOST.contains(e.getCode())) {
+            log.warn("Change stream cannot resume, starting over: {}", e.getMessage());
+            resumeToken = null;
+            deliver(new ProductChange(Type.RESET, null, null, null, Instant.now()));
+            continue;
+          }
+          retryLater(e);
+        } catch (MongoException e) {
+          retryLater(e);
+        }
+      }
+    }
+
+    private void follow() {
+      ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+          .watch()
+          .fullDocument(FullDocument.UPDATE_LOOKUP)
+          .maxAwaitTime(MAX_AWAIT.toMillis(), TimeUnit.MILLISECONDS);
+      if (resumeToken != null) {
+        stream = stream.resumeAfter(BsonDocument.parse(resumeToken));
+      }
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+        while (running) {
+          ChangeStreamDocument<Document> event = cursor.tryNext();
+          if (event == null) {
+            continue;
+          }
+          ProductChange change = toChange(event);
+          if (change != null) {
+            deliver(change);
+          }
+          if (change != null && change.type() == Type.RESET) {
+            // The stream is invalidated and cannot be resumed, only restarted
+            resumeToken = null;
+            return;
+          }
+          resumeToken = change != null ? change.resumeToken() : event.getResumeToken().toJson();
+        }
+      }
+    }
+
+    private void deliver(ProductChange change) {
+      if (running) {
+        consumer.accept(change);
+      }
+    }
+
+    private void retryLater(MongoException e) {
+      if (!running) {
+        return;
+      }
+      restarts.increment();
+      log.warn("Change stream failed, resuming in {}: {}", retryDelay, e.getMessage());
+      try {
+        Thread.sleep(retryDelay.toMillis());
+      } catch (InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        running = false;
+      }
+    }
+
+    @Override
+    public void close() {
+      running = false;
+      thread.interrupt();
+      try {
+        thread.join(MAX_AWAIT.multipliedBy(5).toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.test.demo.changes;
+
+import com.test.demo.model.dto.ProductDTO;
+import java.time.Instant;
+
+/**
+ * One change to the products collection, as delivered by a {@link ProductChangeSource}.
+ *
+ * @param type        what happened
+ * @param id          the product id; {@code null} for {@link Type#RESET}
+ * @param product     the product's current state after an insert or update; {@code null} after a delete, a reset, or
+ *                    an update of a product deleted since
+ * @param resumeToken opaque position to resume after this change
+ * @param occurredAt  when the change was committed
+ */
+public record ProductChange(Type type, String id, ProductDTO product, String resumeToken, Instant occurredAt) {
+
+  public enum Type {
+    INSERT,
+    UPDATE,
+    DELETE,
+    /**
+     * Changes may have been missed, e.g. the collection was dropped or the resume position is no longer available, so
+     * everything derived from the collection must be rebuilt.
+     */
+    RESET
+  }
+}
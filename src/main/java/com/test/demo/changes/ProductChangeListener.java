@@ -0,0 +1,224 @@
+package com.test.demo.changes;
+
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.changes.ProductChange.Type;
+import com.test.demo.changes.ProductChangeSource.Subscription;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.search.ProductSearchIndex;
+import com.test.demo.search.ProductSearchIndexLoader;
+import com.test.demo.writebehind.ProductWriteBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps this instance's product caches and search index in line with writes made anywhere, by applying every change
+ * of the products collection: cached products are refreshed in place or evicted, cached pages are patched or evicted
+ * like after a local write, and the search index follows. The echo of this instance's own writes is harmless: updates
+ * never replace a newer version, the page cache recognises its own inserts and deletes, and with write-behind the
+ * updates still buffered are applied on top of the stored product.
+ * <p>
+ * Starts before the application runners, so nothing written while the search index is being built is missed. The
+ * resume token is saved at most every {@code hub.changes.checkpoint-interval} and on shutdown; after a restart the
+ * changes since then are replayed, at worst a second time.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.changes.enabled", havingValue = "true")
+public class ProductChangeListener implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductChangeListener.class);
+
+  private final ProductChangeSource productChangeSource;
+
+  private final ResumeTokenStore resumeTokenStore;
+
+  private final Cache productCache;
+
+  private final ProductPageCache productPageCache;
+
+  private final MissingProductCache missingProducts;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  private final ObjectProvider<ProductSearchIndexLoader> productSearchIndexLoader;
+
+  private final ProductWriteBuffer writeBuffer;
+
+  private final Duration checkpointInterval;
+
+  private final Timer lag;
+
+  private final Map<Type, Counter> applied = new EnumMap<>(Type.class);
+
+  private volatile Subscription subscription;
+
+  private volatile String lastToken;
+
+  private String savedToken;
+
+  private long lastCheckpoint = System.nanoTime();
+
+  public ProductChangeListener(ProductChangeSource productChangeSource, ResumeTokenStore resumeTokenStore,
+                               CacheManager cacheManager, ProductPageCache productPageCache,
+                               MissingProductCache missingProducts, ProductSearchIndex productSearchIndex,
+                               ObjectProvider<ProductSearchIndexLoader> productSearchIndexLoader,
+                               ObjectProvider<ProductWriteBuffer> writeBuffer,
+                               @Value("${hub.changes.checkpoint-interval}") Duration checkpointInterval,
+                               MeterRegistry meterRegistry) {
+    this.productChangeSource = productChangeSource;
+    this.resumeTokenStore = resumeTokenStore;
+    this.productCache = cacheManager.getCache("products");
+    if (productCache == null) {
+      throw new IllegalStateException("Cache 'products' is not configured");
+    }
+    this.productPageCache = productPageCache;
+    this.missingProducts = missingProducts;
+    this.productSearchIndex = productSearchIndex;
+    this.productSearchIndexLoader = productSearchIndexLoader;
+    this.writeBuffer = writeBuffer.getIfAvailable();
+    this.checkpointInterval = checkpointInterval;
+    this.lag = Timer.builder("hub.changes.lag")
+        .description("Time from a change being committed to this instance applying it")
+        .register(meterRegistry);
+    for (Type type : Type.values()) {
+      applied.put(type, Counter.builder("hub.changes.applied")
+          .description("Changes applied to the local caches")
+          .tag("type", type.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry));
+    }
+  }
+
+  @Override
+  public void start() {
+    savedToken = resumeTokenStore.load();
+    lastToken = savedToken;
+    subscription = productChangeSource.subscribe(savedToken, this::apply);
+  }
+
+  @Override
+  public void stop() {
+    Subscription current = subscription;
+    if (current != null) {
+      current.close();
+      subscription = null;
+      checkpoint();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return subscription != null;
+  }
+
+  void apply(ProductChange change) {
+    try {
+      switch (change.type()) {
+        case INSERT -> {
+          missingProducts.forget(change.id());
+          productCache.evict(change.id());
+          productPageCache.productInsertObserved(change.id());
+          if (change.product() != null) {
+            productSearchIndex.put(change.product());
+          }
+        }
+        case UPDATE -> {
+          if (change.product() == null) {
+            // Deleted before the update was read; its delete follows
+            productCache.evict(change.id());
+          } else {
+            missingProducts.forget(change.id());
+            ProductDTO product = change.product();
+            if (writeBuffer == null) {
+              refresh(product);
+            } else {
+              product = writeBuffer.overlay(product, this::refresh);
+            }
+            productPageCache.productUpdated(product);
+            productSearchIndex.put(product);
+          }
+        }
+        case DELETE -> {
+          productCache.evict(change.id());
+          productPageCache.productDeleteObserved(change.id());
+          productSearchIndex.remove(change.id());
+        }
+        case RESET -> reset();
+      }
+    } catch (RuntimeException e) {
+      log.error("Could not apply {} of product {}, dropping everything cached", change.type(), change.id(), e);
+      reset();
+    }
+    applied.get(change.type()).increment();
+    lag.record(Duration.between(change.occurredAt(), Instant.now()).abs());
+    if (change.resumeToken() != null) {
+      lastToken = change.resumeToken();
+    }
+    if (System.nanoTime() - lastCheckpoint >= checkpointInterval.toNanos()) {
+      checkpoint();
+    }
+  }
+
+  /**
+   * Replaces a cached product unless the cached one is newer; a product that is not cached stays uncached.
+   */
+  @SuppressWarnings("unchecked")
+  private void refresh(ProductDTO product) {
+    Object nativeCache = productCache.getNativeCache();
+    ConcurrentMap<Object, Object> entries = null;
+    if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+      entries = (ConcurrentMap<Object, Object>) caffeine.asMap();
+    } else if (nativeCache instanceof ConcurrentMap<?, ?> map) {
+      entries = (ConcurrentMap<Object, Object>) map;
+    }
+    if (entries == null) {
+      productCache.evict(product.id());
+      return;
+    }
+    entries.computeIfPresent(product.id(), (id, cached) -> cached instanceof ProductDTO current
+        && current.version() != null && product.version() != null && current.version() > product.version()
+        ? cached : product);
+  }
+
+  private void reset() {
+    log.warn("Product changes may have been missed, rebuilding caches and search index");
+    productCache.clear();
+    productPageCache.clear();
+    missingProducts.clear();
+    ProductSearchIndexLoader loader = productSearchIndexLoader.getIfAvailable();
+    if (loader != null) {
+      loader.reload();
+    } else {
+      productSearchIndex.clear();
+    }
+  }
+
+  private void checkpoint() {
+    lastCheckpoint = System.nanoTime();
+    String token = lastToken;
+    if (token == null || token.equals(savedToken)) {
+      return;
+    }
+    try {
+      resumeTokenStore.save(token);
+      savedToken = token;
+    } catch (RuntimeException e) {
+      log.warn("Could not save the change stream resume token", e);
+    }
+  }
+}
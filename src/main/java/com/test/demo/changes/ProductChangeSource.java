@@ -0,0 +1,28 @@
+package com.test.demo.changes;
+
+import java.util.function.Consumer;
+
+/**
+ * A feed of committed product changes, in commit order. Selected with {@code hub.changes.source}: {@code mongo} for
+ * the collection's change stream, {@code local} for an in-process stand-in.
+ */
+public interface ProductChangeSource {
+
+  /**
+   * Starts delivering changes to {@code consumer}, one at a time and in order. Delivery is expected to survive
+   * connection failures by resuming after the last delivered change; a {@link ProductChange.Type#RESET} is delivered
+   * when that position is lost.
+   *
+   * @param resumeToken the token of the last change already handled, or {@code null} to start from now
+   */
+  Subscription subscribe(String resumeToken, Consumer<ProductChange> consumer);
+
+  interface Subscription extends AutoCloseable {
+
+    /**
+     * Stops delivery; no change is delivered once this returns.
+     */
+    @Override
+    void close();
+  }
+}
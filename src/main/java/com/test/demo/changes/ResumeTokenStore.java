@@ -0,0 +1,57 @@
+package com.test.demo.changes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the resume token of the last handled change in a file ({@code hub.changes.resume-token-file}), so a restarted
+ * instance continues where it stopped rather than from whatever happens after it is up again. Each instance needs its
+ * own file.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.changes.enabled", havingValue = "true")
+public class ResumeTokenStore {
+
+  private final Path file;
+
+  public ResumeTokenStore(@Value("${hub.changes.resume-token-file}") Path file) {
+    this.file = file;
+  }
+
+  /**
+   * @return the saved token, or {@code null} if none was saved yet
+   */
+  public String load() {
+    try {
+      if (!Files.exists(file)) {
+        return null;
+      }
+      String token = Files.readString(file, StandardCharsets.UTF_8).trim();
+      return token.isEmpty() ? null : token;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read resume token from " + file, e);
+    }
+  }
+
+  /**
+   * Replaces the saved token atomically, so a crash mid-write leaves the previous one in place.
+   */
+  public void save(String token) {
+    try {
+      Path directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      Path written = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      Files.writeString(written, token, StandardCharsets.UTF_8);
+      Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot save resume token to " + file, e);
+    }
+  }
+}
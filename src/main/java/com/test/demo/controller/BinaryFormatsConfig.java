@@ -0,0 +1,64 @@
+package com.test.demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * Smile ({@value #SMILE_VALUE}) and, on the servlet stack, CBOR ({@code application/cbor}) next to JSON, negotiated
+ * through {@code Accept} and {@code Content-Type}. Both are binary encodings of the same document JSON carries, so
+ * the schema of every body stays the one of its JSON form. Smile also refers back to repeated property names instead
+ * of writing them again, which makes it the more compact of the two for listings. The mappers come from Spring Boot's
+ * builder, so they share the JSON mapper's modules and settings.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatsConfig {
+
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  @Bean
+  @ConditionalOnWebApplication(type = Type.SERVLET)
+  MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = Type.SERVLET)
+  MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+  }
+
+  /**
+   * Smile only: Spring's CBOR encoder cannot write a stream, and would be picked for the streaming endpoints. The
+   * media type is passed explicitly, the Smile codecs would otherwise claim JSON's.
+   */
+  @Bean
+  @ConditionalOnWebApplication(type = Type.REACTIVE)
+  CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper smileMapper = smileMapper(builder);
+    MimeType smile = MimeType.valueOf(SMILE_VALUE);
+    return configurer -> {
+      configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, smile));
+      configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, smile));
+    };
+  }
+
+  private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new SmileFactory()).build();
+  }
+
+  private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new CBORFactory()).build();
+  }
+}
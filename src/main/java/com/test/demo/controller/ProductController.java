@@ -1,14 +1,33 @@
 package com.test.demo.controller;
 
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.model.dto.BatchResult;
+import com.test.demo.model.dto.CursorPage;
 import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductPage;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.service.ProductExportService;
+import com.test.demo.service.ProductImportService;
 import com.test.demo.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,19 +36,30 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/products")
 @Tag(name = "Products", description = "API for managing products")
 public class ProductController {
 
   private final ProductService productService;
 
+  private final ProductExportService productExportService;
+
+  private final ProductImportService productImportService;
+
+  private final ProductHttpCaching productHttpCaching;
+
+  private final AccessFrequencies accessFrequencies;
+
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   @PreAuthorize("hasRole('ADMIN')")
@@ -38,6 +68,15 @@ public class ProductController {
     return productService.createProduct(productDTO);
   }
 
+  @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Create or update products in bulk",
+      description = "Accepts a JSON array or an NDJSON stream; items with an existing id are updated, others created")
+  public BatchResult importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body)
+      throws IOException {
+    return productImportService.importProducts(body, contentType);
+  }
+
   @PutMapping("/{id}")
   @PreAuthorize("hasRole('ADMIN')")
   @Operation(summary = "Update a product", description = "Update an existing product")
@@ -48,8 +87,18 @@ public class ProductController {
   @PatchMapping("/{id}/price")
   @PreAuthorize("hasRole('ADMIN')")
   @Operation(summary = "Update the price of a product", description = "Update the price of a product")
-  public ProductDTO updateProductPrice(@PathVariable String id, @RequestParam @Positive(message = "Price must be a positive value") Double price) {
-    return productService.updateProductPrice(id, price);
+  public ProductDTO updateProductPrice(@PathVariable String id, @RequestParam @Positive(message = "Price must be a positive value") Double price,
+                                       @RequestParam(required = false) Long version) {
+    return productService.updateProductPrice(id, price, version);
+  }
+
+  @PatchMapping("/{id}/stock")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Adjust the stock of a product",
+      description = "Atomically add delta (negative to remove) to the stock; fails with 409 if the stock would go below zero")
+  public ProductDTO adjustStock(@PathVariable String id, @RequestParam int delta,
+                                @RequestParam(required = false) Long version) {
+    return productService.adjustStock(id, delta, version);
   }
 
   @DeleteMapping("/{id}")
@@ -60,19 +109,105 @@ public class ProductController {
     productService.deleteProduct(id);
   }
 
+  @PostMapping("/lookup")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get many products by ID",
+      description = "Resolve a JSON array of ids in one request; ids without a product come back as missing")
+  public ProductLookup lookupProducts(@RequestBody List<String> ids) {
+    ProductLookup lookup = productService.lookupProducts(ids);
+    lookup.products().forEach(product -> accessFrequencies.productRead(product.id()));
+    return lookup;
+  }
+
   @GetMapping("/{id}")
   @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-  @Operation(summary = "Get a product by ID", description = "Retrieve a product by its ID")
-  public ProductDTO getProductById(@PathVariable String id) {
-    return productService.getProductById(id);
+  @Operation(summary = "Get a product by ID",
+      description = "Retrieve a product by its ID; answers 304 to If-None-Match or If-Modified-Since when unchanged")
+  public ResponseEntity<ProductDTO> getProductById(@PathVariable String id) {
+    ProductDTO product = productService.getProductById(id);
+    accessFrequencies.productRead(id);
+    return productHttpCaching.product(product);
   }
 
   @GetMapping
   @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-  @Operation(summary = "Get all products", description = "Retrieve all products")
-  public Page<ProductDTO> getAllProducts(
+  @Operation(summary = "Get all products",
+      description = "Retrieve all products, optionally filtered by price range, stock and name prefix and sorted")
+  public ResponseEntity<Page<ProductDTO>> getAllProducts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean inStock,
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "asc") String direction) {
+    return productHttpCaching.page(listing(page, size, minPrice, maxPrice, inStock, namePrefix, sort, direction));
+  }
+
+  @GetMapping(produces = {BinaryFormatsConfig.SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get all products in a binary format",
+      description = "The same listing as Smile or CBOR, in a compact envelope without Spring's page metadata")
+  public ResponseEntity<ProductPage> getAllProductsCompact(
       @RequestParam(defaultValue = "0") int page,
-      @RequestParam(defaultValue = "10") int size) {
-    return productService.getAllProducts(page, size);
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean inStock,
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "asc") String direction) {
+    return productHttpCaching.compactPage(listing(page, size, minPrice, maxPrice, inStock, namePrefix, sort,
+        direction));
+  }
+
+  @GetMapping("/search")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Search products by name",
+      description = "Every word of q must start a word of the name; best matches first, answered from memory")
+  public List<ProductDTO> searchProducts(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+    return productService.searchProducts(q, limit);
+  }
+
+  @GetMapping("/cursor")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get products by cursor",
+      description = "Keyset pagination: pass the returned nextCursor to fetch the following slice")
+  public CursorPage<ProductDTO> getProductsByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "createdDate") String sort,
+      @RequestParam(defaultValue = "asc") String direction,
+      @RequestParam(defaultValue = "false") boolean includeTotal) {
+    return productService.getProductsByCursor(cursor, size, ProductSortKey.fromProperty(sort),
+        Sort.Direction.fromString(direction), includeTotal);
+  }
+
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Export products",
+      description = "Stream every product as newline-delimited JSON, gzip compressed when the client accepts it")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(out -> productExportService.exportProducts(modifiedSince, gzip, out));
+  }
+
+  private Page<ProductDTO> listing(int page, int size, Double minPrice, Double maxPrice, boolean inStock,
+                                   String namePrefix, String sort, String direction) {
+    ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, namePrefix);
+    if (filter.isEmpty() && sort == null) {
+      Page<ProductDTO> products = productService.getAllProducts(page, size);
+      accessFrequencies.pageRead(page, size);
+      return products;
+    }
+    return productService.findProducts(filter, ProductSortKey.fromProperty(sort == null ? "createdDate" : sort),
+        Sort.Direction.fromString(direction), page, size);
   }
 }
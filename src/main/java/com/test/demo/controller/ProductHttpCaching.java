@@ -0,0 +1,122 @@
+package com.test.demo.controller;
+
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductPage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validators and {@code Cache-Control} for product reads. Given a response carrying an {@code ETag} or
+ * {@code Last-Modified}, Spring MVC and WebFlux answer a matching {@code If-None-Match} or {@code If-Modified-Since}
+ * with {@code 304 Not Modified} and never serialize the body. The product itself usually comes from the
+ * {@code products} cache, so a revalidation costs neither a query nor serialization.
+ * <p>
+ * ETags are strong: a SHA-256 over each product's id and version, which every stored write bumps, plus its price and
+ * stock, which buffered write-behind updates change before the version moves. Pages add their number, size and total
+ * and the envelope, so identical content gets the same ETag on every instance and JDK. Pages only carry an ETag: a
+ * delete shifts later products onto a page without changing any modification date on it. Every response varies by
+ * {@code Accept}, since the same URL also answers in the {@linkplain BinaryFormatsConfig binary formats}.
+ */
+@Component
+public class ProductHttpCaching {
+
+  private final CacheControl productCacheControl;
+
+  private final CacheControl listingCacheControl;
+
+  public ProductHttpCaching(@Value("${hub.http.cache-control.product.max-age}") Duration productMaxAge,
+                            @Value("${hub.http.cache-control.listing.max-age}") Duration listingMaxAge) {
+    this.productCacheControl = cacheControl(productMaxAge);
+    this.listingCacheControl = cacheControl(listingMaxAge);
+  }
+
+  public ResponseEntity<ProductDTO> product(ProductDTO product) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .cacheControl(productCacheControl)
+        .varyBy(HttpHeaders.ACCEPT)
+        .eTag(etag(digest(0).product(product)));
+    LocalDateTime modified = product.lastModifiedDate() != null ? product.lastModifiedDate() : product.createdDate();
+    if (modified != null) {
+      response.lastModified(modified.atZone(ZoneId.systemDefault()));
+    }
+    return response.body(product);
+  }
+
+  public ResponseEntity<Page<ProductDTO>> page(Page<ProductDTO> page) {
+    return pageResponse(page, 1, page);
+  }
+
+  /**
+   * The page in the {@link ProductPage} envelope, with an ETag of its own since the body differs.
+   */
+  public ResponseEntity<ProductPage> compactPage(Page<ProductDTO> page) {
+    return pageResponse(page, 2, ProductPage.of(page));
+  }
+
+  private <T> ResponseEntity<T> pageResponse(Page<ProductDTO> page, int envelope, T body) {
+    Digest digest = digest(envelope).number(page.getNumber()).number(page.getSize()).number(page.getTotalElements());
+    for (ProductDTO product : page.getContent()) {
+      digest.product(product);
+    }
+    return ResponseEntity.ok()
+        .cacheControl(listingCacheControl)
+        .varyBy(HttpHeaders.ACCEPT)
+        .eTag(etag(digest))
+        .body(body);
+  }
+
+  /**
+   * Private, since every read is authenticated. Without a max age clients must revalidate on every use.
+   */
+  private static CacheControl cacheControl(Duration maxAge) {
+    return (maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge)).cachePrivate();
+  }
+
+  private static Digest digest(int kind) {
+    try {
+      return new Digest(MessageDigest.getInstance("SHA-256")).number(kind);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * The first 128 bits of the digest, in hex.
+   */
+  private static String etag(Digest digest) {
+    return "\"" + HexFormat.of().formatHex(digest.sha256.digest(), 0, 16) + "\"";
+  }
+
+  /**
+   * Feeds fixed-width numbers and length-prefixed strings, so no two different inputs produce the same bytes.
+   */
+  private record Digest(MessageDigest sha256) {
+
+    Digest number(long value) {
+      for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+        sha256.update((byte) (value >>> shift));
+      }
+      return this;
+    }
+
+    Digest product(ProductDTO product) {
+      byte[] id = product.id() == null ? new byte[0] : product.id().getBytes(StandardCharsets.UTF_8);
+      number(id.length);
+      sha256.update(id);
+      number(product.version() == null ? -1 : product.version());
+      number(product.stock() == null ? Long.MIN_VALUE : product.stock());
+      return number(product.price() == null ? Long.MIN_VALUE : Double.doubleToLongBits(product.price()));
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package com.test.demo.controller;
+
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.model.dto.CursorPage;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductPage;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.service.ReactiveProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The product API of {@link ProductController} on WebFlux, active with the {@code reactive} profile. Batch import is
+ * only offered by the servlet controller.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/products")
+@Tag(name = "Products", description = "API for managing products")
+public class ReactiveProductController {
+
+  private final ReactiveProductService productService;
+
+  private final ProductHttpCaching productHttpCaching;
+
+  private final AccessFrequencies accessFrequencies;
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Create a new product", description = "Create a new product")
+  public Mono<ProductDTO> createProduct(@Valid @RequestBody ProductDTO productDTO) {
+    return productService.createProduct(productDTO);
+  }
+
+  @PutMapping("/{id}")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Update a product", description = "Update an existing product")
+  public Mono<ProductDTO> updateProduct(@PathVariable String id, @Valid @RequestBody ProductDTO productDTO) {
+    return productService.updateProduct(id, productDTO);
+  }
+
+  @PatchMapping("/{id}/price")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Update the price of a product", description = "Update the price of a product")
+  public Mono<ProductDTO> updateProductPrice(@PathVariable String id,
+                                             @RequestParam @Positive(message = "Price must be a positive value") Double price,
+                                             @RequestParam(required = false) Long version) {
+    return productService.updateProductPrice(id, price, version);
+  }
+
+  @PatchMapping("/{id}/stock")
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Adjust the stock of a product",
+      description = "Atomically add delta (negative to remove) to the stock; fails with 409 if the stock would go below zero")
+  public Mono<ProductDTO> adjustStock(@PathVariable String id, @RequestParam int delta,
+                                      @RequestParam(required = false) Long version) {
+    return productService.adjustStock(id, delta, version);
+  }
+
+  @DeleteMapping("/{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  @PreAuthorize("hasRole('ADMIN')")
+  @Operation(summary = "Delete a product", description = "Delete a product by its ID")
+  public Mono<Void> deleteProduct(@PathVariable String id) {
+    return productService.deleteProduct(id);
+  }
+
+  @PostMapping("/lookup")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get many products by ID",
+      description = "Resolve a JSON array of ids in one request; ids without a product come back as missing")
+  public Mono<ProductLookup> lookupProducts(@RequestBody List<String> ids) {
+    return productService.lookupProducts(ids)
+        .doOnNext(lookup -> lookup.products().forEach(product -> accessFrequencies.productRead(product.id())));
+  }
+
+  @GetMapping("/{id}")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get a product by ID",
+      description = "Retrieve a product by its ID; answers 304 to If-None-Match or If-Modified-Since when unchanged")
+  public Mono<ResponseEntity<ProductDTO>> getProductById(@PathVariable String id) {
+    return productService.getProductById(id)
+        .doOnNext(product -> accessFrequencies.productRead(id))
+        .map(productHttpCaching::product);
+  }
+
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get all products",
+      description = "Retrieve all products, optionally filtered by price range, stock and name prefix and sorted")
+  public Mono<ResponseEntity<Page<ProductDTO>>> getAllProducts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean inStock,
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "asc") String direction) {
+    return listing(page, size, minPrice, maxPrice, inStock, namePrefix, sort, direction)
+        .map(productHttpCaching::page);
+  }
+
+  @GetMapping(produces = BinaryFormatsConfig.SMILE_VALUE)
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get all products as Smile",
+      description = "The same listing as Smile, in a compact envelope without Spring's page metadata")
+  public Mono<ResponseEntity<ProductPage>> getAllProductsCompact(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean inStock,
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "asc") String direction) {
+    return listing(page, size, minPrice, maxPrice, inStock, namePrefix, sort, direction)
+        .map(productHttpCaching::compactPage);
+  }
+
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Stream a page of products",
+      description = "The products of one page as newline-delimited JSON, written as they arrive and without a total")
+  public Flux<ProductDTO> streamProducts(
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) Double minPrice,
+      @RequestParam(required = false) Double maxPrice,
+      @RequestParam(defaultValue = "false") boolean inStock,
+      @RequestParam(required = false) String namePrefix,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "asc") String direction) {
+    return productService.streamProducts(new ProductFilter(minPrice, maxPrice, inStock, namePrefix),
+        sort == null ? null : ProductSortKey.fromProperty(sort), Sort.Direction.fromString(direction), page, size);
+  }
+
+  @GetMapping("/search")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Search products by name",
+      description = "Every word of q must start a word of the name; best matches first, answered from memory")
+  public List<ProductDTO> searchProducts(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+    return productService.searchProducts(q, limit);
+  }
+
+  @GetMapping("/cursor")
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Get products by cursor",
+      description = "Keyset pagination: pass the returned nextCursor to fetch the following slice")
+  public Mono<CursorPage<ProductDTO>> getProductsByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(defaultValue = "createdDate") String sort,
+      @RequestParam(defaultValue = "asc") String direction,
+      @RequestParam(defaultValue = "false") boolean includeTotal) {
+    return productService.getProductsByCursor(cursor, size, ProductSortKey.fromProperty(sort),
+        Sort.Direction.fromString(direction), includeTotal);
+  }
+
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+  @Operation(summary = "Export products",
+      description = "Stream every product as newline-delimited JSON, at the pace the client reads it")
+  public Flux<ProductDTO> exportProducts(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince) {
+    return productService.exportProducts(modifiedSince);
+  }
+
+  private Mono<Page<ProductDTO>> listing(int page, int size, Double minPrice, Double maxPrice, boolean inStock,
+                                         String namePrefix, String sort, String direction) {
+    ProductFilter filter = new ProductFilter(minPrice, maxPrice, inStock, namePrefix);
+    if (filter.isEmpty() && sort == null) {
+      return productService.getAllProducts(page, size);
+    }
+    return productService.findProducts(filter, ProductSortKey.fromProperty(sort == null ? "createdDate" : sort),
+        Sort.Direction.fromString(direction), page, size);
+  }
+}
@@ -0,0 +1,36 @@
+package com.test.demo.controller;
+
+import com.test.demo.model.dto.AccessToken;
+import com.test.demo.security.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exchanges HTTP Basic credentials for a bearer token, on either web stack. A token cannot be traded for a fresh one,
+ * so a token's lifetime is bounded by the credentials that obtained it.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/auth")
+@Tag(name = "Authentication", description = "API for obtaining bearer tokens")
+public class TokenController {
+
+  private final TokenService tokenService;
+
+  @PostMapping("/token")
+  @Operation(summary = "Exchange HTTP Basic credentials for a bearer token",
+      description = "Issue a short-lived signed token carrying the caller's roles")
+  public AccessToken token(Authentication authentication) {
+    if (!(authentication instanceof UsernamePasswordAuthenticationToken)) {
+      throw new AccessDeniedException("Tokens are only issued for username and password credentials");
+    }
+    return tokenService.issue(authentication);
+  }
+}
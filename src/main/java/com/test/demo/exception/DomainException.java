@@ -0,0 +1,37 @@
+package com.test.demo.exception;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base of the exceptions thrown for expected outcomes: a missing product, a conflicting write, an overload. Their
+ * message says all a client needs, so filling in the stack trace, most of the cost of throwing, is skipped for all but
+ * one in {@link #sampleStackTraces rate} of them, enough to still find out where they come from. Suppression is
+ * disabled as well, which keeps an instance immutable so it can be thrown again.
+ */
+public abstract class DomainException extends RuntimeException {
+
+  private static volatile int stackTraceSampleRate = 1000;
+
+  protected DomainException(String message) {
+    super(message, null, false, sampleStackTrace());
+  }
+
+  /**
+   * Captures the stack trace of one in {@code rate} domain exceptions; {@code 1} captures all of them, {@code 0} none.
+   */
+  public static void sampleStackTraces(int rate) {
+    if (rate < 0) {
+      throw new IllegalArgumentException("Stack trace sample rate must not be negative");
+    }
+    stackTraceSampleRate = rate;
+  }
+
+  public boolean hasStackTrace() {
+    return getStackTrace().length > 0;
+  }
+
+  private static boolean sampleStackTrace() {
+    int rate = stackTraceSampleRate;
+    return rate == 1 || rate > 1 && ThreadLocalRandom.current().nextInt(rate) == 0;
+  }
+}
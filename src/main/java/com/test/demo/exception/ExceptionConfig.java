@@ -0,0 +1,17 @@
+package com.test.demo.exception;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Owns the {@linkplain DomainException#sampleStackTraces stack trace sample rate} of domain exceptions. They are
+ * created with new, far from any bean, so the rate is process wide; this is the one place that sets it, from
+ * {@code hub.exceptions.stack-trace-sample-rate}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExceptionConfig {
+
+  public ExceptionConfig(@Value("${hub.exceptions.stack-trace-sample-rate}") int stackTraceSampleRate) {
+    DomainException.sampleStackTraces(stackTraceSampleRate);
+  }
+}
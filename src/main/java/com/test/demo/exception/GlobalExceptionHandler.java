@@ -1,42 +1,176 @@
 package com.test.demo.exception;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
+/**
+ * Turns exceptions into error responses. Responses to the errors whose messages repeat, such as a bad argument or an
+ * overload, are built once per message and reused; they are immutable, only their serialization happens per request.
+ * A missing product's message names its id, and probes rarely repeat an id, so that response is built directly.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+  private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+  private static final int CACHED_RESPONSES = 1000;
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * One counter per exception type, registered on first occurrence; later occurrences are a lookup and an increment.
+   */
+  private final Map<Class<?>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+
+  private final Cache<String, ResponseEntity<ExceptionResponseModel>> badRequestResponses = responseCache();
+
+  private final Cache<String, ResponseEntity<ExceptionResponseModel>> overloadedResponses = responseCache();
+
+  @Autowired
+  public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+    this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ExceptionResponseModel> handleValidationExceptions(MethodArgumentNotValidException ex) {
-    Map<String, String> errors = new HashMap<>();
-    ex.getBindingResult().getFieldErrors()
-        .forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
-    return new ResponseEntity<>(new ExceptionResponseModel(errors, HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+    count(ex, HttpStatus.BAD_REQUEST);
+    return new ResponseEntity<>(new ExceptionResponseModel(fieldErrors(ex.getBindingResult()), HttpStatus.BAD_REQUEST),
+        HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<ExceptionResponseModel> handleWebExchangeBindException(WebExchangeBindException ex) {
+    count(ex, HttpStatus.BAD_REQUEST);
+    return new ResponseEntity<>(new ExceptionResponseModel(fieldErrors(ex.getBindingResult()), HttpStatus.BAD_REQUEST),
+        HttpStatus.BAD_REQUEST);
   }
 
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<ExceptionResponseModel> handleIllegalArgumentException(IllegalArgumentException ex) {
-    return new ResponseEntity<>(new ExceptionResponseModel(ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+    count(ex, HttpStatus.BAD_REQUEST);
+    return cached(badRequestResponses, ex.getMessage(), HttpStatus.BAD_REQUEST);
   }
 
   @ExceptionHandler(ProductNotFoundException.class)
   public ResponseEntity<ExceptionResponseModel> handleProductNotFoundException(ProductNotFoundException ex) {
-    return new ResponseEntity<>(new ExceptionResponseModel(ex.getMessage(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
+    count(ex, HttpStatus.NOT_FOUND);
+    logSampledStackTrace(ex);
+    return new ResponseEntity<>(new ExceptionResponseModel(ex.getMessage(), HttpStatus.NOT_FOUND),
+        HttpStatus.NOT_FOUND);
+  }
+
+  @ExceptionHandler(ProductConflictException.class)
+  public ResponseEntity<ExceptionResponseModel> handleProductConflictException(ProductConflictException ex) {
+    count(ex, HttpStatus.CONFLICT);
+    logSampledStackTrace(ex);
+    return new ResponseEntity<>(new ExceptionResponseModel(ex.getMessage(), HttpStatus.CONFLICT), HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(ServiceOverloadedException.class)
+  public ResponseEntity<ExceptionResponseModel> handleServiceOverloadedException(ServiceOverloadedException ex) {
+    count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+    logSampledStackTrace(ex);
+    return cached(overloadedResponses, ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
   }
 
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ExceptionResponseModel> handleGlobalException(Exception ex) {
+    count(ex, HttpStatus.INTERNAL_SERVER_ERROR);
     return new ResponseEntity<>(new ExceptionResponseModel("An unexpected error occurred: " + ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
   @ExceptionHandler(AccessDeniedException.class)
   public ResponseEntity<ExceptionResponseModel> handleAccessDeniedException(Exception ex) {
+    count(ex, HttpStatus.FORBIDDEN);
     return new ResponseEntity<>(new ExceptionResponseModel("An unexpected error occurred: " + ex.getMessage(), HttpStatus.FORBIDDEN), HttpStatus.FORBIDDEN);
   }
+
+  private void count(Exception ex, HttpStatus status) {
+    Counter counter = exceptionCounters.get(ex.getClass());
+    if (counter == null) {
+      counter = exceptionCounters.computeIfAbsent(ex.getClass(), type -> Counter.builder("hub.exceptions")
+          .description("Exceptions turned into error responses")
+          .tag("exception", type.getSimpleName())
+          .tag("status", String.valueOf(status.value()))
+          .register(meterRegistry));
+    }
+    counter.increment();
+  }
+
+  private void logSampledStackTrace(DomainException ex) {
+    if (log.isDebugEnabled() && ex.hasStackTrace()) {
+      log.debug("Sampled stack trace of {}", ex.getClass().getSimpleName(), ex);
+    }
+  }
+
+  /**
+   * The response for {@code message}, built on first use. Error messages of these kinds are few or repeat, and the
+   * cache's size bound keeps the most frequent ones when they do not.
+   */
+  private static ResponseEntity<ExceptionResponseModel> cached(
+      Cache<String, ResponseEntity<ExceptionResponseModel>> responses, String message, HttpStatus status) {
+    if (message == null) {
+      return response(message, status);
+    }
+    ResponseEntity<ExceptionResponseModel> response = responses.getIfPresent(message);
+    if (response == null) {
+      response = response(message, status);
+      responses.put(message, response);
+    }
+    return response;
+  }
+
+  private static ResponseEntity<ExceptionResponseModel> response(String message, HttpStatus status) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+    if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+      response.header(HttpHeaders.RETRY_AFTER, "1");
+    }
+    return response.body(new ExceptionResponseModel(message, status));
+  }
+
+  private static Cache<String, ResponseEntity<ExceptionResponseModel>> responseCache() {
+    return Caffeine.newBuilder().maximumSize(CACHED_RESPONSES).build();
+  }
+
+  /**
+   * Field errors by field, the last one winning; a single error, the common case, gets a singleton map.
+   */
+  private static Map<String, String> fieldErrors(BindingResult bindingResult) {
+    List<FieldError> fieldErrors = bindingResult.getFieldErrors();
+    if (fieldErrors.size() == 1) {
+      FieldError error = fieldErrors.get(0);
+      return Collections.singletonMap(error.getField(), error.getDefaultMessage());
+    }
+    Map<String, String> errors = new HashMap<>((int) (fieldErrors.size() / 0.75f) + 1);
+    for (FieldError error : fieldErrors) {
+      errors.put(error.getField(), error.getDefaultMessage());
+    }
+    return errors;
+  }
 }
@@ -0,0 +1,7 @@
+package com.test.demo.exception;
+
+public class ProductConflictException extends DomainException {
+  public ProductConflictException(String message) {
+    super(message);
+  }
+}
@@ -1,7 +1,15 @@
 package com.test.demo.exception;
 
-public class ProductNotFoundException extends RuntimeException {
+public class ProductNotFoundException extends DomainException {
+
+  private final String id;
+
   public ProductNotFoundException(String id) {
     super("Product not found with id: " + id);
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
   }
 }
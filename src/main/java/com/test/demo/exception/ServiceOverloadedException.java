@@ -0,0 +1,7 @@
+package com.test.demo.exception;
+
+public class ServiceOverloadedException extends DomainException {
+  public ServiceOverloadedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,80 @@
+package com.test.demo.limits;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the requests in progress by a limit that follows latency, additive increase and multiplicative decrease: a
+ * request answered within {@code latencyThreshold} while at least half the limit is in use raises the limit by one,
+ * a slower one multiplies it by {@code backoff}. Decreases happen at most once per threshold period, so a burst of
+ * slow responses caused by the same slowdown only counts once. The limit stays between {@code minLimit} and
+ * {@code maxLimit}; it and the count in progress are atomics, so nothing locks.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final long latencyThresholdNanos;
+
+  private final double backoff;
+
+  private final AtomicInteger limit;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private final AtomicLong lastDecrease;
+
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoff,
+                           long now) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+    }
+    if (backoff <= 0 || backoff >= 1) {
+      throw new IllegalArgumentException("Backoff must be between 0 and 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.backoff = backoff;
+    this.limit = new AtomicInteger(initialLimit);
+    this.lastDecrease = new AtomicLong(now - latencyThresholdNanos);
+  }
+
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit.get()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Ends a request admitted by {@link #tryAcquire} that took {@code latencyNanos}.
+   */
+  void release(long latencyNanos, long now) {
+    int inFlightBefore = inFlight.getAndDecrement();
+    if (latencyNanos > latencyThresholdNanos) {
+      long last = lastDecrease.get();
+      if (now - last >= latencyThresholdNanos && lastDecrease.compareAndSet(last, now)) {
+        limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoff)));
+      }
+    } else if (inFlightBefore * 2 >= limit.get()) {
+      limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+    }
+  }
+
+  int limit() {
+    return limit.get();
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+}
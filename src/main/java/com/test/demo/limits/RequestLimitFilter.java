@@ -0,0 +1,74 @@
+package com.test.demo.limits;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.exception.ExceptionResponseModel;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies {@link RequestLimits} to {@code /api/} requests in the security filter chain, once authorization has passed:
+ * a principal over its rate gets {@code 429 Too Many Requests}, a request beyond the concurrency limit
+ * {@code 503 Service Unavailable}, both with {@code Retry-After}. Their bodies never change and are serialized once.
+ * <p>
+ * Latency is measured until the request thread leaves the filter, so the streaming export counts only up to the point
+ * it goes asynchronous.
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+  private final RequestLimits requestLimits;
+
+  private final byte[] rateLimitedBody;
+
+  private final byte[] overloadedBody;
+
+  public RequestLimitFilter(RequestLimits requestLimits, ObjectMapper objectMapper) throws JsonProcessingException {
+    this.requestLimits = requestLimits;
+    this.rateLimitedBody = objectMapper.writeValueAsBytes(
+        new ExceptionResponseModel(RequestLimits.RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS));
+    this.overloadedBody = objectMapper.writeValueAsBytes(
+        new ExceptionResponseModel(RequestLimits.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    long wait = requestLimits.acquireRate(SecurityContextHolder.getContext().getAuthentication());
+    if (wait > 0) {
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, RequestLimits.retryAfterSeconds(wait), rateLimitedBody);
+      return;
+    }
+    if (!requestLimits.tryAcquireConcurrency()) {
+      reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, overloadedBody);
+      return;
+    }
+    long startedAt = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      requestLimits.release(startedAt);
+    }
+  }
+
+  private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, byte[] body)
+      throws IOException {
+    response.setStatus(status.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+}
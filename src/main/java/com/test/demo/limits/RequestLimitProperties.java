@@ -0,0 +1,35 @@
+package com.test.demo.limits;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Request limits under {@code hub.limits}, e.g. {@code hub.limits.rates.user.permits-per-second=50}.
+ *
+ * @param rates       token bucket per role, by role name in lower case without the {@code ROLE_} prefix
+ * @param concurrency the adaptive limit on requests in progress, shared by all clients
+ */
+@ConfigurationProperties(prefix = "hub.limits")
+public record RequestLimitProperties(Map<String, Rate> rates, Concurrency concurrency) {
+
+  public RequestLimitProperties {
+    rates = rates == null ? Map.of() : Map.copyOf(rates);
+  }
+
+  /**
+   * @param permitsPerSecond sustained requests a second per principal
+   * @param burst            requests a principal may send at once after being idle
+   */
+  public record Rate(double permitsPerSecond, int burst) { }
+
+  /**
+   * @param initialLimit     requests in progress allowed at startup
+   * @param minLimit         the limit never goes below it, however slow responses get
+   * @param maxLimit         the limit never goes above it
+   * @param latencyThreshold responses slower than this lower the limit
+   * @param backoff          factor the limit is multiplied by on a slow response
+   */
+  public record Concurrency(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                            double backoff) { }
+}
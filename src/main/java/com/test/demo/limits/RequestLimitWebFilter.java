@@ -0,0 +1,71 @@
+package com.test.demo.limits;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.exception.ExceptionResponseModel;
+import java.security.Principal;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RequestLimitFilter} for WebFlux. A request holds its place under the concurrency limit until its response
+ * completes, so streamed responses count for as long as they stream.
+ */
+public class RequestLimitWebFilter implements WebFilter {
+
+  private final RequestLimits requestLimits;
+
+  private final byte[] rateLimitedBody;
+
+  private final byte[] overloadedBody;
+
+  public RequestLimitWebFilter(RequestLimits requestLimits, ObjectMapper objectMapper)
+      throws JsonProcessingException {
+    this.requestLimits = requestLimits;
+    this.rateLimitedBody = objectMapper.writeValueAsBytes(
+        new ExceptionResponseModel(RequestLimits.RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS));
+    this.overloadedBody = objectMapper.writeValueAsBytes(
+        new ExceptionResponseModel(RequestLimits.OVERLOADED, HttpStatus.SERVICE_UNAVAILABLE));
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith("/api/")) {
+      return chain.filter(exchange);
+    }
+    return exchange.getPrincipal()
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(principal -> admit(exchange, chain, principal.orElse(null)));
+  }
+
+  private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, Principal principal) {
+    long wait = requestLimits.acquireRate(principal instanceof Authentication authentication ? authentication : null);
+    if (wait > 0) {
+      return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, RequestLimits.retryAfterSeconds(wait),
+          rateLimitedBody);
+    }
+    if (!requestLimits.tryAcquireConcurrency()) {
+      return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, 1, overloadedBody);
+    }
+    long startedAt = System.nanoTime();
+    return chain.filter(exchange).doFinally(signal -> requestLimits.release(startedAt));
+  }
+
+  private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, long retryAfterSeconds,
+                                   byte[] body) {
+    response.setStatusCode(status);
+    response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    response.getHeaders().setContentLength(body.length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+  }
+}
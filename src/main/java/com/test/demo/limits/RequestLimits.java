@@ -0,0 +1,147 @@
+package com.test.demo.limits;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.demo.limits.RequestLimitProperties.Rate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission of API requests, independent of the web stack: a {@link TokenBucket} per authenticated principal, sized by
+ * the principal's most generous role under {@code hub.limits.rates}, and one {@link AdaptiveConcurrencyLimit} for all
+ * requests in progress. A principal without a configured role is only subject to the concurrency limit.
+ * <p>
+ * An idle principal's bucket is dropped after {@link #IDLE_BUCKET_EXPIRY}, by when it would be full again anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.limits.enabled", havingValue = "true")
+@EnableConfigurationProperties(RequestLimitProperties.class)
+public class RequestLimits {
+
+  static final String RATE_LIMITED = "Too many requests, retry later";
+
+  static final String OVERLOADED = "Too many requests in progress, retry later";
+
+  private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(10);
+
+  private final Map<String, Rate> rates;
+
+  private final Cache<String, TokenBucket> buckets;
+
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+  private final Map<String, Counter> rateLimited = new HashMap<>();
+
+  private final Counter overloaded;
+
+  public RequestLimits(RequestLimitProperties properties, MeterRegistry meterRegistry) {
+    this.rates = properties.rates();
+    this.buckets = Caffeine.newBuilder().expireAfterAccess(IDLE_BUCKET_EXPIRY).build();
+    RequestLimitProperties.Concurrency concurrency = properties.concurrency();
+    this.concurrencyLimit = new AdaptiveConcurrencyLimit(concurrency.initialLimit(), concurrency.minLimit(),
+        concurrency.maxLimit(), concurrency.latencyThreshold(), concurrency.backoff(), System.nanoTime());
+
+    for (String role : rates.keySet()) {
+      rateLimited.put(role, Counter.builder("hub.limits.rejected")
+          .description("Requests rejected by a request limit")
+          .tag("reason", "rate")
+          .tag("role", role)
+          .register(meterRegistry));
+    }
+    this.overloaded = Counter.builder("hub.limits.rejected")
+        .description("Requests rejected by a request limit")
+        .tag("reason", "concurrency")
+        .tag("role", "any")
+        .register(meterRegistry);
+    Gauge.builder("hub.limits.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::limit)
+        .description("Requests allowed in progress, adapted to latency")
+        .register(meterRegistry);
+    Gauge.builder("hub.limits.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::inFlight)
+        .description("Requests in progress")
+        .register(meterRegistry);
+    Gauge.builder("hub.limits.rate.principals", buckets, Cache::estimatedSize)
+        .description("Principals with a token bucket")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Takes a token from the principal's bucket.
+   *
+   * @return {@code 0} if the request may proceed, otherwise the nanoseconds until the principal may send another
+   */
+  public long acquireRate(Authentication authentication) {
+    if (authentication == null || !authentication.isAuthenticated() || rates.isEmpty()) {
+      return 0;
+    }
+    String role = role(authentication);
+    if (role == null) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    // Keyed by role too, so a principal whose roles change gets a bucket of the new size
+    TokenBucket bucket = buckets.get(role + ':' + authentication.getName(), key -> {
+      Rate rate = rates.get(role);
+      return new TokenBucket(rate.permitsPerSecond(), rate.burst(), now);
+    });
+    long wait = bucket.tryAcquire(now);
+    if (wait > 0) {
+      rateLimited.get(role).increment();
+    }
+    return wait;
+  }
+
+  /**
+   * Admits a request under the concurrency limit; an admitted request must be ended with {@link #release}.
+   */
+  public boolean tryAcquireConcurrency() {
+    if (concurrencyLimit.tryAcquire()) {
+      return true;
+    }
+    overloaded.increment();
+    return false;
+  }
+
+  /**
+   * Ends a request admitted at {@code startedAt}, a {@link System#nanoTime()}, feeding its latency to the limit.
+   */
+  public void release(long startedAt) {
+    long now = System.nanoTime();
+    concurrencyLimit.release(now - startedAt, now);
+  }
+
+  /**
+   * Whole seconds to put in {@code Retry-After} for a wait of {@code nanos}, at least one.
+   */
+  static long retryAfterSeconds(long nanos) {
+    return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+  }
+
+  /**
+   * The configured role with the highest rate among the principal's authorities.
+   */
+  private String role(Authentication authentication) {
+    String best = null;
+    for (GrantedAuthority authority : authentication.getAuthorities()) {
+      String name = authority.getAuthority();
+      if (name == null || !name.startsWith("ROLE_")) {
+        continue;
+      }
+      String role = name.substring("ROLE_".length()).toLowerCase(Locale.ROOT);
+      Rate rate = rates.get(role);
+      if (rate != null && (best == null || rate.permitsPerSecond() > rates.get(best).permitsPerSecond())) {
+        best = role;
+      }
+    }
+    return best;
+  }
+}
@@ -0,0 +1,55 @@
+package com.test.demo.limits;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket refilled with {@code permitsPerSecond} tokens a second and holding at most {@code burst}. It is kept
+ * as the single instant at which it will be full again, the generic cell rate algorithm form, so taking a token is
+ * one compare-and-set on that instant and nothing ever locks.
+ */
+final class TokenBucket {
+
+  private final long nanosPerToken;
+
+  private final long capacityNanos;
+
+  // System.nanoTime() at which the bucket is full again; in the past while it is full
+  private final AtomicLong fullAt;
+
+  TokenBucket(double permitsPerSecond, int burst, long now) {
+    if (permitsPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("A token bucket needs a positive rate and burst");
+    }
+    this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+    this.capacityNanos = nanosPerToken * burst;
+    this.fullAt = new AtomicLong(now);
+  }
+
+  /**
+   * Takes a token if there is one.
+   *
+   * @return {@code 0} if a token was taken, otherwise the nanoseconds until one is available
+   */
+  long tryAcquire(long now) {
+    while (true) {
+      long current = fullAt.get();
+      // Compared by difference, since nanoTime may be negative
+      long next = (current - now > 0 ? current : now) + nanosPerToken;
+      long wait = next - now - capacityNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Tokens left, rounded down.
+   */
+  long available(long now) {
+    long untilFull = fullAt.get() - now;
+    return untilFull <= 0 ? capacityNanos / nanosPerToken : (capacityNanos - untilFull) / nanosPerToken;
+  }
+}
@@ -0,0 +1,85 @@
+package com.test.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records every intercepted call in {@code hub.layer.duration}, tagged with the layer, class, method and outcome.
+ * <p>
+ * The timers of a method are registered on its first call and looked up by {@link Method} afterwards, so a call only
+ * costs a map lookup and two {@link System#nanoTime()} reads: no tags, samples or join point objects are allocated.
+ * The registry is resolved lazily because advisors are created before the registry's customizers are applied.
+ */
+class LayerTimingInterceptor implements MethodInterceptor {
+
+  static final String METRIC_NAME = "hub.layer.duration";
+
+  private final String layer;
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  private final ConcurrentMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+  LayerTimingInterceptor(String layer, ObjectProvider<MeterRegistry> meterRegistry) {
+    this.layer = layer;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    MethodTimers methodTimers = timers.get(invocation.getMethod());
+    if (methodTimers == null) {
+      methodTimers = timers.computeIfAbsent(invocation.getMethod(), method -> register(method, invocation.getThis()));
+    }
+
+    long start = System.nanoTime();
+    try {
+      Object result = invocation.proceed();
+      methodTimers.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return result;
+    } catch (Throwable e) {
+      methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      throw e;
+    }
+  }
+
+  private MethodTimers register(Method method, Object target) {
+    String className = className(method, target);
+    return new MethodTimers(timer(className, method, "success"), timer(className, method, "error"));
+  }
+
+  private Timer timer(String className, Method method, String outcome) {
+    return Timer.builder(METRIC_NAME)
+        .description("Time spent in a layer of the request path")
+        .tag("layer", layer)
+        .tag("class", className)
+        .tag("method", method.getName())
+        .tag("outcome", outcome)
+        .register(meterRegistry.getObject());
+  }
+
+  /**
+   * Spring Data repositories are JDK proxies; they are named after the repository interface they implement.
+   */
+  private static String className(Method method, Object target) {
+    if (target == null) {
+      return method.getDeclaringClass().getSimpleName();
+    }
+    Class<?> targetClass = target.getClass();
+    if (Proxy.isProxyClass(targetClass) && targetClass.getInterfaces().length > 0) {
+      return targetClass.getInterfaces()[0].getSimpleName();
+    }
+    return ClassUtils.getUserClass(targetClass).getSimpleName();
+  }
+
+  private record MethodTimers(Timer success, Timer error) { }
+}
@@ -0,0 +1,67 @@
+package com.test.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+/**
+ * Times each layer of the product request path in {@code hub.layer.duration}. Together with Spring's
+ * {@code http.server.requests} (which also covers serialization), Caffeine's {@code cache.gets} and the Mongo
+ * driver's {@code mongodb.driver.commands}, this shows where a slow request spends its time.
+ * <p>
+ * The advisors run outermost, so a service timing includes the cache lookup in front of it and a controller timing
+ * includes the method security check. Methods returning a {@code Publisher} are skipped: they return as soon as the
+ * pipeline is assembled, so timing them would measure nothing useful.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+  private static final String NOT_REACTIVE = "!execution(org.reactivestreams.Publisher+ *(..))";
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor controllerTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return advisor("controller", "within(com.test.demo.controller..*) "
+        + "&& @within(org.springframework.web.bind.annotation.RestController) && " + NOT_REACTIVE, meterRegistry);
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return advisor("service", "within(com.test.demo.service..*) "
+        + "&& @within(org.springframework.stereotype.Service) && " + NOT_REACTIVE, meterRegistry);
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor repositoryTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return advisor("repository", "this(com.test.demo.repository.ProductRepository)", meterRegistry);
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor cacheTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return advisor("cache", "execution(public * com.test.demo.cache.ProductPageCache.*(..))", meterRegistry);
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor authenticationTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+    return advisor("security",
+        "bean(authenticationManager) && execution(* authenticate(..))", meterRegistry);
+  }
+
+  private static Advisor advisor(String layer, String expression, ObjectProvider<MeterRegistry> meterRegistry) {
+    AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+    advisor.setExpression(expression);
+    advisor.setAdvice(new LayerTimingInterceptor(layer, meterRegistry));
+    advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return advisor;
+  }
+}
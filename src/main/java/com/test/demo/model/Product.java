@@ -3,10 +3,16 @@ package com.test.demo.model;
 import java.time.LocalDateTime;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @Document(collection = "products")
+@CompoundIndex(name = "createdDate_id", def = "{'createdDate': 1, '_id': 1}")
+@CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}")
+@CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}")
+@CompoundIndex(name = "stock_id", def = "{'stock': 1, '_id': 1}")
+@CompoundIndex(name = "lastModifiedDate_createdDate", def = "{'lastModifiedDate': 1, 'createdDate': 1}")
 public class Product {
 
   @Id
@@ -15,4 +21,9 @@ public class Product {
   private Integer stock;
   private Double price;
   private LocalDateTime createdDate;
+  private LocalDateTime lastModifiedDate;
+  /**
+   * Incremented by every update; compared against the client's expected version for optimistic concurrency.
+   */
+  private Long version;
 }
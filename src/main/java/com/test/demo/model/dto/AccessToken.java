@@ -0,0 +1,14 @@
+package com.test.demo.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A bearer token issued in exchange for credentials, named as in an OAuth 2.0 token response.
+ *
+ * @param accessToken the signed token to send as {@code Authorization: Bearer}
+ * @param tokenType   always {@code Bearer}
+ * @param expiresIn   seconds until the token expires
+ */
+public record AccessToken(@JsonProperty("access_token") String accessToken,
+                          @JsonProperty("token_type") String tokenType,
+                          @JsonProperty("expires_in") long expiresIn) { }
@@ -0,0 +1,15 @@
+package com.test.demo.model.dto;
+
+/**
+ * Outcome for the item at {@code index} of a batch request. {@code errors} holds the validation messages by field
+ * for {@code INVALID} items and the write error for {@code FAILED} ones.
+ */
+public record BatchItemResult(int index, String id, Status status, Object errors) {
+
+  public enum Status {
+    CREATED,
+    UPDATED,
+    INVALID,
+    FAILED
+  }
+}
@@ -0,0 +1,5 @@
+package com.test.demo.model.dto;
+
+import java.util.List;
+
+public record BatchResult(int created, int updated, int failed, List<BatchItemResult> items) { }
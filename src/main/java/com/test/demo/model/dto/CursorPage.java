@@ -0,0 +1,9 @@
+package com.test.demo.model.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is opaque and only meaningful with the same sort;
+ * {@code totalElements} is only present when requested.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, boolean hasNext, Long totalElements) { }
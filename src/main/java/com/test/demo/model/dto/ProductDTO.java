@@ -4,5 +4,18 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
+/**
+ * @param lastModifiedDate set by the server on every write; ignored when sent by a client
+ */
 public record ProductDTO(String id, @NotEmpty(message = "Name is mandatory") String name, Integer stock,
-                         @Positive(message = "Price must be a positive value") Double price, LocalDateTime createdDate) { }
\ No newline at end of file
+                         @Positive(message = "Price must be a positive value") Double price, LocalDateTime createdDate,
+                         LocalDateTime lastModifiedDate, Long version) {
+
+  public ProductDTO(String id, String name, Integer stock, Double price, LocalDateTime createdDate) {
+    this(id, name, stock, price, createdDate, null, null);
+  }
+
+  public ProductDTO(String id, String name, Integer stock, Double price, LocalDateTime createdDate, Long version) {
+    this(id, name, stock, price, createdDate, null, version);
+  }
+}
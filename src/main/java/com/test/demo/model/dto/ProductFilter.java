@@ -0,0 +1,20 @@
+package com.test.demo.model.dto;
+
+/**
+ * Optional listing criteria; {@code null} bounds and a blank prefix match everything. {@code namePrefix} is case
+ * sensitive so that it can be answered from the name index.
+ */
+public record ProductFilter(Double minPrice, Double maxPrice, boolean inStock, String namePrefix) {
+
+  public static final ProductFilter NONE = new ProductFilter(null, null, false, null);
+
+  public ProductFilter {
+    if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+      throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+    }
+  }
+
+  public boolean isEmpty() {
+    return minPrice == null && maxPrice == null && !inStock && (namePrefix == null || namePrefix.isEmpty());
+  }
+}
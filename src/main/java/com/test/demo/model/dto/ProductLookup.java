@@ -0,0 +1,11 @@
+package com.test.demo.model.dto;
+
+import java.util.List;
+
+/**
+ * The result of looking up many products at once.
+ *
+ * @param products the products found, in the order their ids were asked for
+ * @param missing  the ids no product exists for
+ */
+public record ProductLookup(List<ProductDTO> products, List<String> missing) { }
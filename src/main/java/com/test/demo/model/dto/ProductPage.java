@@ -0,0 +1,18 @@
+package com.test.demo.model.dto;
+
+import java.util.List;
+import org.springframework.data.domain.Page;
+
+/**
+ * The listing envelope of the binary formats: only what a client needs to page through the products, without the
+ * pageable and sort metadata of a serialized {@link Page}. Field names and order are part of the contract.
+ *
+ * @param page zero based
+ */
+public record ProductPage(List<ProductDTO> content, int page, int size, long totalElements, int totalPages) {
+
+  public static ProductPage of(Page<ProductDTO> page) {
+    return new ProductPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+        page.getTotalPages());
+  }
+}
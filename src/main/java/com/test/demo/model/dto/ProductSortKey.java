@@ -0,0 +1,26 @@
+package com.test.demo.model.dto;
+
+import java.util.Arrays;
+
+public enum ProductSortKey {
+  CREATED_DATE("createdDate"),
+  NAME("name"),
+  PRICE("price");
+
+  private final String property;
+
+  ProductSortKey(String property) {
+    this.property = property;
+  }
+
+  public String property() {
+    return property;
+  }
+
+  public static ProductSortKey fromProperty(String property) {
+    return Arrays.stream(values())
+        .filter(key -> key.property.equals(property))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property: " + property));
+  }
+}
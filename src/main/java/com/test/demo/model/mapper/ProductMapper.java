@@ -0,0 +1,36 @@
+package com.test.demo.model.mapper;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Field by field conversion between {@link Product} and {@link ProductDTO}. Produces the same result as
+ * {@code ObjectMapper.convertValue} without the round trip through a Jackson token buffer.
+ */
+@Component
+public class ProductMapper {
+
+  public ProductDTO toDto(Product product) {
+    if (product == null) {
+      return null;
+    }
+    return new ProductDTO(product.getId(), product.getName(), product.getStock(), product.getPrice(),
+        product.getCreatedDate(), product.getLastModifiedDate(), product.getVersion());
+  }
+
+  public Product toEntity(ProductDTO productDTO) {
+    if (productDTO == null) {
+      return null;
+    }
+    Product product = new Product();
+    product.setId(productDTO.id());
+    product.setName(productDTO.name());
+    product.setStock(productDTO.stock());
+    product.setPrice(productDTO.price());
+    product.setCreatedDate(productDTO.createdDate());
+    product.setLastModifiedDate(productDTO.lastModifiedDate());
+    product.setVersion(productDTO.version());
+    return product;
+  }
+}
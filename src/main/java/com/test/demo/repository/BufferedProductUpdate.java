@@ -0,0 +1,33 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.dto.ProductDTO;
+
+/**
+ * The price and stock changes buffered for one product. Coalescing keeps the latest price and adds up the stock
+ * deltas, so any number of updates becomes a single write.
+ *
+ * @param price      the price to set, or {@code null} to keep the current one
+ * @param stockDelta added to the stock
+ */
+public record BufferedProductUpdate(Double price, int stockDelta) {
+
+  /**
+   * This update followed by {@code later}.
+   */
+  public BufferedProductUpdate then(BufferedProductUpdate later) {
+    return new BufferedProductUpdate(later.price != null ? later.price : price,
+        Math.addExact(stockDelta, later.stockDelta));
+  }
+
+  /**
+   * {@code product} as it will be once this update is written.
+   */
+  public ProductDTO applyTo(ProductDTO product) {
+    Integer stock = product.stock();
+    if (stockDelta != 0) {
+      stock = stock == null ? stockDelta : stock + stockDelta;
+    }
+    return new ProductDTO(product.id(), product.name(), stock, price != null ? price : product.price(),
+        product.createdDate(), product.lastModifiedDate(), product.version());
+  }
+}
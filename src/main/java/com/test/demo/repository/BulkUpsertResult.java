@@ -0,0 +1,11 @@
+package com.test.demo.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of {@link ProductRepositoryCustom#bulkUpsert}, by position in the submitted list: positions in
+ * {@code inserted} created a new document, positions in {@code failed} were rejected with the given message, and
+ * every other position updated an existing document.
+ */
+public record BulkUpsertResult(Set<Integer> inserted, Map<Integer, String> failed) { }
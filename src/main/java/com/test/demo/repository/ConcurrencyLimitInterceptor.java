@@ -0,0 +1,62 @@
+package com.test.demo.repository;
+
+import com.test.demo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Bounds the number of repository calls in progress. Without it, every request thread that reaches the repository
+ * queues inside the driver for a pooled connection; with virtual threads that can be thousands of callers. Callers
+ * beyond the limit wait up to {@code acquireTimeout} and then fail fast with a 503 instead.
+ * <p>
+ * A call returning a {@code Stream} only holds its permit while the cursor is opened, not while it is consumed.
+ */
+public class ConcurrencyLimitInterceptor implements MethodInterceptor, MeterBinder {
+
+  private final Semaphore permits;
+
+  private final int maxConcurrent;
+
+  private final long acquireTimeoutNanos;
+
+  private volatile Counter rejections;
+
+  public ConcurrencyLimitInterceptor(int maxConcurrent, Duration acquireTimeout) {
+    this.permits = new Semaphore(maxConcurrent);
+    this.maxConcurrent = maxConcurrent;
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (!permits.tryAcquire() && !permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+      Counter counter = rejections;
+      if (counter != null) {
+        counter.increment();
+      }
+      throw new ServiceOverloadedException("Too many concurrent database operations, retry later");
+    }
+    try {
+      return invocation.proceed();
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("hub.mongo.operations.active", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+        .description("Repository calls in progress")
+        .register(registry);
+    rejections = Counter.builder("hub.mongo.operations.rejected")
+        .description("Repository calls rejected because the concurrency limit was reached")
+        .register(registry);
+  }
+}
@@ -0,0 +1,80 @@
+package com.test.demo.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+/**
+ * Sizes the driver's connection pool and keeps the number of concurrent repository calls within it, so the
+ * application degrades with quick 503s rather than a growing queue when request concurrency outgrows the database
+ * (as it easily does with virtual threads). Also makes sure the product indexes exist and are used.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MongoConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(MongoConfig.class);
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+      @Value("${hub.mongo.pool.max-size}") int maxSize,
+      @Value("${hub.mongo.pool.max-wait-time}") Duration maxWaitTime) {
+    return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+        .maxSize(maxSize)
+        .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS));
+  }
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static ConcurrencyLimitInterceptor repositoryConcurrencyLimit(
+      @Value("${hub.mongo.max-concurrent-operations}") int maxConcurrent,
+      @Value("${hub.mongo.acquire-timeout}") Duration acquireTimeout) {
+    return new ConcurrencyLimitInterceptor(maxConcurrent, acquireTimeout);
+  }
+
+  /**
+   * Runs inside the repository timing advisor, so time spent waiting for a permit shows up in the repository layer.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor repositoryConcurrencyLimitAdvisor(ConcurrencyLimitInterceptor repositoryConcurrencyLimit) {
+    AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+    advisor.setExpression("this(com.test.demo.repository.ProductRepository)");
+    advisor.setAdvice(repositoryConcurrencyLimit);
+    advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return advisor;
+  }
+
+  /**
+   * Creates missing indexes before the application reports ready, then logs the plan of every query shape and warns
+   * about the ones that scan the collection or sort in memory.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "hub.mongo.indexes.verify-on-startup", havingValue = "true")
+  public ApplicationRunner productIndexVerifier(ProductIndexes productIndexes) {
+    return args -> {
+      List<String> indexes = productIndexes.ensureIndexes();
+      log.info("Product indexes in place: {}", indexes);
+      for (QueryPlanReport report : productIndexes.explainQueryShapes()) {
+        if (report.flagged()) {
+          log.warn("Query '{}' does not use an index: filter {}, sort {}, plan {}", report.shape(), report.filter(),
+              report.sort(), report.stages());
+        } else {
+          log.info("Query '{}' uses {}: plan {}", report.shape(), report.indexes(), report.stages());
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,158 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductSortKey;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on {@link Product} and checks that the product queries use them.
+ * <p>
+ * Automatic index creation is off in Spring Data, so without {@link #ensureIndexes()} the declared indexes only exist
+ * if someone created them by hand. {@link #explainQueryShapes()} asks Mongo for the winning plan of every query the
+ * application sends, with placeholder values, so a missing or unused index shows up before it shows up in latency.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.mongo.indexes.enabled", havingValue = "true")
+public class ProductIndexes {
+
+  private static final int PAGE_SIZE = 10;
+
+  private final MongoTemplate mongoTemplate;
+
+  private final QueryMapper queryMapper;
+
+  private final MongoPersistentEntity<?> entity;
+
+  public ProductIndexes(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+    this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    this.entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+  }
+
+  /**
+   * Creates any declared index that does not exist yet; existing indexes are left alone.
+   *
+   * @return the names of the declared indexes
+   * @throws IllegalStateException if a declared index is still missing afterwards
+   */
+  public List<String> ensureIndexes() {
+    IndexOperations indexOperations = mongoTemplate.indexOps(Product.class);
+    List<String> declared = new ArrayList<>();
+    for (IndexDefinition index : IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+        .resolveIndexFor(Product.class)) {
+      indexOperations.ensureIndex(index);
+      declared.add((String) index.getIndexOptions().get("name"));
+    }
+
+    Set<String> existing = indexOperations.getIndexInfo().stream()
+        .map(IndexInfo::getName)
+        .collect(Collectors.toSet());
+    List<String> missing = declared.stream().filter(name -> !existing.contains(name)).toList();
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException("Product indexes missing after creation: " + missing);
+    }
+    return declared;
+  }
+
+  /**
+   * Explains every product query shape: lookup by id, each keyset listing, the modified-since export and every
+   * listing filter combined with every sort.
+   */
+  public List<QueryPlanReport> explainQueryShapes() {
+    Map<String, Query> shapes = new LinkedHashMap<>();
+    shapes.put("findById", Query.query(Criteria.where("id").is(new ObjectId().toHexString())));
+    shapes.put("listing", new Query().limit(PAGE_SIZE));
+    for (ProductSortKey sortKey : ProductSortKey.values()) {
+      Object boundary = switch (sortKey) {
+        case CREATED_DATE -> new Date();
+        case NAME -> "Product";
+        case PRICE -> 10.0;
+      };
+      shapes.put("cursor by " + sortKey.property(), new Query(new Criteria().orOperator(
+          Criteria.where(sortKey.property()).gt(boundary),
+          Criteria.where(sortKey.property()).is(boundary).and("id").gt(new ObjectId().toHexString())))
+          .with(Sort.by(sortKey.property(), "id"))
+          .limit(PAGE_SIZE));
+    }
+    LocalDateTime since = LocalDateTime.now().minusDays(1);
+    shapes.put("export modified since", new Query(new Criteria().orOperator(
+        Criteria.where("lastModifiedDate").gte(since),
+        Criteria.where("lastModifiedDate").is(null).and("createdDate").gte(since))));
+
+    Map<String, ProductFilter> filters = new LinkedHashMap<>();
+    filters.put("price range", new ProductFilter(10.0, 100.0, false, null));
+    filters.put("in stock", new ProductFilter(null, null, true, null));
+    filters.put("name prefix", new ProductFilter(null, null, false, "Prod"));
+    filters.forEach((name, filter) -> {
+      for (ProductSortKey sortKey : ProductSortKey.values()) {
+        shapes.put(name + " sorted by " + sortKey.property(), ProductUpdates.filtered(filter)
+            .with(Sort.by(sortKey.property(), "id"))
+            .limit(PAGE_SIZE));
+      }
+    });
+
+    List<QueryPlanReport> reports = new ArrayList<>(shapes.size());
+    shapes.forEach((shape, query) -> reports.add(explain(shape, query)));
+    return reports;
+  }
+
+  private QueryPlanReport explain(String shape, Query query) {
+    Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+    Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+    Document explained = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+        .find(filter)
+        .sort(sort)
+        .limit(query.getLimit())
+        .explain();
+    Document queryPlanner = explained.get("queryPlanner", Document.class);
+    return report(shape, filter, sort, queryPlanner.get("winningPlan", Document.class));
+  }
+
+  /**
+   * Reads the stages of a winning plan, as returned by both the classic and the slot-based query engine.
+   */
+  static QueryPlanReport report(String shape, Document filter, Document sort, Document winningPlan) {
+    List<String> stages = new ArrayList<>();
+    List<String> indexes = new ArrayList<>();
+    collectStages(winningPlan.containsKey("queryPlan") ? winningPlan.get("queryPlan", Document.class) : winningPlan,
+        stages, indexes);
+    boolean collectionScan = stages.contains("COLLSCAN") && !(filter.isEmpty() && sort.isEmpty());
+    return new QueryPlanReport(shape, filter.toJson(), sort.toJson(), stages, indexes,
+        collectionScan || stages.contains("SORT"));
+  }
+
+  private static void collectStages(Document stage, List<String> stages, List<String> indexes) {
+    stages.add(stage.getString("stage"));
+    if (stage.containsKey("indexName") && !indexes.contains(stage.getString("indexName"))) {
+      indexes.add(stage.getString("indexName"));
+    }
+    if (stage.containsKey("inputStage")) {
+      collectStages(stage.get("inputStage", Document.class), stages, indexes);
+    }
+    if (stage.containsKey("inputStages")) {
+      stage.getList("inputStages", Document.class).forEach(input -> collectStages(input, stages, indexes));
+    }
+  }
+}
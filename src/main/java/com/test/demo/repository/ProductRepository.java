@@ -1,10 +1,30 @@
 package com.test.demo.repository;
 
 import com.test.demo.model.Product;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
 
+  Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+  @Meta(cursorBatchSize = 1000)
+  Stream<Product> streamAllBy();
+
+  /**
+   * Products created or modified at or after {@code since}; documents written before {@code lastModifiedDate}
+   * existed fall back to their {@code createdDate}.
+   */
+  @Meta(cursorBatchSize = 1000)
+  @Query("{ '$or': [ { 'lastModifiedDate': { '$gte': ?0 } }, { 'lastModifiedDate': null, 'createdDate': { '$gte': ?0 } } ] }")
+  Stream<Product> streamModifiedSince(LocalDateTime since);
 }
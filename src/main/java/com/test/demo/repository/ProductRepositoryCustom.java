@@ -0,0 +1,64 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Operations that need {@code MongoTemplate} rather than derived queries. Implemented by
+ * {@link ProductRepositoryCustomImpl} and exposed through {@link ProductRepository}.
+ */
+public interface ProductRepositoryCustom {
+
+  /**
+   * Upserts the products by id in one unordered bulk write: name, stock, price and lastModifiedDate are set,
+   * createdDate only on insert. Every product must have an id.
+   */
+  BulkUpsertResult bulkUpsert(List<Product> products);
+
+  /**
+   * One page of the products matching {@code filter}, in the order of {@code pageable}. The total is only counted
+   * when the page alone does not reveal it.
+   */
+  Page<Product> findFiltered(ProductFilter filter, Pageable pageable);
+
+  /**
+   * Sets the price in a single {@code findAndModify}.
+   *
+   * @param expectedVersion only update if the stored version matches; {@code null} skips the check
+   * @return the updated product, or {@code null} if it does not exist or the version did not match
+   */
+  Product updatePrice(String id, Double price, Long expectedVersion);
+
+  /**
+   * Sets name, stock and price in a single {@code findAndModify}.
+   *
+   * @param expectedVersion only update if the stored version matches; {@code null} skips the check
+   * @return the updated product, or {@code null} if it does not exist or the version did not match
+   */
+  Product updateDetails(String id, String name, Integer stock, Double price, Long expectedVersion);
+
+  /**
+   * Adds {@code delta} to the stock in a single {@code findAndModify}. A negative delta only applies while the stock
+   * covers it, so concurrent decrements can never take the stock below zero.
+   *
+   * @param expectedVersion only update if the stored version matches; {@code null} skips the check
+   * @return the updated product, or {@code null} if it does not exist, the version did not match or the stock is
+   *     insufficient
+   */
+  Product adjustStock(String id, int delta, Long expectedVersion);
+
+  /**
+   * Writes buffered updates in one unordered bulk write: the price is set, the stock incremented and the version
+   * bumped. Each document remembers the last batch {@code writer} applied to it and skips any batch up to that one,
+   * so replaying a batch after a crash never adds a stock delta twice. Updates of products that no longer exist are
+   * dropped.
+   *
+   * @param writer identifies the buffer writing, with batches numbered in increasing order per writer
+   * @return the message of every rejected update, by product id
+   */
+  Map<String, String> applyBuffered(String writer, long batch, Map<String, BufferedProductUpdate> updates);
+}
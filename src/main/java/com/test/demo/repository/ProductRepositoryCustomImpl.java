@@ -0,0 +1,106 @@
+package com.test.demo.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+  private final MongoTemplate mongoTemplate;
+
+  public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public BulkUpsertResult bulkUpsert(List<Product> products) {
+    BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+    for (Product product : products) {
+      Update update = ProductUpdates.setOrUnset(new Update(), "stock", product.getStock())
+          .set("name", product.getName())
+          .set("price", product.getPrice())
+          .set("lastModifiedDate", product.getLastModifiedDate())
+          .setOnInsert("createdDate", product.getCreatedDate())
+          .inc("version", 1);
+      bulkOperations.upsert(Query.query(Criteria.where("id").is(product.getId())), update);
+    }
+
+    try {
+      return new BulkUpsertResult(insertedIndexes(bulkOperations.execute()), Map.of());
+    } catch (BulkOperationException e) {
+      Map<Integer, String> failed = e.getErrors().stream()
+          .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+      return new BulkUpsertResult(insertedIndexes(e.getResult()), failed);
+    }
+  }
+
+  @Override
+  public Page<Product> findFiltered(ProductFilter filter, Pageable pageable) {
+    List<Product> content = mongoTemplate.find(ProductUpdates.filtered(filter).with(pageable), Product.class);
+    return PageableExecutionUtils.getPage(content, pageable,
+        () -> mongoTemplate.count(ProductUpdates.filtered(filter), Product.class));
+  }
+
+  @Override
+  public Product updatePrice(String id, Double price, Long expectedVersion) {
+    return findAndModify(ProductUpdates.byIdAndVersion(id, expectedVersion), ProductUpdates.price(price));
+  }
+
+  @Override
+  public Product updateDetails(String id, String name, Integer stock, Double price, Long expectedVersion) {
+    return findAndModify(ProductUpdates.byIdAndVersion(id, expectedVersion),
+        ProductUpdates.details(name, stock, price));
+  }
+
+  @Override
+  public Product adjustStock(String id, int delta, Long expectedVersion) {
+    return findAndModify(ProductUpdates.stockAdjustable(id, delta, expectedVersion), ProductUpdates.stockDelta(delta));
+  }
+
+  @Override
+  public Map<String, String> applyBuffered(String writer, long batch, Map<String, BufferedProductUpdate> updates) {
+    if (updates.isEmpty()) {
+      return Map.of();
+    }
+    List<String> ids = new ArrayList<>(updates.size());
+    BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+    updates.forEach((id, update) -> {
+      ids.add(id);
+      bulkOperations.updateOne(ProductUpdates.bufferedNotApplied(id, writer, batch),
+          ProductUpdates.buffered(update, writer, batch));
+    });
+
+    try {
+      bulkOperations.execute();
+      return Map.of();
+    } catch (BulkOperationException e) {
+      return e.getErrors().stream()
+          .collect(Collectors.toMap(error -> ids.get(error.getIndex()), BulkWriteError::getMessage));
+    }
+  }
+
+  private Product findAndModify(Query query, Update update) {
+    return mongoTemplate.findAndModify(query, update, ProductUpdates.RETURN_NEW, Product.class);
+  }
+
+  private static Set<Integer> insertedIndexes(BulkWriteResult result) {
+    return result.getUpserts().stream().map(BulkWriteUpsert::getIndex).collect(Collectors.toSet());
+  }
+}
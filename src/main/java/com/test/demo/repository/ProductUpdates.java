@@ -0,0 +1,114 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.dto.ProductFilter;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * The queries and updates shared by the blocking and the reactive repository, so both stacks apply exactly the same
+ * listing filters, versioning and stock rules.
+ */
+final class ProductUpdates {
+
+  static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+  private ProductUpdates() {
+  }
+
+  /**
+   * Every criterion is a range or an anchored prefix on a single indexed field, so Mongo can bound an index scan
+   * with whichever of them is most selective.
+   */
+  static Query filtered(ProductFilter filter) {
+    Query query = new Query();
+    if (filter.minPrice() != null || filter.maxPrice() != null) {
+      Criteria price = Criteria.where("price");
+      if (filter.minPrice() != null) {
+        price.gte(filter.minPrice());
+      }
+      if (filter.maxPrice() != null) {
+        price.lte(filter.maxPrice());
+      }
+      query.addCriteria(price);
+    }
+    if (filter.inStock()) {
+      query.addCriteria(Criteria.where("stock").gt(0));
+    }
+    if (filter.namePrefix() != null && !filter.namePrefix().isEmpty()) {
+      query.addCriteria(Criteria.where("name").regex("^" + Pattern.quote(filter.namePrefix())));
+    }
+    return query;
+  }
+
+  static Query byIdAndVersion(String id, Long expectedVersion) {
+    Query query = Query.query(Criteria.where("id").is(id));
+    if (expectedVersion != null) {
+      query.addCriteria(Criteria.where("version").is(expectedVersion));
+    }
+    return query;
+  }
+
+  /**
+   * A negative delta only matches while the stock covers it.
+   */
+  static Query stockAdjustable(String id, int delta, Long expectedVersion) {
+    Query query = byIdAndVersion(id, expectedVersion);
+    if (delta < 0) {
+      query.addCriteria(Criteria.where("stock").gte(-delta));
+    }
+    return query;
+  }
+
+  static Update price(Double price) {
+    return modification().set("price", price);
+  }
+
+  static Update details(String name, Integer stock, Double price) {
+    return setOrUnset(modification(), "stock", stock)
+        .set("name", name)
+        .set("price", price);
+  }
+
+  static Update stockDelta(int delta) {
+    return modification().inc("stock", delta);
+  }
+
+  /**
+   * Matches unless {@code writer} already applied this batch, or a later one, to the product.
+   */
+  static Query bufferedNotApplied(String id, String writer, long batch) {
+    return Query.query(Criteria.where("id").is(id).and(appliedBatch(writer)).not().gte(batch));
+  }
+
+  static Update buffered(BufferedProductUpdate update, String writer, long batch) {
+    Update modification = modification().set(appliedBatch(writer), batch);
+    if (update.price() != null) {
+      modification.set("price", update.price());
+    }
+    if (update.stockDelta() != 0) {
+      modification.inc("stock", update.stockDelta());
+    }
+    return modification;
+  }
+
+  private static String appliedBatch(String writer) {
+    return "writeBehind." + writer;
+  }
+
+  private static Update modification() {
+    return new Update()
+        .set("lastModifiedDate", LocalDateTime.now())
+        .inc("version", 1);
+  }
+
+  /**
+   * A stored {@code null} would make later {@code $inc} operations fail, so a missing value removes the field.
+   */
+  static Update setOrUnset(Update update, String key, Object value) {
+    return value == null ? update.unset(key) : update.set(key, value);
+  }
+}
@@ -0,0 +1,28 @@
+package com.test.demo.repository;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/queryplans}: the winning plan of every product query shape, with the ones that scan the
+ * collection or sort in memory flagged.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.mongo.indexes.enabled", havingValue = "true")
+@Endpoint(id = "queryplans")
+public class QueryPlanEndpoint {
+
+  private final ProductIndexes productIndexes;
+
+  public QueryPlanEndpoint(ProductIndexes productIndexes) {
+    this.productIndexes = productIndexes;
+  }
+
+  @ReadOperation
+  public List<QueryPlanReport> queryPlans() {
+    return productIndexes.explainQueryShapes();
+  }
+}
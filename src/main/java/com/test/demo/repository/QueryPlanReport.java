@@ -0,0 +1,13 @@
+package com.test.demo.repository;
+
+import java.util.List;
+
+/**
+ * The winning plan Mongo chose for one query shape.
+ *
+ * @param stages  the plan's stages, outermost first
+ * @param indexes the indexes the plan scans, empty for a collection scan
+ * @param flagged whether the plan scans the whole collection for a filtered or sorted query, or sorts in memory
+ */
+public record QueryPlanReport(String shape, String filter, String sort, List<String> stages, List<String> indexes,
+                              boolean flagged) { }
@@ -0,0 +1,27 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository}, used by the {@code reactive} profile.
+ */
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String>,
+    ReactiveProductRepositoryCustom {
+
+  Mono<Window<Product>> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+  /**
+   * See {@link ProductRepository#streamModifiedSince}.
+   */
+  @Query("{ '$or': [ { 'lastModifiedDate': { '$gte': ?0 } }, { 'lastModifiedDate': null, 'createdDate': { '$gte': ?0 } } ] }")
+  Flux<Product> streamModifiedSince(LocalDateTime since);
+}
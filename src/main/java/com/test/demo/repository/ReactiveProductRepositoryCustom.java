@@ -0,0 +1,24 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of {@link ProductRepositoryCustom}; each update completes empty where the blocking version
+ * returns {@code null}.
+ */
+public interface ReactiveProductRepositoryCustom {
+
+  Flux<Product> findFiltered(ProductFilter filter, Pageable pageable);
+
+  Mono<Long> countFiltered(ProductFilter filter);
+
+  Mono<Product> updatePrice(String id, Double price, Long expectedVersion);
+
+  Mono<Product> updateDetails(String id, String name, Integer stock, Double price, Long expectedVersion);
+
+  Mono<Product> adjustStock(String id, int delta, Long expectedVersion);
+}
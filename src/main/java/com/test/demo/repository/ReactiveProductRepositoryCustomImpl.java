@@ -0,0 +1,49 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveProductRepositoryCustomImpl implements ReactiveProductRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public ReactiveProductRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<Product> findFiltered(ProductFilter filter, Pageable pageable) {
+    return mongoTemplate.find(ProductUpdates.filtered(filter).with(pageable), Product.class);
+  }
+
+  @Override
+  public Mono<Long> countFiltered(ProductFilter filter) {
+    return mongoTemplate.count(ProductUpdates.filtered(filter), Product.class);
+  }
+
+  @Override
+  public Mono<Product> updatePrice(String id, Double price, Long expectedVersion) {
+    return findAndModify(ProductUpdates.byIdAndVersion(id, expectedVersion), ProductUpdates.price(price));
+  }
+
+  @Override
+  public Mono<Product> updateDetails(String id, String name, Integer stock, Double price, Long expectedVersion) {
+    return findAndModify(ProductUpdates.byIdAndVersion(id, expectedVersion),
+        ProductUpdates.details(name, stock, price));
+  }
+
+  @Override
+  public Mono<Product> adjustStock(String id, int delta, Long expectedVersion) {
+    return findAndModify(ProductUpdates.stockAdjustable(id, delta, expectedVersion), ProductUpdates.stockDelta(delta));
+  }
+
+  private Mono<Product> findAndModify(Query query, Update update) {
+    return mongoTemplate.findAndModify(query, update, ProductUpdates.RETURN_NEW, Product.class);
+  }
+}
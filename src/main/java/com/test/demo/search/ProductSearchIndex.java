@@ -0,0 +1,337 @@
+package com.test.demo.search;
+
+import com.test.demo.model.dto.ProductDTO;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over product names, answering searches without touching Mongo.
+ * <p>
+ * Names are split into lower-case, accent-free word tokens. Every query token must match a name token, either exactly
+ * or as its prefix, so a partly typed last word already finds results. Exact matches rank above prefix matches,
+ * shorter completions above longer ones, and a first query token matching the first word of the name earns a bonus;
+ * ties go to the shorter name.
+ * <p>
+ * Writes are serialized; searches run concurrently with them without locking. A write links the new tokens before it
+ * unlinks the old ones, so a product never drops out of results while it is being updated, and results always show
+ * its latest state.
+ */
+@Component
+public class ProductSearchIndex {
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+  private static final double LEADING_BONUS = 0.5;
+
+  /**
+   * Postings order, matching the ranking among equal scores; the sequence tells two states of one product apart.
+   */
+  private static final Comparator<Entry> BY_NAME = Comparator.<Entry>comparingInt(entry -> entry.product.name().length())
+      .thenComparing(entry -> entry.product.name())
+      .thenComparing(entry -> entry.product.id())
+      .thenComparingLong(entry -> entry.sequence);
+
+  private final ConcurrentHashMap<String, Entry> products = new ConcurrentHashMap<>();
+
+  private long sequence;
+
+  /**
+   * Products by the first token of their name, which earns the leading bonus when the first query token matches it.
+   */
+  private final ConcurrentNavigableMap<String, Set<Entry>> leadingPostings = new ConcurrentSkipListMap<>();
+
+  /**
+   * Products by every other token of their name.
+   */
+  private final ConcurrentNavigableMap<String, Set<Entry>> postings = new ConcurrentSkipListMap<>();
+
+  /**
+   * Ids removed while {@link #load} runs, so the scan cannot bring them back.
+   */
+  private volatile Set<String> removedWhileLoading;
+
+  /**
+   * Indexes the product, replacing its previous state unless that one has a higher version.
+   */
+  public synchronized void put(ProductDTO product) {
+    if (product.id() == null) {
+      return;
+    }
+    Entry current = products.get(product.id());
+    if (current != null && current.product.version() != null && product.version() != null
+        && current.product.version() > product.version()) {
+      return;
+    }
+    Entry entry = new Entry(product, tokenize(product.name()), sequence++);
+    for (int i = 0; i < entry.tokens.length; i++) {
+      postingsAt(i).computeIfAbsent(entry.tokens[i], key -> new ConcurrentSkipListSet<>(BY_NAME)).add(entry);
+    }
+    Entry previous = products.put(product.id(), entry);
+    if (previous != null) {
+      unlink(previous);
+    }
+  }
+
+  public synchronized void remove(String id) {
+    Entry removed = products.remove(id);
+    if (removed != null) {
+      unlink(removed);
+    }
+    Set<String> removedIds = removedWhileLoading;
+    if (removedIds != null) {
+      removedIds.add(id);
+    }
+  }
+
+  /**
+   * Adds the scanned products that were not written while the scan ran: a product put during the scan is at least as
+   * new as the scanned copy, and a product removed during the scan stays removed.
+   *
+   * @return the number of products added
+   */
+  public int load(Stream<ProductDTO> scanned) {
+    removedWhileLoading = ConcurrentHashMap.newKeySet();
+    try {
+      int[] added = {0};
+      scanned.forEach(product -> {
+        synchronized (this) {
+          if (!products.containsKey(product.id()) && !removedWhileLoading.contains(product.id())) {
+            put(product);
+            added[0]++;
+          }
+        }
+      });
+      return added[0];
+    } finally {
+      removedWhileLoading = null;
+    }
+  }
+
+  public synchronized void clear() {
+    products.clear();
+    leadingPostings.clear();
+    postings.clear();
+  }
+
+  public int size() {
+    return products.size();
+  }
+
+  /**
+   * The best ranked products whose names match every token of {@code query}; empty if the query has no tokens.
+   * <p>
+   * Candidates come from the postings of a single query token, the one with the fewest, visited from the best scoring
+   * name token down and, within a token, shortest name first. A visit stops as soon as no remaining candidate could
+   * displace the current results, so a short prefix matching much of the catalogue costs about as much as a rare word.
+   */
+  public List<ProductDTO> search(String query, int limit) {
+    String[] queryTokens = tokenize(query);
+    if (queryTokens.length == 0 || limit < 1) {
+      return List.of();
+    }
+
+    int driver = 0;
+    long fewest = Long.MAX_VALUE;
+    for (int i = 0; i < queryTokens.length; i++) {
+      long candidates = candidates(queryTokens[i], fewest);
+      if (candidates < fewest) {
+        driver = i;
+        fewest = candidates;
+      }
+    }
+    if (fewest == 0) {
+      return List.of();
+    }
+
+    double othersBest = 0;
+    for (int i = 0; i < queryTokens.length; i++) {
+      if (i != driver) {
+        othersBest += i == 0 ? 1 + LEADING_BONUS : 1;
+      }
+    }
+
+    PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, (a, b) -> compare(b, a));
+    Set<Entry> ranked = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Source source : sources(queryTokens[driver], driver == 0)) {
+      double bound = source.score() + othersBest;
+      if (best.size() == limit && best.peek().score() > bound) {
+        break;
+      }
+      for (Entry entry : source.entries()) {
+        if (best.size() == limit && compare(bound, entry, best.peek().score(), best.peek().entry()) >= 0) {
+          break;
+        }
+        if (ranked.contains(entry)) {
+          continue;
+        }
+        double score = score(entry, queryTokens);
+        if (score == 0 || best.size() == limit && compare(score, entry, best.peek().score(), best.peek().entry()) >= 0
+            || products.get(entry.product.id()) != entry) {
+          continue;
+        }
+        best.add(new Match(entry, score));
+        ranked.add(entry);
+        if (best.size() > limit) {
+          ranked.remove(best.poll().entry());
+        }
+      }
+    }
+    List<Match> results = new ArrayList<>(best);
+    results.sort(ProductSearchIndex::compare);
+    return results.stream().map(match -> match.entry().product).toList();
+  }
+
+  /**
+   * How many postings the query token reaches, counted up to {@code enough}.
+   */
+  private long candidates(String queryToken, long enough) {
+    long candidates = 0;
+    for (ConcurrentNavigableMap<String, Set<Entry>> byToken : List.of(leadingPostings, postings)) {
+      for (Set<Entry> entries : matching(byToken, queryToken).values()) {
+        if (candidates >= enough) {
+          return candidates;
+        }
+        candidates += entries.size();
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * The postings matching one query token, best scoring first. The leading bonus only applies to the first query token.
+   */
+  private List<Source> sources(String queryToken, boolean first) {
+    List<Source> sources = new ArrayList<>();
+    matching(leadingPostings, queryToken).forEach((token, entries) -> sources.add(
+        new Source(tokenScore(queryToken, token) + (first ? LEADING_BONUS : 0), entries)));
+    matching(postings, queryToken).forEach((token, entries) -> sources.add(
+        new Source(tokenScore(queryToken, token), entries)));
+    sources.sort(Comparator.comparingDouble(Source::score).reversed());
+    return sources;
+  }
+
+  private static NavigableMap<String, Set<Entry>> matching(ConcurrentNavigableMap<String, Set<Entry>> byToken,
+                                                           String queryToken) {
+    return byToken.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false);
+  }
+
+  /**
+   * The sum over the query tokens of their best match among the name tokens, or 0 if one of them matches none.
+   */
+  private static double score(Entry entry, String[] queryTokens) {
+    double total = 0;
+    for (int q = 0; q < queryTokens.length; q++) {
+      double best = 0;
+      for (int t = 0; t < entry.tokens.length; t++) {
+        double score = tokenScore(queryTokens[q], entry.tokens[t]);
+        if (score > 0 && q == 0 && t == 0) {
+          score += LEADING_BONUS;
+        }
+        best = Math.max(best, score);
+      }
+      if (best == 0) {
+        return 0;
+      }
+      total += best;
+    }
+    return total;
+  }
+
+  /**
+   * An exact token scores 1, a completion scores the typed fraction of it, anything else 0.
+   */
+  private static double tokenScore(String queryToken, String token) {
+    if (!token.startsWith(queryToken)) {
+      return 0;
+    }
+    return token.length() == queryToken.length() ? 1.0 : 0.8 * queryToken.length() / token.length();
+  }
+
+  private static int compare(Match a, Match b) {
+    return compare(a.score(), a.entry(), b.score(), b.entry());
+  }
+
+  /**
+   * Negative if the first candidate ranks above the second: higher score, then shorter name, then name, then id.
+   */
+  private static int compare(double scoreA, Entry a, double scoreB, Entry b) {
+    int order = Double.compare(scoreB, scoreA);
+    if (order == 0) {
+      order = Integer.compare(a.product.name().length(), b.product.name().length());
+    }
+    if (order == 0) {
+      order = a.product.name().compareTo(b.product.name());
+    }
+    return order != 0 ? order : a.product.id().compareTo(b.product.id());
+  }
+
+  private void unlink(Entry entry) {
+    for (int i = 0; i < entry.tokens.length; i++) {
+      ConcurrentNavigableMap<String, Set<Entry>> byToken = postingsAt(i);
+      Set<Entry> entries = byToken.get(entry.tokens[i]);
+      if (entries != null) {
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+          byToken.remove(entry.tokens[i], entries);
+        }
+      }
+    }
+  }
+
+  private ConcurrentNavigableMap<String, Set<Entry>> postingsAt(int position) {
+    return position == 0 ? leadingPostings : postings;
+  }
+
+  static String[] tokenize(String text) {
+    if (text == null) {
+      return new String[0];
+    }
+    String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+        .toLowerCase(Locale.ROOT);
+    return Arrays.stream(SEPARATORS.split(normalized))
+        .filter(token -> !token.isEmpty())
+        .distinct()
+        .toArray(String[]::new);
+  }
+
+  /**
+   * One indexed state of a product. Postings hold entries by identity, so a search can tell a superseded state apart
+   * from the current one.
+   */
+  private static final class Entry {
+
+    private final ProductDTO product;
+
+    private final String[] tokens;
+
+    private final long sequence;
+
+    private Entry(ProductDTO product, String[] tokens, long sequence) {
+      this.product = product;
+      this.tokens = tokens;
+      this.sequence = sequence;
+    }
+  }
+
+  private record Source(double score, Set<Entry> entries) { }
+
+  private record Match(Entry entry, double score) { }
+}
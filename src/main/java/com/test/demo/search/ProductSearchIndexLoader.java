@@ -0,0 +1,57 @@
+package com.test.demo.search;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.ProductRepository;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the {@link ProductSearchIndex} from one streamed scan of the collection before the application reports ready.
+ * From then on the product services keep it current.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.search.build-on-startup", havingValue = "true")
+public class ProductSearchIndexLoader implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+  private final ProductRepository productRepository;
+
+  private final ProductMapper productMapper;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  public ProductSearchIndexLoader(ProductRepository productRepository, ProductMapper productMapper,
+                                  ProductSearchIndex productSearchIndex) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.productSearchIndex = productSearchIndex;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    load();
+  }
+
+  /**
+   * Rebuilds the index from scratch, for when changes may have been missed.
+   */
+  public void reload() {
+    productSearchIndex.clear();
+    load();
+  }
+
+  private void load() {
+    long started = System.nanoTime();
+    try (Stream<Product> products = productRepository.streamAllBy()) {
+      int loaded = productSearchIndex.load(products.map(productMapper::toDto));
+      log.info("Indexed {} products for search in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+    }
+  }
+}
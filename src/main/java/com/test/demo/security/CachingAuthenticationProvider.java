@@ -0,0 +1,132 @@
+package com.test.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Remembers credentials that the delegate provider (BCrypt backed) already verified, so repeat callers sending the
+ * same HTTP Basic header skip password hashing until the entry expires or the user changes.
+ * <p>
+ * Entries are keyed by an HMAC-SHA256 of the length-prefixed username and the password under a key generated at
+ * startup; raw passwords are never stored. Only successful authentications are cached, failed attempts always reach
+ * the delegate.
+ * <p>
+ * Each {@link #invalidate} bumps the user's generation. A verification that started before it, against the old
+ * password, is not cached, so a changed or removed user's old credentials stop working at once.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final AuthenticationProvider delegate;
+  private final Cache<String, UserDetails> verifiedCredentials;
+  private final SecretKeySpec key;
+  /**
+   * Invalidations per username; only users that were ever invalidated have an entry.
+   */
+  private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<>();
+  /**
+   * Initialised {@link Mac}s ready for reuse. A pool rather than a {@code ThreadLocal}: with virtual threads every
+   * request runs on a new thread, so a per-thread instance would never be reused.
+   */
+  private final Queue<Mac> idleMacs = new ConcurrentLinkedQueue<>();
+
+  public CachingAuthenticationProvider(AuthenticationProvider delegate, long maximumSize, Duration timeToLive) {
+    this.delegate = delegate;
+    this.verifiedCredentials = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .recordStats()
+        .build();
+    byte[] secret = new byte[32];
+    new SecureRandom().nextBytes(secret);
+    this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+    Object credentials = authentication.getCredentials();
+    if (credentials == null) {
+      return delegate.authenticate(authentication);
+    }
+
+    String cacheKey = digest(authentication.getName(), credentials.toString());
+    UserDetails cached = verifiedCredentials.getIfPresent(cacheKey);
+    if (cached != null) {
+      var result = UsernamePasswordAuthenticationToken.authenticated(cached, null, cached.getAuthorities());
+      result.setDetails(authentication.getDetails());
+      return result;
+    }
+
+    String username = authentication.getName();
+    long generation = generation(username);
+    Authentication result = delegate.authenticate(authentication);
+    if (result != null && result.isAuthenticated() && result.getPrincipal() instanceof UserDetails userDetails) {
+      verifiedCredentials.asMap().compute(cacheKey,
+          (key, existing) -> generation(username) == generation ? userDetails : existing);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+  }
+
+  public void invalidate(String username) {
+    generations.merge(username, 1L, Long::sum);
+    verifiedCredentials.asMap().values().removeIf(user -> user.getUsername().equals(username));
+  }
+
+  public void invalidateAll() {
+    verifiedCredentials.invalidateAll();
+  }
+
+  public Cache<String, UserDetails> getCache() {
+    return verifiedCredentials;
+  }
+
+  private long generation(String username) {
+    return generations.getOrDefault(username, 0L);
+  }
+
+  private String digest(String username, String password) {
+    Mac mac = idleMacs.poll();
+    if (mac == null) {
+      mac = newMac();
+    }
+    byte[] name = username.getBytes(StandardCharsets.UTF_8);
+    mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(name.length).flip());
+    mac.update(name);
+    String digest = Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    idleMacs.offer(mac);
+    return digest;
+  }
+
+  private Mac newMac() {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      return mac;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to initialise " + HMAC_ALGORITHM, e);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.test.demo.security;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+/**
+ * {@link InMemoryUserDetailsManager} that tells interested parties which username changed, so that anything
+ * derived from a user's credentials (e.g. the verified-credential cache) can be dropped.
+ */
+public class ObservableUserDetailsManager extends InMemoryUserDetailsManager {
+
+  private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+  public ObservableUserDetailsManager(UserDetails... users) {
+    for (UserDetails user : users) {
+      createUser(user);
+    }
+  }
+
+  public void onUserChanged(Consumer<String> listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void createUser(UserDetails user) {
+    super.createUser(user);
+    notifyListeners(user.getUsername());
+  }
+
+  @Override
+  public void updateUser(UserDetails user) {
+    super.updateUser(user);
+    notifyListeners(user.getUsername());
+  }
+
+  @Override
+  public void deleteUser(String username) {
+    super.deleteUser(username);
+    notifyListeners(username);
+  }
+
+  @Override
+  public void changePassword(String oldPassword, String newPassword) {
+    var currentUser = SecurityContextHolder.getContext().getAuthentication();
+    super.changePassword(oldPassword, newPassword);
+    if (currentUser != null) {
+      notifyListeners(currentUser.getName());
+    }
+  }
+
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    UserDetails updated = super.updatePassword(user, newPassword);
+    notifyListeners(user.getUsername());
+    return updated;
+  }
+
+  private void notifyListeners(String username) {
+    listeners.forEach(listener -> listener.accept(username));
+  }
+}
@@ -2,24 +2,53 @@ package com.test.demo.security;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.limits.RequestLimitFilter;
+import com.test.demo.limits.RequestLimitWebFilter;
+import com.test.demo.limits.RequestLimits;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManagerAdapter;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
 
+/**
+ * Users, password encoding and the credential cache, shared by both web stacks. The filter chain and method security
+ * are set up by {@link Servlet} or {@link Reactive}, depending on which stack the application runs on.
+ * <p>
+ * Both chains are stateless and accept either HTTP Basic credentials or a bearer token from {@link TokenService};
+ * a token is checked against its signature alone, its roles claim standing in for the user's roles.
+ */
 @Configuration
-@EnableWebSecurity
-@EnableMethodSecurity
 public class SecurityConfig {
 
   @Value("${hub.user.role.username}")
@@ -34,19 +63,29 @@ public class SecurityConfig {
   @Value("${hub.admin.role.password}")
   private String adminPassword;
 
+  @Value("${hub.security.auth-cache.maximum-size}")
+  private long authCacheMaximumSize;
+
+  @Value("${hub.security.auth-cache.ttl}")
+  private Duration authCacheTtl;
+
+  /**
+   * The only authentication entry point: the users and the credential cache in front of them are not beans, so Spring
+   * Security does not build a second, uncached global manager from them. Each filter chain uses this one explicitly.
+   */
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-    http
-        .csrf(AbstractHttpConfigurer::disable)
-        .authorizeHttpRequests(requests -> requests
-            .anyRequest().authenticated())
-        .httpBasic(withDefaults());
-    return http.build();
+  public AuthenticationManager authenticationManager(MeterRegistry meterRegistry) {
+    ObservableUserDetailsManager userDetailsService = userDetailsService();
+    DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder());
+    daoAuthenticationProvider.setUserDetailsService(userDetailsService);
 
+    var provider = new CachingAuthenticationProvider(daoAuthenticationProvider, authCacheMaximumSize, authCacheTtl);
+    userDetailsService.onUserChanged(provider::invalidate);
+    CaffeineCacheMetrics.monitor(meterRegistry, provider.getCache(), "authCredentials");
+    return new ProviderManager(provider);
   }
 
-  @Bean
-  public UserDetailsService userDetailsService() {
+  private ObservableUserDetailsManager userDetailsService() {
     UserDetails user = User.builder()
         .username(userUsername)
         .password(passwordEncoder().encode(userPassword))
@@ -59,11 +98,92 @@ public class SecurityConfig {
         .roles("ADMIN")
         .build();
 
-    return new InMemoryUserDetailsManager(user, admin);
+    return new ObservableUserDetailsManager(user, admin);
   }
 
   @Bean
   public PasswordEncoder passwordEncoder() {
     return new BCryptPasswordEncoder();
   }
+
+  /**
+   * With {@code hub.limits.enabled}, authorized API requests then pass the {@link RequestLimits}.
+   */
+  @Configuration
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  @EnableWebSecurity
+  @EnableMethodSecurity
+  static class Servlet {
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationManager authenticationManager,
+                                           JwtDecoder jwtDecoder, ObjectProvider<RequestLimits> requestLimits,
+                                           ObjectMapper objectMapper) throws Exception {
+      JwtAuthenticationProvider jwtAuthenticationProvider = new JwtAuthenticationProvider(jwtDecoder);
+      jwtAuthenticationProvider.setJwtAuthenticationConverter(TokenService.authenticationConverter());
+      http
+          .authenticationManager(authenticationManager)
+          .csrf(AbstractHttpConfigurer::disable)
+          .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+          .authorizeHttpRequests(requests -> requests
+              .requestMatchers("/actuator/queryplans").hasRole("ADMIN")
+              .anyRequest().authenticated())
+          .httpBasic(withDefaults())
+          .oauth2ResourceServer(resourceServer -> resourceServer
+              .jwt(jwt -> jwt.authenticationManager(new ProviderManager(jwtAuthenticationProvider))));
+      RequestLimits limits = requestLimits.getIfAvailable();
+      if (limits != null) {
+        http.addFilterAfter(new RequestLimitFilter(limits, objectMapper), AuthorizationFilter.class);
+      }
+      return http.build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(TokenService tokenService) {
+      return tokenService.jwtDecoder();
+    }
+  }
+
+  /**
+   * The same rules for WebFlux. Password checks go through the shared {@link AuthenticationManager} on a bounded
+   * elastic scheduler, so BCrypt never runs on an event loop thread.
+   */
+  @Configuration
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+  @EnableWebFluxSecurity
+  @EnableReactiveMethodSecurity
+  static class Reactive {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ReactiveAuthenticationManager authenticationManager,
+                                                         ObjectProvider<RequestLimits> requestLimits,
+                                                         ObjectMapper objectMapper) throws Exception {
+      http
+          .csrf(ServerHttpSecurity.CsrfSpec::disable)
+          .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+          .authorizeExchange(exchanges -> exchanges
+              .pathMatchers("/actuator/queryplans").hasRole("ADMIN")
+              .anyExchange().authenticated())
+          .httpBasic(basic -> basic.authenticationManager(authenticationManager))
+          .oauth2ResourceServer(resourceServer -> resourceServer
+              .jwt(jwt -> jwt.jwtAuthenticationConverter(
+                  new ReactiveJwtAuthenticationConverterAdapter(TokenService.authenticationConverter()))));
+      RequestLimits limits = requestLimits.getIfAvailable();
+      if (limits != null) {
+        http.addFilterAfter(new RequestLimitWebFilter(limits, objectMapper), SecurityWebFiltersOrder.AUTHORIZATION);
+      }
+      return http.build();
+    }
+
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(TokenService tokenService) {
+      return tokenService.reactiveJwtDecoder();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(AuthenticationManager authenticationManager) {
+      return new ReactiveAuthenticationManagerAdapter(authenticationManager);
+    }
+  }
 }
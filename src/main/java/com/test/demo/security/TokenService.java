@@ -0,0 +1,148 @@
+package com.test.demo.security;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.test.demo.model.dto.AccessToken;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues and verifies the HMAC-SHA256 signed JWTs that stand in for HTTP Basic credentials. A caller exchanges its
+ * credentials once, paying for BCrypt once, and then authenticates every request with a signature check; the token
+ * carries the caller's roles in its {@value #ROLES_CLAIM} claim, so nothing is looked up and no session is kept.
+ * <p>
+ * Tokens are signed with {@code hub.security.token.secret}, base64 encoded and at least 256 bits. Left blank, a key is
+ * generated at startup: tokens then stop being valid on restart and are not accepted by other instances. A token
+ * cannot be revoked before it expires, so {@code hub.security.token.ttl} should stay short.
+ */
+@Component
+public class TokenService {
+
+  public static final String ISSUER = "hub";
+
+  public static final String ROLES_CLAIM = "roles";
+
+  private static final String ROLE_PREFIX = "ROLE_";
+
+  private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+  private final SecretKey key;
+
+  private final Duration timeToLive;
+
+  private final Clock clock;
+
+  private final JwtEncoder encoder;
+
+  @Autowired
+  public TokenService(@Value("${hub.security.token.secret}") String secret,
+                      @Value("${hub.security.token.ttl}") Duration timeToLive) {
+    this(secret, timeToLive, Clock.systemUTC());
+  }
+
+  TokenService(String secret, Duration timeToLive, Clock clock) {
+    this.key = new SecretKeySpec(secret(secret), "HmacSHA256");
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+  }
+
+  /**
+   * A token for the already authenticated caller, carrying its name as subject and its roles.
+   */
+  public AccessToken issue(Authentication authentication) {
+    Instant now = clock.instant();
+    List<String> roles = authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .filter(authority -> authority.startsWith(ROLE_PREFIX))
+        .map(authority -> authority.substring(ROLE_PREFIX.length()))
+        .toList();
+    JwtClaimsSet claims = JwtClaimsSet.builder()
+        .issuer(ISSUER)
+        .subject(authentication.getName())
+        .issuedAt(now)
+        .expiresAt(now.plus(timeToLive))
+        .claim(ROLES_CLAIM, roles)
+        .build();
+    JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+    String token = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    return new AccessToken(token, "Bearer", timeToLive.toSeconds());
+  }
+
+  public JwtDecoder jwtDecoder() {
+    NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+    decoder.setJwtValidator(validator());
+    return decoder;
+  }
+
+  public ReactiveJwtDecoder reactiveJwtDecoder() {
+    NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(key)
+        .macAlgorithm(MacAlgorithm.HS256)
+        .build();
+    decoder.setJwtValidator(validator());
+    return decoder;
+  }
+
+  /**
+   * Maps the {@value #ROLES_CLAIM} claim back to the {@code ROLE_} authorities {@code @PreAuthorize} checks.
+   */
+  public static Converter<Jwt, AbstractAuthenticationToken> authenticationConverter() {
+    JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+    authorities.setAuthoritiesClaimName(ROLES_CLAIM);
+    authorities.setAuthorityPrefix(ROLE_PREFIX);
+    JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+    converter.setJwtGrantedAuthoritiesConverter(authorities);
+    return converter;
+  }
+
+  private OAuth2TokenValidator<Jwt> validator() {
+    JwtTimestampValidator timestamps = new JwtTimestampValidator();
+    timestamps.setClock(clock);
+    return new DelegatingOAuth2TokenValidator<>(timestamps, new JwtIssuerValidator(ISSUER));
+  }
+
+  private static byte[] secret(String secret) {
+    if (secret == null || secret.isBlank()) {
+      log.info("No hub.security.token.secret set, tokens are signed with a key generated for this instance");
+      byte[] generated = new byte[32];
+      new SecureRandom().nextBytes(generated);
+      return generated;
+    }
+    byte[] decoded = Base64.getDecoder().decode(secret.trim());
+    if (decoded.length < 32) {
+      throw new IllegalArgumentException("hub.security.token.secret must be at least 256 bits");
+    }
+    return decoded;
+  }
+}
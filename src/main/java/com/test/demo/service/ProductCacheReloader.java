@@ -0,0 +1,30 @@
+package com.test.demo.service;
+
+import com.test.demo.cache.CacheReloader;
+import com.test.demo.exception.ProductNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refresh-ahead source for the {@code products} cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCacheReloader implements CacheReloader {
+
+  private final ProductService productService;
+
+  @Override
+  public String cacheName() {
+    return "products";
+  }
+
+  @Override
+  public Object reload(Object key) {
+    try {
+      return productService.loadProduct((String) key);
+    } catch (ProductNotFoundException e) {
+      return null;
+    }
+  }
+}
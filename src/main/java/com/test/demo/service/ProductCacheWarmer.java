@@ -0,0 +1,210 @@
+package com.test.demo.service;
+
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.cache.AccessSnapshot;
+import com.test.demo.cache.AccessSnapshot.PageCount;
+import com.test.demo.cache.AccessSnapshot.ProductCount;
+import com.test.demo.cache.AccessSnapshotStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms the {@code products} and {@code paginatedProducts} caches before the application reports ready, with the
+ * products and listing pages that were hottest when the previous run last saved its {@link AccessSnapshot}.
+ * <p>
+ * Products are fetched {@code hub.products.lookup.max-ids} at a time with one {@code $in} query each, pages one by one,
+ * on {@code hub.cache.warmup.parallelism} threads, hottest first. Whatever is not done within
+ * {@code hub.cache.warmup.budget} is cancelled, so a slow database delays readiness by the budget at most, and the rest
+ * is loaded on demand as usual.
+ * <p>
+ * While running, the {@link AccessFrequencies} are saved every {@code hub.cache.warmup.snapshot-interval} and on
+ * shutdown, then decayed, so the snapshot follows the current working set.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.cache.warmup.enabled", havingValue = "true")
+public class ProductCacheWarmer implements ApplicationRunner, SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductCacheWarmer.class);
+
+  private final ProductService productService;
+
+  private final AccessFrequencies accessFrequencies;
+
+  private final AccessSnapshotStore snapshotStore;
+
+  private final int topProducts;
+
+  private final int topPages;
+
+  private final int parallelism;
+
+  private final Duration budget;
+
+  private final Duration snapshotInterval;
+
+  private final int maxLookupIds;
+
+  private AccessSnapshot saved = AccessSnapshot.EMPTY;
+
+  private ScheduledExecutorService scheduler;
+
+  public ProductCacheWarmer(ProductService productService, AccessFrequencies accessFrequencies,
+                            AccessSnapshotStore snapshotStore,
+                            @Value("${hub.cache.warmup.top-products}") int topProducts,
+                            @Value("${hub.cache.warmup.top-pages}") int topPages,
+                            @Value("${hub.cache.warmup.parallelism}") int parallelism,
+                            @Value("${hub.cache.warmup.budget}") Duration budget,
+                            @Value("${hub.cache.warmup.snapshot-interval}") Duration snapshotInterval,
+                            @Value("${hub.products.lookup.max-ids}") int maxLookupIds) {
+    this.productService = productService;
+    this.accessFrequencies = accessFrequencies;
+    this.snapshotStore = snapshotStore;
+    this.topProducts = topProducts;
+    this.topPages = topPages;
+    this.parallelism = parallelism;
+    this.budget = budget;
+    this.snapshotInterval = snapshotInterval;
+    this.maxLookupIds = maxLookupIds;
+  }
+
+  /**
+   * Loads the saved snapshot and carries its counts over before any request is counted or snapshot written.
+   */
+  @Override
+  public synchronized void start() {
+    saved = snapshotStore.load();
+    accessFrequencies.seed(saved);
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "cache-access-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, snapshotInterval.toMillis(),
+        snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = scheduler;
+      scheduler = null;
+    }
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    try {
+      current.awaitTermination(snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    snapshot();
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    warm(saved);
+  }
+
+  /**
+   * Loads the snapshot's pages and products into the caches, within the budget.
+   *
+   * @return the number of loads that completed
+   */
+  public int warm(AccessSnapshot snapshot) {
+    List<Callable<Void>> loads = loads(snapshot);
+    if (loads.isEmpty()) {
+      return 0;
+    }
+    long started = System.nanoTime();
+    AtomicInteger threads = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, loads.size()), runnable -> {
+      Thread thread = new Thread(runnable, "cache-warmup-" + threads.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    int completed = 0;
+    int cancelled = 0;
+    int failed = 0;
+    try {
+      for (Future<Void> load : executor.invokeAll(loads, budget.toNanos(), TimeUnit.NANOSECONDS)) {
+        try {
+          load.get();
+          completed++;
+        } catch (CancellationException e) {
+          cancelled++;
+        } catch (ExecutionException e) {
+          failed++;
+          log.debug("Cache warm-up load failed", e.getCause());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+    log.info("Warmed caches with {} products and {} pages in {} ms: {} of {} loads completed, {} cut off by the "
+            + "budget, {} failed", snapshot.products().size(), snapshot.pages().size(),
+        (System.nanoTime() - started) / 1_000_000, completed, loads.size(), cancelled, failed);
+    return completed;
+  }
+
+  /**
+   * The first pages, which are few and shared by most clients, then the products in chunks, hottest first.
+   */
+  private List<Callable<Void>> loads(AccessSnapshot snapshot) {
+    List<Callable<Void>> loads = new ArrayList<>();
+    for (PageCount page : snapshot.pages()) {
+      loads.add(() -> {
+        productService.getAllProducts(page.page(), page.size());
+        return null;
+      });
+    }
+    List<String> ids = snapshot.products().stream().map(ProductCount::id).toList();
+    for (int from = 0; from < ids.size(); from += maxLookupIds) {
+      List<String> chunk = ids.subList(from, Math.min(from + maxLookupIds, ids.size()));
+      loads.add(() -> {
+        productService.lookupProducts(chunk);
+        return null;
+      });
+    }
+    return loads;
+  }
+
+  private void scheduledSnapshot() {
+    try {
+      snapshot();
+    } catch (RuntimeException e) {
+      log.warn("Could not save the cache access snapshot", e);
+    }
+  }
+
+  private void snapshot() {
+    snapshotStore.save(accessFrequencies.snapshot(topProducts, topPages));
+    accessFrequencies.decay();
+  }
+}
@@ -0,0 +1,61 @@
+package com.test.demo.service;
+
+import com.test.demo.model.dto.ProductSortKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Turns a keyset scroll position into an opaque, URL safe continuation token and back. The token carries the sort
+ * it was issued for plus the sort key values as extended JSON, so dates and object ids keep their BSON types.
+ * <p>
+ * The keys are whatever Spring Data put in the position: the sort property and the tie-breaking {@code id}, under
+ * their property names. A decoded cursor must carry exactly those, since every key ends up in the query.
+ */
+final class ProductCursorCodec {
+
+  private static final String ID_KEY = "id";
+
+  private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+      .outputMode(JsonMode.EXTENDED)
+      .build();
+
+  private ProductCursorCodec() {
+  }
+
+  static String encode(ProductSortKey sortKey, Sort.Direction direction, KeysetScrollPosition position) {
+    Document token = new Document("sort", sortKey.property())
+        .append("direction", direction.name())
+        .append("keys", new Document(position.getKeys()));
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(token.toJson(JSON_SETTINGS).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static ScrollPosition decode(String cursor, ProductSortKey sortKey, Sort.Direction direction) {
+    if (cursor == null || cursor.isBlank()) {
+      return ScrollPosition.keyset();
+    }
+
+    Document token;
+    try {
+      token = Document.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException | JsonParseException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    if (!sortKey.property().equals(token.get("sort")) || !direction.name().equals(token.get("direction"))) {
+      throw new IllegalArgumentException("Cursor was issued for a different sort");
+    }
+    if (!(token.get("keys") instanceof Document keys) || !keys.keySet().equals(Set.of(sortKey.property(), ID_KEY))) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    return ScrollPosition.forward(keys);
+  }
+}
@@ -0,0 +1,80 @@
+package com.test.demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.ProductRepository;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the catalogue as newline-delimited JSON straight from a Mongo cursor. Only the current cursor batch is held
+ * in memory, and the next document is pulled only once the previous one has been written, so a slow client slows
+ * down the cursor instead of filling the heap.
+ */
+@Service
+public class ProductExportService {
+
+  private final ProductRepository productRepository;
+
+  private final ProductMapper productMapper;
+
+  private final ObjectMapper objectMapper;
+
+  private final ObjectWriter productWriter;
+
+  private final int flushEvery;
+
+  public ProductExportService(ProductRepository productRepository, ProductMapper productMapper,
+                              ObjectMapper objectMapper, @Value("${hub.products.export.flush-every}") int flushEvery) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.objectMapper = objectMapper;
+    this.productWriter = objectMapper.writerFor(ProductDTO.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.flushEvery = flushEvery;
+  }
+
+  /**
+   * @param modifiedSince only export products created or modified at or after this time; {@code null} exports all
+   * @param gzip          compress the stream
+   * @return the number of exported products
+   */
+  public long exportProducts(LocalDateTime modifiedSince, boolean gzip, OutputStream out) throws IOException {
+    OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+    long exported = 0;
+
+    try (Stream<Product> products = modifiedSince == null
+        ? productRepository.streamAllBy()
+        : productRepository.streamModifiedSince(modifiedSince);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      Iterator<Product> iterator = products.iterator();
+      while (iterator.hasNext()) {
+        productWriter.writeValue(generator, productMapper.toDto(iterator.next()));
+        generator.writeRaw('\n');
+        if (++exported % flushEvery == 0) {
+          generator.flush();
+        }
+      }
+    }
+
+    if (target instanceof GZIPOutputStream gzipOutputStream) {
+      gzipOutputStream.finish();
+    }
+    target.flush();
+    return exported;
+  }
+}
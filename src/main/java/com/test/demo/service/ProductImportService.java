@@ -0,0 +1,229 @@
+package com.test.demo.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.BatchItemResult;
+import com.test.demo.model.dto.BatchItemResult.Status;
+import com.test.demo.model.dto.BatchResult;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BulkUpsertResult;
+import com.test.demo.repository.ProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Creates or updates products in bulk from a JSON array or an NDJSON stream. Items are validated one by one against
+ * the {@link ProductDTO} constraints and written in unordered bulk upserts of {@code hub.products.batch.chunk-size}
+ * items, so only one chunk is held in memory. Caches are invalidated once, after the whole batch, including when it
+ * fails part way through after some chunks were written.
+ */
+@Service
+public class ProductImportService {
+
+  private final ProductRepository productRepository;
+
+  private final ProductMapper productMapper;
+
+  private final ProductPageCache productPageCache;
+
+  private final Cache productCache;
+
+  private final MissingProductCache missingProducts;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  private final ObjectReader productReader;
+
+  private final Validator validator;
+
+  private final int chunkSize;
+
+  public ProductImportService(ProductRepository productRepository, ProductMapper productMapper,
+                              ProductPageCache productPageCache, CacheManager cacheManager,
+                              ProductSearchIndex productSearchIndex, ObjectMapper objectMapper, Validator validator,
+                              @Value("${hub.products.batch.chunk-size}") int chunkSize,
+                              MissingProductCache missingProducts) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.productPageCache = productPageCache;
+    this.productCache = cacheManager.getCache("products");
+    this.productSearchIndex = productSearchIndex;
+    this.productReader = objectMapper.readerFor(ProductDTO.class);
+    this.validator = validator;
+    this.chunkSize = chunkSize;
+    this.missingProducts = missingProducts;
+  }
+
+  public BatchResult importProducts(InputStream body, MediaType contentType) throws IOException {
+    Batch batch = new Batch();
+    try {
+      if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+        readNdjson(body, batch);
+      } else {
+        readJsonArray(body, batch);
+      }
+      batch.flush();
+    } finally {
+      batch.invalidateCaches();
+    }
+    return batch.result();
+  }
+
+  /**
+   * Walks the array rather than using {@code readValues}, whose iterator fails the whole body on a {@code null} item.
+   */
+  private void readJsonArray(InputStream body, Batch batch) throws IOException {
+    try (JsonParser parser = productReader.createParser(body)) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        token = parser.nextToken();
+      }
+      while (token != null && token != JsonToken.END_ARRAY) {
+        batch.add(productReader.readValue(parser));
+        token = parser.nextToken();
+      }
+    }
+  }
+
+  private void readNdjson(InputStream body, Batch batch) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        batch.add(productReader.readValue(line));
+      } catch (JsonProcessingException e) {
+        batch.reject(null, Map.of("item", "Malformed JSON: " + e.getOriginalMessage()));
+      }
+    }
+  }
+
+  private class Batch {
+
+    private final List<BatchItemResult> results = new ArrayList<>();
+    private final List<Product> chunk = new ArrayList<>(chunkSize);
+    private final List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+    private final List<String> updatedIds = new ArrayList<>();
+    // Ids of a chunk whose bulk write threw, any of which may have been written
+    private final List<String> unconfirmedIds = new ArrayList<>();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private int index;
+    private int created;
+    private int updated;
+    private int failed;
+
+    void add(ProductDTO productDTO) {
+      if (productDTO == null) {
+        reject(null, Map.of("item", "must not be null"));
+        return;
+      }
+      Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+      if (!violations.isEmpty()) {
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        reject(productDTO.id(), errors);
+        return;
+      }
+
+      Product product = productMapper.toEntity(productDTO);
+      if (product.getId() == null) {
+        product.setId(new ObjectId().toHexString());
+      }
+      product.setCreatedDate(startedAt);
+      product.setLastModifiedDate(startedAt);
+      chunk.add(product);
+      chunkIndexes.add(index++);
+      results.add(null);
+      if (chunk.size() == chunkSize) {
+        flush();
+      }
+    }
+
+    void reject(String id, Object errors) {
+      results.add(new BatchItemResult(index++, id, Status.INVALID, errors));
+      failed++;
+    }
+
+    void flush() {
+      if (chunk.isEmpty()) {
+        return;
+      }
+      BulkUpsertResult written;
+      try {
+        written = productRepository.bulkUpsert(chunk);
+      } catch (RuntimeException e) {
+        chunk.forEach(product -> unconfirmedIds.add(product.getId()));
+        throw e;
+      }
+      List<String> writtenIds = new ArrayList<>(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        String id = chunk.get(i).getId();
+        BatchItemResult result;
+        if (written.failed().containsKey(i)) {
+          result = new BatchItemResult(chunkIndexes.get(i), id, Status.FAILED, written.failed().get(i));
+          failed++;
+        } else if (written.inserted().contains(i)) {
+          result = new BatchItemResult(chunkIndexes.get(i), id, Status.CREATED, null);
+          created++;
+        } else {
+          result = new BatchItemResult(chunkIndexes.get(i), id, Status.UPDATED, null);
+          updatedIds.add(id);
+          updated++;
+        }
+        if (result.status() != Status.FAILED) {
+          writtenIds.add(id);
+          missingProducts.forget(id);
+        }
+        results.set(chunkIndexes.get(i), result);
+      }
+      // Read back rather than index the input, so the search index holds the stored versions
+      if (!writtenIds.isEmpty()) {
+        productRepository.findAllById(writtenIds).forEach(product -> productSearchIndex.put(productMapper.toDto(product)));
+      }
+      chunk.clear();
+      chunkIndexes.clear();
+    }
+
+    void invalidateCaches() {
+      updatedIds.forEach(productCache::evict);
+      unconfirmedIds.forEach(id -> {
+        productCache.evict(id);
+        missingProducts.forget(id);
+      });
+      if (created > 0 || updated > 0 || !unconfirmedIds.isEmpty()) {
+        productPageCache.clear();
+      }
+    }
+
+    BatchResult result() {
+      return new BatchResult(created, updated, failed, results);
+    }
+  }
+}
@@ -1,90 +1,358 @@
 package com.test.demo.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.cache.SingleFlight;
+import com.test.demo.exception.ProductConflictException;
 import com.test.demo.exception.ProductNotFoundException;
 import com.test.demo.model.Product;
+import com.test.demo.model.dto.CursorPage;
 import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BufferedProductUpdate;
 import com.test.demo.repository.ProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import com.test.demo.writebehind.ProductWriteBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ProductService {
   private final ProductRepository productRepository;
 
-  private final ObjectMapper objectMapper;
+  private final ProductPageCache productPageCache;
 
-  public ProductService(ProductRepository productRepository) {
+  private final SingleFlight<String, ProductDTO> productLoads;
+
+  private final ProductMapper productMapper;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  private final int maxSearchResults;
+
+  private final Cache productCache;
+
+  private final int maxLookupIds;
+
+  private final ProductWriteBuffer writeBuffer;
+
+  private final MissingProductCache missingProducts;
+
+  private final int maxPageSize;
+
+  public ProductService(ProductRepository productRepository, ProductPageCache productPageCache,
+                        ProductMapper productMapper, ProductSearchIndex productSearchIndex,
+                        MeterRegistry meterRegistry, @Value("${hub.search.max-results}") int maxSearchResults,
+                        CacheManager cacheManager, @Value("${hub.products.lookup.max-ids}") int maxLookupIds,
+                        ObjectProvider<ProductWriteBuffer> writeBuffer, MissingProductCache missingProducts,
+                        @Value("${hub.products.page.max-size}") int maxPageSize) {
     this.productRepository = productRepository;
-    this.objectMapper = new ObjectMapper();
-    objectMapper.registerModule(new JavaTimeModule());
-    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    this.productPageCache = productPageCache;
+    this.productMapper = productMapper;
+    this.productSearchIndex = productSearchIndex;
+    this.maxSearchResults = maxSearchResults;
+    this.productLoads = new SingleFlight<>("products", meterRegistry);
+    this.productCache = cacheManager.getCache("products");
+    if (productCache == null) {
+      throw new IllegalStateException("Cache 'products' is not configured");
+    }
+    this.maxLookupIds = maxLookupIds;
+    this.writeBuffer = writeBuffer.getIfAvailable();
+    this.missingProducts = missingProducts;
+    this.maxPageSize = maxPageSize;
   }
 
-  @Caching(evict = {
-      @CacheEvict(value = "products", allEntries = true),
-      @CacheEvict(value = "paginatedProducts", allEntries = true)
-  })
+  @CacheEvict(value = "products", key = "#result.id()", condition = "#result.id() != null")
   public ProductDTO createProduct(ProductDTO productDTO) {
-    Product product = objectMapper.convertValue(productDTO, Product.class);
+    Product product = productMapper.toEntity(productDTO);
     product.setCreatedDate(LocalDateTime.now());
-    return objectMapper.convertValue(productRepository.save(product), ProductDTO.class);
+    product.setLastModifiedDate(product.getCreatedDate());
+    product.setVersion(0L);
+    ProductDTO created = productMapper.toDto(productRepository.save(product));
+    missingProducts.forget(created.id());
+    productPageCache.productInserted(created.id());
+    productSearchIndex.put(created);
+    return created;
   }
 
+  /**
+   * Sets the price with a single atomic {@code findAndModify}; no read-modify-write round trip. With write-behind
+   * enabled an unconditional update is buffered instead.
+   *
+   * @param expectedVersion reject the update with a conflict unless the stored version matches; {@code null} applies
+   *                        it unconditionally
+   */
   @CachePut(value = "products", key = "#id")
-  @CacheEvict(value = "paginatedProducts", allEntries = true)
-  @Transactional
-  public ProductDTO updateProductPrice(String id, Double price) {
-    Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
-    product.setPrice(price);
-    return objectMapper.convertValue(productRepository.save(product), ProductDTO.class);
+  public ProductDTO updateProductPrice(String id, Double price, Long expectedVersion) {
+    if (writeBuffer != null && expectedVersion == null && price != null) {
+      return buffered(id, new BufferedProductUpdate(price, 0));
+    }
+    flushBuffered(id);
+    Product product = productRepository.updatePrice(id, price, expectedVersion);
+    return updated(id, product, expectedVersion);
   }
 
+  /**
+   * Replaces name, stock and price atomically. The DTO's {@code version}, when present, is the version the client
+   * read, and the update is rejected with a conflict if the product has changed since.
+   */
   @CachePut(value = "products", key = "#id")
-  @CacheEvict(value = "paginatedProducts", allEntries = true)
-  @Transactional
   public ProductDTO updateProduct(String id, ProductDTO productDTO) {
-    Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
-    product.setName(productDTO.name());
-    product.setStock(productDTO.stock());
-    product.setPrice(productDTO.price());
-    return objectMapper.convertValue(productRepository.save(product), ProductDTO.class);
+    flushBuffered(id);
+    Product product = productRepository.updateDetails(id, productDTO.name(), productDTO.stock(), productDTO.price(),
+        productDTO.version());
+    return updated(id, product, productDTO.version());
+  }
+
+  /**
+   * Adds {@code delta} (possibly negative) to the stock atomically. A decrement larger than the current stock is
+   * rejected with a conflict instead of going below zero. With write-behind enabled an unconditional increment is
+   * buffered instead; decrements stay synchronous, since only the database can tell whether the stock covers them.
+   */
+  @CachePut(value = "products", key = "#id")
+  public ProductDTO adjustStock(String id, int delta, Long expectedVersion) {
+    if (writeBuffer != null && expectedVersion == null && delta >= 0) {
+      return buffered(id, new BufferedProductUpdate(null, delta));
+    }
+    flushBuffered(id);
+    Product product = productRepository.adjustStock(id, delta, expectedVersion);
+    if (product == null && delta < 0) {
+      Product current = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+      checkVersion(current, expectedVersion);
+      throw new ProductConflictException("Insufficient stock for product " + id + ": cannot remove " + -delta
+          + " from " + current.getStock());
+    }
+    return updated(id, product, expectedVersion);
+  }
+
+  /**
+   * Buffers an update and answers with the product as it will be once written, which the {@code products} cache then
+   * serves until the flush replaces it.
+   */
+  private ProductDTO buffered(String id, BufferedProductUpdate update) {
+    return writeBuffer.add(id, update, () -> find(id));
+  }
+
+  /**
+   * Writes the buffered updates before a synchronous write to the same product, so they are not applied after it.
+   */
+  private void flushBuffered(String id) {
+    if (writeBuffer != null && writeBuffer.isPending(id)) {
+      writeBuffer.flush();
+    }
+  }
+
+  /**
+   * Maps the result of a conditional update, working out why it did not apply when no document came back.
+   */
+  private ProductDTO updated(String id, Product product, Long expectedVersion) {
+    if (product == null) {
+      Product current = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+      checkVersion(current, expectedVersion);
+      throw new ProductConflictException("Product " + id + " was modified concurrently");
+    }
+    ProductDTO updated = productMapper.toDto(product);
+    productPageCache.productUpdated(updated);
+    productSearchIndex.put(updated);
+    return updated;
+  }
+
+  private static void checkVersion(Product current, Long expectedVersion) {
+    if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+      throw new ProductConflictException("Product " + current.getId() + " is at version " + current.getVersion()
+          + ", expected " + expectedVersion);
+    }
   }
 
-  @Caching(evict = {
-    @CacheEvict(value = "products", key = "#id"),
-    @CacheEvict(value = "paginatedProducts", allEntries = true)
-  })
+  @CacheEvict(value = "products", key = "#id")
   public void deleteProduct(String id) {
+    flushBuffered(id);
     productRepository.deleteById(id);
+    productPageCache.productDeleted(id);
+    productSearchIndex.remove(id);
   }
 
+  /**
+   * An id found missing before is answered from the {@link MissingProductCache} without querying again.
+   */
   @Cacheable(value = "products", key = "#id")
   public ProductDTO getProductById(String id) {
+    ProductNotFoundException missing = missingProducts.get(id);
+    if (missing != null) {
+      throw missing;
+    }
+    try {
+      return productLoads.execute(id, () -> loadProduct(id));
+    } catch (ProductNotFoundException e) {
+      missingProducts.put(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Reads a product straight from the repository, bypassing the {@code products} cache. Updates still in the
+   * write-behind buffer are applied.
+   */
+  public ProductDTO loadProduct(String id) {
+    if (writeBuffer == null) {
+      return find(id);
+    }
+    return writeBuffer.read(() -> writeBuffer.applyPending(find(id)));
+  }
+
+  private ProductDTO find(String id) {
     Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
-    return objectMapper.convertValue(product, ProductDTO.class);
+    return productMapper.toDto(product);
+  }
+
+  /**
+   * Resolves many products in one go: cached ones from the {@code products} cache, all others with a single
+   * {@code $in} query whose results are cached in turn. A product cached meanwhile by a write is not overwritten.
+   * Ids known to be missing are not queried, and those the query does not find are remembered as missing. Duplicate
+   * ids are resolved once.
+   */
+  public ProductLookup lookupProducts(List<String> ids) {
+    if (ids.size() > maxLookupIds) {
+      throw new IllegalArgumentException("At most " + maxLookupIds + " ids can be looked up at once");
+    }
+    if (ids.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Ids must not be null");
+    }
+    Map<String, ProductDTO> resolved = new LinkedHashMap<>();
+    List<String> misses = new ArrayList<>();
+    for (String id : ids) {
+      if (!resolved.containsKey(id)) {
+        ProductDTO cached = productCache.get(id, ProductDTO.class);
+        resolved.put(id, cached);
+        if (cached == null && missingProducts.get(id) == null) {
+          misses.add(id);
+        }
+      }
+    }
+    if (!misses.isEmpty()) {
+      for (ProductDTO loaded : findAll(misses)) {
+        resolved.put(loaded.id(), loaded);
+        productCache.putIfAbsent(loaded.id(), loaded);
+      }
+      for (String id : misses) {
+        if (resolved.get(id) == null) {
+          missingProducts.put(new ProductNotFoundException(id));
+        }
+      }
+    }
+
+    List<ProductDTO> products = new ArrayList<>(resolved.size());
+    List<String> missing = new ArrayList<>();
+    resolved.forEach((id, product) -> {
+      if (product == null) {
+        missing.add(id);
+      } else {
+        products.add(product);
+      }
+    });
+    return new ProductLookup(products, missing);
+  }
+
+  private List<ProductDTO> findAll(List<String> ids) {
+    if (writeBuffer == null) {
+      return productRepository.findAllById(ids).stream().map(productMapper::toDto).toList();
+    }
+    return writeBuffer.read(() -> productRepository.findAllById(ids).stream()
+        .map(productMapper::toDto)
+        .map(writeBuffer::applyPending)
+        .toList());
   }
 
-  @Cacheable(value = "paginatedProducts")
   public Page<ProductDTO> getAllProducts(int page, int size) {
-    Pageable pageable = PageRequest.of(page, size);
+    checkPageSize(size);
+    return productPageCache.getPage(page, size, this::loadPage, productRepository::count);
+  }
+
+  /**
+   * Products whose names match {@code query}, best first, answered from the in-memory {@link ProductSearchIndex}.
+   */
+  public List<ProductDTO> searchProducts(String query, int limit) {
+    if (limit < 1 || limit > maxSearchResults) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + maxSearchResults);
+    }
+    return productSearchIndex.search(query, limit);
+  }
+
+  /**
+   * A filtered and sorted listing. Not cached: the combinations are too many to hit twice. Sorting on the
+   * {@code (sortKey, _id)} index keeps the order stable between pages and lets Mongo stream the page instead of
+   * sorting the matches in memory.
+   */
+  public Page<ProductDTO> findProducts(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                       int page, int size) {
+    checkPageSize(size);
+    PageRequest pageable = PageRequest.of(page, size, Sort.by(direction, sortKey.property(), "id"));
+    return productRepository.findFiltered(filter, pageable).map(productMapper::toDto);
+  }
+
+  /**
+   * Keyset pagination: seeks on the {@code (sortKey, _id)} index instead of skipping, so every page costs the same
+   * no matter how deep it is. The total is only computed when asked for and comes from the tracked listing count.
+   */
+  public CursorPage<ProductDTO> getProductsByCursor(String cursor, int size, ProductSortKey sortKey,
+                                                    Sort.Direction direction, boolean includeTotal) {
+    checkPageSize(size);
+    ScrollPosition position = ProductCursorCodec.decode(cursor, sortKey, direction);
+    Window<Product> window = productRepository.findAllBy(position, Sort.by(direction, sortKey.property(), "id"),
+        Limit.of(size));
+
+    List<ProductDTO> productDTOS = window.stream()
+        .map(productMapper::toDto)
+        .collect(Collectors.toList());
+    String nextCursor = window.hasNext() && !window.isEmpty()
+        ? ProductCursorCodec.encode(sortKey, direction, (KeysetScrollPosition) window.positionAt(window.size() - 1))
+        : null;
+    Long totalElements = includeTotal ? productPageCache.totalCount(productRepository::count) : null;
+
+    return new CursorPage<>(productDTOS, nextCursor, window.hasNext(), totalElements);
+  }
+
+  /**
+   * Listings are capped at {@code hub.products.page.max-size}, so no single request can ask Mongo for an unbounded
+   * page.
+   */
+  private void checkPageSize(int size) {
+    if (size < 1 || size > maxPageSize) {
+      throw new IllegalArgumentException("Size must be between 1 and " + maxPageSize);
+    }
+  }
+
+  private Page<ProductDTO> loadPage(Pageable pageable) {
     Page<Product> productPage = productRepository.findAll(pageable);
 
     List<ProductDTO> productDTOS = productPage.stream()
-        .map(product -> objectMapper.convertValue(product, ProductDTO.class))
+        .map(productMapper::toDto)
         .collect(Collectors.toList());
 
     return new PageImpl<>(productDTOS, pageable, productPage.getTotalElements());
@@ -0,0 +1,330 @@
+package com.test.demo.service;
+
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.exception.ProductConflictException;
+import com.test.demo.exception.ProductNotFoundException;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.CursorPage;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.ReactiveProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ProductService} for the {@code reactive} profile.
+ * <p>
+ * Works cache-aside on the same {@code products} cache: reads are served from it when present and populate it on a
+ * miss, concurrent misses for the same id share one query, writes put the updated product and deletes evict it. Ids
+ * found missing are remembered in the {@link MissingProductCache}. The unfiltered listing shares the
+ * {@link ProductPageCache} with the blocking service, but loads its misses reactively. All of these caches are in
+ * memory, so touching them never blocks. Writes also update the page cache and the {@link ProductSearchIndex}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService {
+
+  private final ReactiveProductRepository productRepository;
+
+  private final ProductMapper productMapper;
+
+  private final Cache productCache;
+
+  private final ProductPageCache productPageCache;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  private final int maxSearchResults;
+
+  private final int maxLookupIds;
+
+  private final MissingProductCache missingProducts;
+
+  private final int maxPageSize;
+
+  private final Map<String, Mono<ProductDTO>> productLoads = new ConcurrentHashMap<>();
+
+  public ReactiveProductService(ReactiveProductRepository productRepository, ProductMapper productMapper,
+                                CacheManager cacheManager, ProductSearchIndex productSearchIndex,
+                                @Value("${hub.search.max-results}") int maxSearchResults,
+                                @Value("${hub.products.lookup.max-ids}") int maxLookupIds,
+                                MissingProductCache missingProducts,
+                                @Value("${hub.products.page.max-size}") int maxPageSize,
+                                ProductPageCache productPageCache) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.productSearchIndex = productSearchIndex;
+    this.maxSearchResults = maxSearchResults;
+    this.maxLookupIds = maxLookupIds;
+    this.missingProducts = missingProducts;
+    this.maxPageSize = maxPageSize;
+    this.productPageCache = productPageCache;
+    this.productCache = cacheManager.getCache("products");
+    if (productCache == null) {
+      throw new IllegalStateException("Cache 'products' is not configured");
+    }
+  }
+
+  public Mono<ProductDTO> createProduct(ProductDTO productDTO) {
+    return Mono.defer(() -> {
+      Product product = productMapper.toEntity(productDTO);
+      product.setCreatedDate(LocalDateTime.now());
+      product.setLastModifiedDate(product.getCreatedDate());
+      product.setVersion(0L);
+      return productRepository.save(product);
+    }).map(productMapper::toDto).doOnNext(created -> {
+      missingProducts.forget(created.id());
+      productCache.evict(created.id());
+      productPageCache.productInserted(created.id());
+      productSearchIndex.put(created);
+    });
+  }
+
+  public Mono<ProductDTO> updateProductPrice(String id, Double price, Long expectedVersion) {
+    return updated(id, productRepository.updatePrice(id, price, expectedVersion), expectedVersion);
+  }
+
+  public Mono<ProductDTO> updateProduct(String id, ProductDTO productDTO) {
+    return updated(id, productRepository.updateDetails(id, productDTO.name(), productDTO.stock(), productDTO.price(),
+        productDTO.version()), productDTO.version());
+  }
+
+  public Mono<ProductDTO> adjustStock(String id, int delta, Long expectedVersion) {
+    Mono<Product> adjusted = productRepository.adjustStock(id, delta, expectedVersion);
+    if (delta >= 0) {
+      return updated(id, adjusted, expectedVersion);
+    }
+    return adjusted.map(productMapper::toDto)
+        .doOnNext(this::cacheUpdated)
+        .switchIfEmpty(Mono.defer(() -> current(id, expectedVersion)
+            .flatMap(current -> Mono.error(new ProductConflictException("Insufficient stock for product " + id
+                + ": cannot remove " + -delta + " from " + current.getStock())))));
+  }
+
+  public Mono<Void> deleteProduct(String id) {
+    return productRepository.deleteById(id).doOnSuccess(ignored -> {
+      productCache.evict(id);
+      productPageCache.productDeleted(id);
+      productSearchIndex.remove(id);
+    });
+  }
+
+  public Mono<ProductDTO> getProductById(String id) {
+    return Mono.defer(() -> {
+      ProductDTO cached = productCache.get(id, ProductDTO.class);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      ProductNotFoundException missing = missingProducts.get(id);
+      if (missing != null) {
+        return Mono.error(missing);
+      }
+      return productLoads.computeIfAbsent(id, key -> productRepository.findById(key)
+          .map(productMapper::toDto)
+          .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(key)))
+          .doOnNext(loaded -> productCache.put(key, loaded))
+          .doOnError(ProductNotFoundException.class, missingProducts::put)
+          .doFinally(signal -> productLoads.remove(key))
+          .cache());
+    });
+  }
+
+  /**
+   * See {@link ProductService#lookupProducts}.
+   */
+  public Mono<ProductLookup> lookupProducts(List<String> ids) {
+    return Mono.defer(() -> {
+      if (ids.size() > maxLookupIds) {
+        return Mono.error(new IllegalArgumentException("At most " + maxLookupIds + " ids can be looked up at once"));
+      }
+      if (ids.stream().anyMatch(Objects::isNull)) {
+        return Mono.error(new IllegalArgumentException("Ids must not be null"));
+      }
+      Map<String, ProductDTO> resolved = new LinkedHashMap<>();
+      List<String> misses = new ArrayList<>();
+      for (String id : ids) {
+        if (!resolved.containsKey(id)) {
+          ProductDTO cached = productCache.get(id, ProductDTO.class);
+          resolved.put(id, cached);
+          if (cached == null && missingProducts.get(id) == null) {
+            misses.add(id);
+          }
+        }
+      }
+      Flux<ProductDTO> loads = misses.isEmpty() ? Flux.empty() : productRepository.findAllById(misses)
+          .map(productMapper::toDto)
+          .doOnNext(loaded -> productCache.putIfAbsent(loaded.id(), loaded));
+      return loads.doOnNext(loaded -> resolved.put(loaded.id(), loaded))
+          .then(Mono.fromSupplier(() -> {
+            for (String id : misses) {
+              if (resolved.get(id) == null) {
+                missingProducts.put(new ProductNotFoundException(id));
+              }
+            }
+            List<ProductDTO> products = new ArrayList<>(resolved.size());
+            List<String> missing = new ArrayList<>();
+            resolved.forEach((id, product) -> {
+              if (product == null) {
+                missing.add(id);
+              } else {
+                products.add(product);
+              }
+            });
+            return new ProductLookup(products, missing);
+          }));
+    });
+  }
+
+  /**
+   * Served from the {@link ProductPageCache} when the page and the total are cached; otherwise both are queried and
+   * the result is cached unless a write happened meanwhile.
+   */
+  public Mono<Page<ProductDTO>> getAllProducts(int page, int size) {
+    return Mono.defer(() -> {
+      PageRequest pageable = pageable(null, Sort.Direction.ASC, page, size);
+      Page<ProductDTO> cached = productPageCache.cachedPage(page, size);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      long generation = productPageCache.currentGeneration();
+      Mono<Page<ProductDTO>> loaded = streamProducts(ProductFilter.NONE, null, Sort.Direction.ASC, page, size)
+          .collectList()
+          .zipWith(productRepository.count(), (content, total) -> new PageImpl<>(content, pageable, total));
+      return loaded.doOnNext(loadedPage -> productPageCache.pageLoaded(page, size, loadedPage, generation));
+    });
+  }
+
+  /**
+   * See {@link ProductService#searchProducts}; the index is in memory, so this never waits.
+   */
+  public List<ProductDTO> searchProducts(String query, int limit) {
+    if (limit < 1 || limit > maxSearchResults) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + maxSearchResults);
+    }
+    return productSearchIndex.search(query, limit);
+  }
+
+  /**
+   * See {@link ProductService#findProducts}.
+   */
+  public Mono<Page<ProductDTO>> findProducts(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                             int page, int size) {
+    return Mono.defer(() -> {
+      PageRequest pageable = pageable(sortKey, direction, page, size);
+      return productRepository.findFiltered(filter, pageable).map(productMapper::toDto).collectList()
+          .zipWith(productRepository.countFiltered(filter),
+              (content, total) -> new PageImpl<>(content, pageable, total));
+    });
+  }
+
+  /**
+   * One listing page as a stream, without the total count. A {@code null} sort key keeps the natural order.
+   */
+  public Flux<ProductDTO> streamProducts(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction,
+                                         int page, int size) {
+    return Flux.defer(() -> productRepository.findFiltered(filter, pageable(sortKey, direction, page, size)))
+        .map(productMapper::toDto);
+  }
+
+  /**
+   * See {@link ProductService#getProductsByCursor}.
+   */
+  public Mono<CursorPage<ProductDTO>> getProductsByCursor(String cursor, int size, ProductSortKey sortKey,
+                                                          Sort.Direction direction, boolean includeTotal) {
+    return Mono.defer(() -> {
+      checkPageSize(size);
+      ScrollPosition position = ProductCursorCodec.decode(cursor, sortKey, direction);
+      Mono<Long> total = includeTotal ? productRepository.count() : Mono.just(-1L);
+      return productRepository.findAllBy(position, Sort.by(direction, sortKey.property(), "id"), Limit.of(size))
+          .zipWith(total, (window, totalElements) -> new CursorPage<>(
+              window.stream().map(productMapper::toDto).toList(),
+              window.hasNext() && !window.isEmpty()
+                  ? ProductCursorCodec.encode(sortKey, direction,
+                      (KeysetScrollPosition) window.positionAt(window.size() - 1))
+                  : null,
+              window.hasNext(),
+              includeTotal ? totalElements : null));
+    });
+  }
+
+  /**
+   * Every product, or those created or modified at or after {@code modifiedSince}, as a stream that follows the
+   * subscriber's demand.
+   */
+  public Flux<ProductDTO> exportProducts(LocalDateTime modifiedSince) {
+    Flux<Product> products = modifiedSince == null
+        ? productRepository.findAll()
+        : productRepository.streamModifiedSince(modifiedSince);
+    return products.map(productMapper::toDto);
+  }
+
+  private void cacheUpdated(ProductDTO updated) {
+    productCache.put(updated.id(), updated);
+    productPageCache.productUpdated(updated);
+    productSearchIndex.put(updated);
+  }
+
+  private PageRequest pageable(ProductSortKey sortKey, Sort.Direction direction, int page, int size) {
+    checkPageSize(size);
+    return sortKey == null
+        ? PageRequest.of(page, size)
+        : PageRequest.of(page, size, Sort.by(direction, sortKey.property(), "id"));
+  }
+
+  /**
+   * See {@link ProductService}; called within {@code defer}, so a size out of range fails the publisher.
+   */
+  private void checkPageSize(int size) {
+    if (size < 1 || size > maxPageSize) {
+      throw new IllegalArgumentException("Size must be between 1 and " + maxPageSize);
+    }
+  }
+
+  /**
+   * See {@link ProductService}: an empty result from a conditional update means the product is missing or its
+   * version moved on.
+   */
+  private Mono<ProductDTO> updated(String id, Mono<Product> update, Long expectedVersion) {
+    return update.map(productMapper::toDto)
+        .doOnNext(this::cacheUpdated)
+        .switchIfEmpty(Mono.defer(() -> current(id, expectedVersion)
+            .flatMap(current -> Mono.error(new ProductConflictException("Product " + id
+                + " was modified concurrently")))));
+  }
+
+  /**
+   * The stored product, failing with not found or with a version conflict like the blocking service does.
+   */
+  private Mono<Product> current(String id, Long expectedVersion) {
+    return productRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)))
+        .flatMap(current -> expectedVersion != null && !expectedVersion.equals(current.getVersion())
+            ? Mono.error(new ProductConflictException("Product " + id + " is at version " + current.getVersion()
+                + ", expected " + expectedVersion))
+            : Mono.just(current));
+  }
+}
@@ -0,0 +1,412 @@
+package com.test.demo.writebehind;
+
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.exception.ServiceOverloadedException;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BufferedProductUpdate;
+import com.test.demo.repository.ProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import com.test.demo.writebehind.WriteBehindJournal.Segment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind for high-frequency price and stock updates ({@code hub.products.write-behind.enabled}). Updates are
+ * coalesced per product in memory, the latest price winning and stock deltas adding up, and written every
+ * {@code hub.products.write-behind.flush-interval} with one bulk write, however many updates arrived meanwhile.
+ * <p>
+ * An update is acknowledged once it is appended to the {@link WriteBehindJournal}; batches left in the journal by a
+ * crash are written on the next start, and the repository skips a batch a product has already seen. At most
+ * {@code hub.products.write-behind.max-pending} products are buffered: an update for one more waits up to
+ * {@code hub.products.write-behind.max-wait} for a flush to make room, then is rejected as overloaded.
+ * <p>
+ * Reads of single products see buffered updates: {@link #read} keeps a read from interleaving with a flush, so
+ * {@link #applyPending} neither misses an update nor applies one that was already written. After each flush the
+ * written products are re-read into the {@code products} cache, the cached pages and the search index. Products read
+ * elsewhere, such as from the change stream, go through {@link #overlay} so buffered updates are not lost from the
+ * cache when the echo of an earlier flush arrives.
+ */
+@Component
+@ConditionalOnProperty(name = "hub.products.write-behind.enabled", havingValue = "true")
+public class ProductWriteBuffer implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(ProductWriteBuffer.class);
+
+  private final ProductRepository productRepository;
+
+  private final ProductMapper productMapper;
+
+  private final Cache productCache;
+
+  private final ProductPageCache productPageCache;
+
+  private final ProductSearchIndex productSearchIndex;
+
+  private final WriteBehindJournal journal;
+
+  private final String writer;
+
+  private final int maxPending;
+
+  private final Duration maxWait;
+
+  private final Duration flushInterval;
+
+  /**
+   * Reads share it, a flush takes it exclusively while it writes.
+   */
+  private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+  private final Timer flushes;
+
+  private final Counter flushFailures;
+
+  private final Counter rejected;
+
+  private final Counter dropped;
+
+  // Guarded by this
+  private Map<String, BufferedProductUpdate> pending = new LinkedHashMap<>();
+
+  // Guarded by this: batches taken out of pending but not written yet, oldest first
+  private final Deque<Segment> unwritten = new ArrayDeque<>();
+
+  // Guarded by this: entries in pending and unwritten
+  private int buffered;
+
+  // Guarded by this: what reads see of each product with buffered updates, as stored plus those updates
+  private final Map<String, ProductDTO> views = new HashMap<>();
+
+  private ScheduledExecutorService scheduler;
+
+  public ProductWriteBuffer(ProductRepository productRepository, ProductMapper productMapper,
+                            CacheManager cacheManager, ProductPageCache productPageCache,
+                            ProductSearchIndex productSearchIndex,
+                            @Value("${hub.products.write-behind.journal-dir}") Path journalDirectory,
+                            @Value("${hub.products.write-behind.fsync}") boolean fsync,
+                            @Value("${hub.products.write-behind.writer-id}") String writer,
+                            @Value("${hub.products.write-behind.max-pending}") int maxPending,
+                            @Value("${hub.products.write-behind.max-wait}") Duration maxWait,
+                            @Value("${hub.products.write-behind.flush-interval}") Duration flushInterval,
+                            MeterRegistry meterRegistry) {
+    this.productRepository = productRepository;
+    this.productMapper = productMapper;
+    this.productCache = cacheManager.getCache("products");
+    if (productCache == null) {
+      throw new IllegalStateException("Cache 'products' is not configured");
+    }
+    // Becomes part of a field name in every product written, so it must not change with each pod or restart
+    if (!writer.matches("[A-Za-z0-9_-]+")) {
+      throw new IllegalStateException("hub.products.write-behind.writer-id must be set to a stable id of letters, "
+          + "digits, '_' and '-' when write-behind is enabled, was '" + writer + "'");
+    }
+    this.productPageCache = productPageCache;
+    this.productSearchIndex = productSearchIndex;
+    this.journal = new WriteBehindJournal(journalDirectory, fsync);
+    this.writer = writer;
+    this.maxPending = maxPending;
+    this.maxWait = maxWait;
+    this.flushInterval = flushInterval;
+    this.flushes = Timer.builder("hub.products.write-behind.flush")
+        .description("Bulk writes of buffered product updates")
+        .register(meterRegistry);
+    this.flushFailures = Counter.builder("hub.products.write-behind.flush.failures")
+        .description("Flushes that failed and are retried with the next one")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("hub.products.write-behind.rejected")
+        .description("Updates rejected because the buffer stayed full")
+        .register(meterRegistry);
+    this.dropped = Counter.builder("hub.products.write-behind.dropped")
+        .description("Buffered updates the database rejected")
+        .register(meterRegistry);
+    Gauge.builder("hub.products.write-behind.pending", this, ProductWriteBuffer::buffered)
+        .description("Products with buffered updates not written yet")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Buffers {@code update} for product {@code id} once it is journaled, and returns the product as reads see it from
+   * now on: as stored, with every buffered update applied, this one included. The view is built under the buffer's
+   * monitor, so concurrent updates of one product each see the others. {@code stored} reads the product from the
+   * database; it is only called when nothing is buffered for the product, and never while a flush writes.
+   *
+   * @throws ServiceOverloadedException if the buffer stays full for {@code hub.products.write-behind.max-wait}
+   */
+  public ProductDTO add(String id, BufferedProductUpdate update, Supplier<ProductDTO> stored) {
+    synchronized (this) {
+      if (!pending.containsKey(id)) {
+        awaitRoom();
+      }
+    }
+    // Holding the read lock, no flush writes or forgets a view until the update is buffered
+    return read(() -> {
+      ProductDTO base = hasView(id) ? null : stored.get();
+      synchronized (this) {
+        // Waiting for room may have flushed the product or let another update for it in
+        boolean added = !pending.containsKey(id);
+        journal.append(id, update);
+        pending.merge(id, update, BufferedProductUpdate::then);
+        if (added) {
+          buffered++;
+        }
+        ProductDTO view = views.get(id);
+        view = view == null ? applyPending(base) : update.applyTo(view);
+        views.put(id, view);
+        return view;
+      }
+    });
+  }
+
+  /**
+   * A product read from the database outside this buffer, e.g. delivered by the change stream, as reads see it: with
+   * the updates still buffered for it applied. {@code publish} receives it while no update can be added or written,
+   * so it cannot replace a view built from a later update. Unless {@code stored} is older than what the buffer last
+   * read, later updates build on it.
+   */
+  public ProductDTO overlay(ProductDTO stored, Consumer<ProductDTO> publish) {
+    return read(() -> {
+      synchronized (this) {
+        ProductDTO product = applyPending(stored);
+        views.computeIfPresent(product.id(), (id, view) -> older(stored, view) ? view : product);
+        publish.accept(product);
+        return product;
+      }
+    });
+  }
+
+  public synchronized boolean isPending(String id) {
+    return pending.containsKey(id) || unwritten.stream().anyMatch(batch -> batch.updates().containsKey(id));
+  }
+
+  /**
+   * Runs a read of the products collection so that it does not overlap a flush.
+   */
+  public <T> T read(Supplier<T> read) {
+    flushLock.readLock().lock();
+    try {
+      return read.get();
+    } finally {
+      flushLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * {@code product} as read from the database, with the updates still buffered for it applied. Only meaningful
+   * within {@link #read}.
+   */
+  public synchronized ProductDTO applyPending(ProductDTO product) {
+    for (Segment batch : unwritten) {
+      product = apply(batch.updates().get(product.id()), product);
+    }
+    return apply(pending.get(product.id()), product);
+  }
+
+  /**
+   * Writes everything buffered so far. A failed batch stays buffered and is retried first by the next flush.
+   */
+  public void flush() {
+    Set<String> written = new LinkedHashSet<>();
+    flushLock.writeLock().lock();
+    try {
+      synchronized (this) {
+        if (!pending.isEmpty()) {
+          unwritten.addLast(new Segment(journal.rotate(), pending));
+          pending = new LinkedHashMap<>();
+        }
+      }
+      Segment batch;
+      while ((batch = oldestUnwritten()) != null) {
+        write(batch);
+        synchronized (this) {
+          unwritten.removeFirst();
+          buffered -= batch.updates().size();
+          batch.updates().keySet().forEach(id -> {
+            if (!isPending(id)) {
+              views.remove(id);
+            }
+          });
+          notifyAll();
+        }
+        journal.delete(batch.number());
+        written.addAll(batch.updates().keySet());
+      }
+    } catch (RuntimeException e) {
+      flushFailures.increment();
+      log.warn("Could not write buffered product updates, retrying with the next flush", e);
+    } finally {
+      flushLock.writeLock().unlock();
+    }
+    if (!written.isEmpty()) {
+      refresh(written);
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    List<Segment> recovered = journal.open();
+    for (Segment segment : recovered) {
+      unwritten.addLast(segment);
+      buffered += segment.updates().size();
+    }
+    if (!recovered.isEmpty()) {
+      log.info("Replaying {} buffered product updates from the write-behind journal", buffered);
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "product-write-behind");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::scheduledFlush, recovered.isEmpty() ? flushInterval.toMillis() : 0,
+        flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = scheduler;
+      scheduler = null;
+    }
+    if (current == null) {
+      return;
+    }
+    current.shutdown();
+    try {
+      current.awaitTermination(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    synchronized (this) {
+      if (buffered > 0) {
+        log.warn("{} buffered product updates could not be written, they are replayed on the next start", buffered);
+      }
+      journal.close();
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  /**
+   * Starts before and stops after the web server, so no update arrives before the journal is open or after the final
+   * flush.
+   */
+  @Override
+  public int getPhase() {
+    return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+  }
+
+  private void awaitRoom() {
+    long deadline = System.nanoTime() + maxWait.toNanos();
+    while (buffered >= maxPending) {
+      requestFlush();
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        rejected.increment();
+        throw new ServiceOverloadedException("Too many buffered product updates, retry later");
+      }
+      try {
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ServiceOverloadedException("Interrupted while waiting for buffered product updates to be written");
+      }
+    }
+  }
+
+  private synchronized void requestFlush() {
+    if (scheduler != null && flushRequested.compareAndSet(false, true)) {
+      scheduler.execute(this::scheduledFlush);
+    }
+  }
+
+  private void scheduledFlush() {
+    flushRequested.set(false);
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh products after writing buffered updates", e);
+    }
+  }
+
+  private void write(Segment batch) {
+    Timer.Sample sample = Timer.start();
+    Map<String, String> failed = productRepository.applyBuffered(writer, batch.number(), batch.updates());
+    sample.stop(flushes);
+    if (!failed.isEmpty()) {
+      dropped.increment(failed.size());
+      failed.forEach((id, message) -> log.error("Dropped buffered update {} of product {}: {}",
+          batch.updates().get(id), id, message));
+    }
+  }
+
+  private synchronized Segment oldestUnwritten() {
+    return unwritten.peekFirst();
+  }
+
+  /**
+   * Replaces the cached views of the written products, which carried the buffered values but the previous version.
+   * Each is cached under the monitor, so it cannot overwrite the view of an update added after it was read.
+   */
+  private void refresh(Set<String> ids) {
+    List<ProductDTO> products = read(() -> productRepository.findAllById(ids).stream()
+        .map(productMapper::toDto)
+        .map(stored -> overlay(stored, product -> productCache.put(product.id(), product)))
+        .toList());
+    for (ProductDTO product : products) {
+      productPageCache.productUpdated(product);
+      productSearchIndex.put(product);
+    }
+  }
+
+  private static boolean older(ProductDTO stored, ProductDTO view) {
+    return stored.version() != null && view.version() != null && stored.version() < view.version();
+  }
+
+  private synchronized boolean hasView(String id) {
+    return views.containsKey(id);
+  }
+
+  private synchronized int buffered() {
+    return buffered;
+  }
+
+  private static ProductDTO apply(BufferedProductUpdate update, ProductDTO product) {
+    return update == null ? product : update.applyTo(product);
+  }
+}
@@ -0,0 +1,175 @@
+package com.test.demo.writebehind;
+
+import com.test.demo.repository.BufferedProductUpdate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The append-only log behind {@link ProductWriteBuffer}. Every accepted update is appended to the active segment
+ * before it is acknowledged; a flush starts a new segment and deletes the old one once its updates are written. The
+ * segments still present on startup hold exactly the updates that may not have been written yet.
+ * <p>
+ * One line per update: stock delta, price ({@code -} for none) and id, separated by spaces. A torn last line from a
+ * crash mid-append was never acknowledged and is skipped. Segments are numbered with the time they were opened, kept
+ * increasing, so numbers keep growing even if the directory is wiped.
+ */
+final class WriteBehindJournal implements AutoCloseable {
+
+  private static final String PREFIX = "segment-";
+
+  private static final String SUFFIX = ".log";
+
+  private final Path directory;
+
+  private final boolean fsync;
+
+  private FileChannel channel;
+
+  private long segment;
+
+  WriteBehindJournal(Path directory, boolean fsync) {
+    this.directory = directory;
+    this.fsync = fsync;
+  }
+
+  record Segment(long number, Map<String, BufferedProductUpdate> updates) { }
+
+  /**
+   * Reads every segment left behind, oldest first, and opens a new active segment after them.
+   */
+  List<Segment> open() {
+    try {
+      Files.createDirectories(directory);
+      List<Segment> segments = new ArrayList<>();
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : files.filter(WriteBehindJournal::isSegment).sorted().toList()) {
+          Segment read = read(file);
+          segment = Math.max(segment, read.number());
+          if (read.updates().isEmpty()) {
+            Files.delete(file);
+          } else {
+            segments.add(read);
+          }
+        }
+      }
+      openNext();
+      return segments;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot open write-behind journal in " + directory, e);
+    }
+  }
+
+  void append(String id, BufferedProductUpdate update) {
+    String line = update.stockDelta() + " " + (update.price() == null ? "-" : update.price()) + " " + escape(id) + "\n";
+    ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    try {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      if (fsync) {
+        channel.force(false);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot append to write-behind journal " + file(segment), e);
+    }
+  }
+
+  /**
+   * Closes the active segment and opens the next one.
+   *
+   * @return the number of the closed segment
+   */
+  long rotate() {
+    long closed = segment;
+    try {
+      channel.close();
+      openNext();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot start a new write-behind journal segment in " + directory, e);
+    }
+    return closed;
+  }
+
+  void delete(long number) {
+    try {
+      Files.deleteIfExists(file(number));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot delete write-behind journal segment " + file(number), e);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot close write-behind journal " + file(segment), e);
+    }
+  }
+
+  private void openNext() throws IOException {
+    segment = Math.max(segment + 1, System.currentTimeMillis());
+    channel = FileChannel.open(file(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    if (fsync) {
+      // Makes the new segment itself survive a power loss, not only its content
+      try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+        directoryChannel.force(true);
+      } catch (IOException e) {
+        // Not every platform can open a directory; the segment is then only as durable as the file system makes it
+      }
+    }
+  }
+
+  private Segment read(Path file) throws IOException {
+    String name = file.getFileName().toString();
+    long number = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    Map<String, BufferedProductUpdate> updates = new LinkedHashMap<>();
+    String content = Files.readString(file, StandardCharsets.UTF_8);
+    int start = 0;
+    for (int end = content.indexOf('\n'); end >= 0; end = content.indexOf('\n', start)) {
+      String[] fields = content.substring(start, end).split(" ", 3);
+      start = end + 1;
+      BufferedProductUpdate update = new BufferedProductUpdate(
+          fields[1].equals("-") ? null : Double.valueOf(fields[1]), Integer.parseInt(fields[0]));
+      updates.merge(unescape(fields[2]), update, BufferedProductUpdate::then);
+    }
+    return new Segment(number, updates);
+  }
+
+  private Path file(long number) {
+    return directory.resolve(PREFIX + String.format("%019d", number) + SUFFIX);
+  }
+
+  private static boolean isSegment(Path file) {
+    String name = file.getFileName().toString();
+    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+  }
+
+  private static String escape(String id) {
+    return id.replace("\\", "\\\\").replace("\n", "\\n");
+  }
+
+  private static String unescape(String id) {
+    StringBuilder unescaped = new StringBuilder(id.length());
+    for (int i = 0; i < id.length(); i++) {
+      char c = id.charAt(i);
+      if (c == '\\' && i + 1 < id.length()) {
+        c = id.charAt(++i) == 'n' ? '\n' : id.charAt(i);
+      }
+      unescaped.append(c);
+    }
+    return unescaped.toString();
+  }
+}
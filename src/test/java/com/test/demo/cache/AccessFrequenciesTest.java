@@ -0,0 +1,79 @@
+package com.test.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.test.demo.cache.AccessSnapshot.PageCount;
+import com.test.demo.cache.AccessSnapshot.ProductCount;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class AccessFrequenciesTest {
+
+  @Test
+  void snapshot_whenReadsCounted_thenHottestFirstAndLimited() {
+    AccessFrequencies frequencies = new AccessFrequencies(true, 100);
+    read(frequencies, "a", 1);
+    read(frequencies, "b", 5);
+    read(frequencies, "c", 3);
+    frequencies.pageRead(0, 10);
+    frequencies.pageRead(0, 10);
+    frequencies.pageRead(1, 10);
+
+    AccessSnapshot snapshot = frequencies.snapshot(2, 5);
+
+    assertEquals(List.of(new ProductCount("b", 5), new ProductCount("c", 3)), snapshot.products());
+    assertEquals(List.of(new PageCount(0, 10, 2), new PageCount(1, 10, 1)), snapshot.pages());
+  }
+
+  @Test
+  void decay_whenCalled_thenCountsHalvedAndColdKeysForgotten() {
+    AccessFrequencies frequencies = new AccessFrequencies(true, 100);
+    read(frequencies, "hot", 8);
+    read(frequencies, "cold", 1);
+
+    frequencies.decay();
+
+    assertEquals(List.of(new ProductCount("hot", 4)), frequencies.snapshot(10, 10).products());
+  }
+
+  @Test
+  void productRead_whenFull_thenNewKeysIgnoredUntilDecayMakesRoom() {
+    AccessFrequencies frequencies = new AccessFrequencies(true, 2);
+    read(frequencies, "a", 4);
+    read(frequencies, "b", 1);
+    read(frequencies, "c", 1);
+
+    assertEquals(2, frequencies.snapshot(10, 10).products().size());
+
+    frequencies.decay();
+    read(frequencies, "c", 1);
+    assertEquals(List.of(new ProductCount("a", 2), new ProductCount("c", 1)), frequencies.snapshot(10, 10).products());
+  }
+
+  @Test
+  void seed_whenSnapshotFromPreviousRun_thenCountsCarriedOver() {
+    AccessFrequencies frequencies = new AccessFrequencies(true, 100);
+    frequencies.seed(new AccessSnapshot(List.of(new ProductCount("a", 10)), List.of(new PageCount(0, 20, 4))));
+    read(frequencies, "a", 1);
+
+    AccessSnapshot snapshot = frequencies.snapshot(10, 10);
+
+    assertEquals(List.of(new ProductCount("a", 11)), snapshot.products());
+    assertEquals(List.of(new PageCount(0, 20, 4)), snapshot.pages());
+  }
+
+  @Test
+  void productRead_whenDisabled_thenNothingCounted() {
+    AccessFrequencies frequencies = new AccessFrequencies(false, 100);
+    read(frequencies, "a", 3);
+    frequencies.pageRead(0, 10);
+
+    assertEquals(AccessSnapshot.EMPTY, frequencies.snapshot(10, 10));
+  }
+
+  private static void read(AccessFrequencies frequencies, String id, int times) {
+    for (int i = 0; i < times; i++) {
+      frequencies.productRead(id);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.test.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.test.demo.cache.HubCacheProperties.CacheSpec;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.service.ProductCacheReloader;
+import com.test.demo.service.ProductService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.PageImpl;
+
+public class CacheConfigTest {
+
+  private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+  @Test
+  void cacheManager_whenMaximumWeight_thenCollectionsAndPagesWeighTheirElements() {
+    Cache<Object, Object> cache = nativeCache("paginatedProducts", new CacheSpec(null, 100L, null, null));
+
+    cache.put("list", List.of(product("1", 1.0), product("2", 1.0), product("3", 1.0)));
+    cache.put("page", new PageImpl<>(List.of(product("4", 1.0), product("5", 1.0))));
+    cache.put("empty", List.of());
+    cache.put("single", product("6", 1.0));
+    cache.cleanUp();
+
+    assertEquals(7, cache.policy().eviction().orElseThrow().weightedSize().orElseThrow());
+  }
+
+  @Test
+  void cacheManager_whenMaximumSizeAndWeightBothSet_thenFails() {
+    assertThrows(IllegalStateException.class,
+        () -> cacheManager("products", new CacheSpec(10L, 100L, null, null)));
+  }
+
+  @Test
+  void cacheManager_whenRefreshAfterWrite_thenStaleEntryIsReloadedThroughProductCacheReloader()
+      throws InterruptedException {
+    ProductService productService = mock(ProductService.class);
+    when(productService.loadProduct("1")).thenReturn(product("1", 20.0));
+    beanFactory.addBean("productCacheReloader", new ProductCacheReloader(productService));
+    Cache<Object, Object> cache = nativeCache("products", new CacheSpec(100L, null, null, Duration.ofMillis(50)));
+    cache.put("1", product("1", 10.0));
+
+    Thread.sleep(100);
+    assertEquals(10.0, ((ProductDTO) cache.getIfPresent("1")).price());
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (((ProductDTO) cache.getIfPresent("1")).price() != 20.0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(20.0, ((ProductDTO) cache.getIfPresent("1")).price());
+  }
+
+  @SuppressWarnings("unchecked")
+  private Cache<Object, Object> nativeCache(String name, CacheSpec spec) {
+    return (Cache<Object, Object>) cacheManager(name, spec).getCache(name).getNativeCache();
+  }
+
+  private SimpleCacheManager cacheManager(String name, CacheSpec spec) {
+    var cacheManager = (SimpleCacheManager) new CacheConfig().cacheManager(
+        new HubCacheProperties(Map.of(name, spec)),
+        beanFactory.getBeanProvider(CacheReloader.class),
+        beanFactory.getBeanProvider(CacheEvictionListener.class));
+    cacheManager.afterPropertiesSet();
+    return cacheManager;
+  }
+
+  private static ProductDTO product(String id, double price) {
+    return new ProductDTO(id, "Product" + id, 1, price, null);
+  }
+}
@@ -0,0 +1,194 @@
+package com.test.demo.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.test.demo.cache.ProductPageCache.PageKey;
+import com.test.demo.model.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+public class ProductPageCacheTest {
+
+  private List<ProductDTO> products;
+
+  private Cache cache;
+
+  private ProductPageCache productPageCache;
+
+  private AtomicInteger loads;
+
+  private AtomicInteger counts;
+
+  @BeforeEach
+  void setUp() {
+    products = new ArrayList<>(IntStream.range(0, 25)
+        .mapToObj(i -> new ProductDTO(String.valueOf(i), "Product" + i, i, 10.0 + i, LocalDateTime.now()))
+        .toList());
+    var cacheManager = new ConcurrentMapCacheManager(ProductPageCache.CACHE_NAME);
+    cache = cacheManager.getCache(ProductPageCache.CACHE_NAME);
+    productPageCache = new ProductPageCache(cacheManager, new SimpleMeterRegistry());
+    loads = new AtomicInteger();
+    counts = new AtomicInteger();
+
+    for (int page = 0; page < 3; page++) {
+      getPage(page);
+    }
+    loads.set(0);
+  }
+
+  @Test
+  void getPage_whenCached_thenServedWithoutRepository() {
+    Page<ProductDTO> result = getPage(1);
+
+    assertEquals(0, loads.get());
+    assertEquals(0, counts.get());
+    assertEquals(25, result.getTotalElements());
+    assertEquals("10", result.getContent().get(0).id());
+  }
+
+  @Test
+  void productUpdated_whenProductOnCachedPage_thenOnlyThatPageIsPatched() {
+    ProductDTO updated = new ProductDTO("12", "Renamed", 12, 99.0, LocalDateTime.now());
+
+    productPageCache.productUpdated(updated);
+
+    assertEquals("Renamed", getPage(1).getContent().get(2).name());
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  void productInserted_whenTotalKnown_thenOnlyLastPageIsEvicted() {
+    products.add(new ProductDTO("25", "Product25", 1, 1.0, LocalDateTime.now()));
+
+    productPageCache.productInserted("25");
+
+    assertNotNull(cache.get(new PageKey(0, 10)));
+    assertNotNull(cache.get(new PageKey(1, 10)));
+    assertNull(cache.get(new PageKey(2, 10)));
+    assertEquals(26, getPage(0).getTotalElements());
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void productDeleted_whenProductOnCachedPage_thenPagesFromItsPositionAreEvictedAndCountRefreshed() {
+    products.remove(12);
+
+    productPageCache.productDeleted("12");
+
+    assertNotNull(cache.get(new PageKey(0, 10)));
+    assertNull(cache.get(new PageKey(1, 10)));
+    assertNull(cache.get(new PageKey(2, 10)));
+    assertEquals(24, getPage(0).getTotalElements());
+    assertEquals(1, counts.get());
+    assertEquals("13", getPage(1).getContent().get(2).id());
+  }
+
+  @Test
+  void productDeleted_whenProductPositionUnknown_thenAllPagesAreEvicted() {
+    productPageCache.productDeleted("unknown");
+
+    assertNull(cache.get(new PageKey(0, 10)));
+  }
+
+  @Test
+  void productInsertObserved_whenEchoOfLocalInsert_thenNothingMoreIsEvicted() {
+    products.add(new ProductDTO("25", "Product25", 1, 1.0, LocalDateTime.now()));
+    productPageCache.productInserted("25");
+    getPage(2);
+
+    productPageCache.productInsertObserved("25");
+
+    assertNotNull(cache.get(new PageKey(2, 10)));
+    assertEquals(26, getPage(0).getTotalElements());
+    assertEquals(0, counts.get());
+  }
+
+  @Test
+  void productInsertObserved_whenInsertedElsewhere_thenLastPageIsEvictedAndCountRefreshed() {
+    products.add(new ProductDTO("25", "Product25", 1, 1.0, LocalDateTime.now()));
+
+    productPageCache.productInsertObserved("25");
+
+    assertNotNull(cache.get(new PageKey(1, 10)));
+    assertNull(cache.get(new PageKey(2, 10)));
+    assertEquals(26, getPage(0).getTotalElements());
+    assertEquals(1, counts.get());
+  }
+
+  @Test
+  void productDeleteObserved_whenEchoOfLocalDelete_thenRemainingPagesStay() {
+    products.remove(12);
+    productPageCache.productDeleted("12");
+
+    productPageCache.productDeleteObserved("12");
+
+    assertNotNull(cache.get(new PageKey(0, 10)));
+  }
+
+  @Test
+  void productUpdated_whenCachedVersionIsNewer_thenKeepsIt() {
+    productPageCache.productUpdated(new ProductDTO("3", "Newer", 3, 13.0, null, 5L));
+
+    productPageCache.productUpdated(new ProductDTO("3", "Older", 3, 13.0, null, 4L));
+
+    assertEquals("Newer", getPage(0).getContent().get(3).name());
+  }
+
+  @Test
+  void evicted_whenCaffeineDropsPagesBySize_thenTheirIdsAreUnindexed() throws InterruptedException {
+    var spec = new HubCacheProperties.CacheSpec(1L, null, null, null);
+    var beanFactory = new StaticListableBeanFactory();
+    var cacheManager = (SimpleCacheManager) new CacheConfig().cacheManager(
+        new HubCacheProperties(Map.of(ProductPageCache.CACHE_NAME, spec)),
+        beanFactory.getBeanProvider(CacheReloader.class),
+        beanFactory.getBeanProvider(CacheEvictionListener.class));
+    cacheManager.afterPropertiesSet();
+    productPageCache = new ProductPageCache(cacheManager, new SimpleMeterRegistry());
+    beanFactory.addBean("productPageCache", productPageCache);
+    var caffeine = (com.github.benmanes.caffeine.cache.Cache<?, ?>) cacheManager
+        .getCache(ProductPageCache.CACHE_NAME).getNativeCache();
+
+    for (int page = 0; page < 3; page++) {
+      getPage(page);
+    }
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (productPageCache.indexedPages() > 1 && System.nanoTime() < deadline) {
+      caffeine.cleanUp();
+      Thread.sleep(10);
+    }
+    assertEquals(1, caffeine.estimatedSize());
+    assertEquals(1, productPageCache.indexedPages());
+  }
+
+  private Page<ProductDTO> getPage(int page) {
+    return productPageCache.getPage(page, 10, this::load, () -> {
+      counts.incrementAndGet();
+      return products.size();
+    });
+  }
+
+  private Page<ProductDTO> load(Pageable pageable) {
+    loads.incrementAndGet();
+    int from = (int) Math.min(pageable.getOffset(), products.size());
+    int to = Math.min(from + pageable.getPageSize(), products.size());
+    return new PageImpl<>(List.copyOf(products.subList(from, to)), pageable, products.size());
+  }
+}
@@ -0,0 +1,183 @@
+package com.test.demo.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.changes.ProductChange.Type;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BufferedProductUpdate;
+import com.test.demo.repository.InMemoryProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import com.test.demo.search.ProductSearchIndexLoader;
+import com.test.demo.writebehind.ProductWriteBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageImpl;
+
+public class ProductChangeListenerTest {
+
+  @TempDir
+  Path directory;
+
+  private LocalProductChangeSource source;
+
+  private ConcurrentMapCacheManager cacheManager;
+
+  private Cache productCache;
+
+  private ProductPageCache productPageCache;
+
+  private ProductSearchIndex productSearchIndex;
+
+  private MeterRegistry meterRegistry;
+
+  private ProductChangeListener listener;
+
+  @BeforeEach
+  void setUp() {
+    source = new LocalProductChangeSource();
+    cacheManager = new ConcurrentMapCacheManager("products", ProductPageCache.CACHE_NAME);
+    productCache = cacheManager.getCache("products");
+    meterRegistry = new SimpleMeterRegistry();
+    productPageCache = new ProductPageCache(cacheManager, meterRegistry);
+    productSearchIndex = new ProductSearchIndex();
+    listener = listener();
+    listener.start();
+  }
+
+  @Test
+  void update_whenProductCached_thenCachedCopyPageAndSearchIndexAreRefreshed() {
+    productCache.put("1", product("1", "Old Lamp", 1L));
+    productSearchIndex.put(product("1", "Old Lamp", 1L));
+    productPageCache.getPage(0, 10, pageable -> new PageImpl<>(List.of(product("1", "Old Lamp", 1L))), () -> 1);
+
+    source.publish(Type.UPDATE, "1", product("1", "New Lamp", 2L));
+
+    assertEquals("New Lamp", productCache.get("1", ProductDTO.class).name());
+    assertEquals("New Lamp", productPageCache.getPage(0, 10, pageable -> null, () -> 1).getContent().get(0).name());
+    assertEquals(List.of("1"), productSearchIndex.search("new", 10).stream().map(ProductDTO::id).toList());
+    assertEquals(1, meterRegistry.get("hub.changes.lag").timer().count());
+  }
+
+  @Test
+  void update_whenCachedVersionIsNewer_thenKeepsIt() {
+    productCache.put("1", product("1", "Newer", 3L));
+
+    source.publish(Type.UPDATE, "1", product("1", "Older", 2L));
+
+    assertEquals("Newer", productCache.get("1", ProductDTO.class).name());
+  }
+
+  @Test
+  void update_whenProductNotCached_thenStaysUncached() {
+    source.publish(Type.UPDATE, "1", product("1", "Lamp", 1L));
+
+    assertNull(productCache.get("1"));
+  }
+
+  @Test
+  void delete_whenProductCached_thenEvictedAndNoLongerFound() {
+    productCache.put("1", product("1", "Lamp", 1L));
+    productSearchIndex.put(product("1", "Lamp", 1L));
+
+    source.publish(Type.DELETE, "1", null);
+
+    assertNull(productCache.get("1"));
+    assertEquals(List.of(), productSearchIndex.search("lamp", 10));
+    assertEquals(1.0, meterRegistry.get("hub.changes.applied").tag("type", "delete").counter().count());
+  }
+
+  @Test
+  void start_whenRestarted_thenResumesAfterLastHandledChange() {
+    source.publish(Type.INSERT, "1", product("1", "Lamp", 0L));
+    listener.stop();
+    productSearchIndex.clear();
+    source.publish(Type.INSERT, "2", product("2", "Lantern", 0L));
+
+    listener = listener();
+    listener.start();
+
+    assertEquals(List.of("2"), productSearchIndex.search("la", 10).stream().map(ProductDTO::id).toList());
+  }
+
+  @Test
+  void start_whenResumePositionIsLost_thenDropsEverythingCached() {
+    source.publish(Type.INSERT, "1", product("1", "Lamp", 0L));
+    listener.stop();
+    productCache.put("1", product("1", "Lamp", 0L));
+
+    source = new LocalProductChangeSource();
+    listener = listener();
+    listener.start();
+
+    assertNull(productCache.get("1"));
+    assertEquals(0, productSearchIndex.size());
+  }
+
+  @Test
+  void update_whenEchoOfFlushArrivesWithUpdatesBufferedSince_thenCachedProductKeepsThem() {
+    InMemoryProductRepository productRepository = new InMemoryProductRepository();
+    Product stored = new Product();
+    stored.setId("1");
+    stored.setName("Lamp");
+    stored.setStock(10);
+    stored.setPrice(5.0);
+    stored.setVersion(0L);
+    productRepository.save(stored);
+    ProductWriteBuffer writeBuffer = new ProductWriteBuffer(productRepository, new ProductMapper(), cacheManager,
+        productPageCache, productSearchIndex, directory.resolve("journal"), false, "test", 100, Duration.ofSeconds(1),
+        Duration.ofHours(1), meterRegistry);
+    writeBuffer.start();
+    listener.stop();
+    StaticListableBeanFactory beans = new StaticListableBeanFactory();
+    beans.addBean("writeBuffer", writeBuffer);
+    listener = listener(beans.getBeanProvider(ProductWriteBuffer.class));
+    listener.start();
+    Supplier<ProductDTO> read = () -> new ProductMapper().toDto(productRepository.findById("1").orElseThrow());
+    try {
+      productCache.put("1", writeBuffer.add("1", new BufferedProductUpdate(null, 5), read));
+      writeBuffer.flush();
+      ProductDTO flushed = read.get();
+      productCache.put("1", writeBuffer.add("1", new BufferedProductUpdate(null, 3), read));
+
+      source.publish(Type.UPDATE, "1", flushed);
+
+      ProductDTO cached = productCache.get("1", ProductDTO.class);
+      assertEquals(18, cached.stock());
+      assertEquals(1L, cached.version());
+      assertEquals(21, writeBuffer.add("1", new BufferedProductUpdate(null, 3), read).stock());
+    } finally {
+      writeBuffer.stop();
+    }
+  }
+
+  private ProductChangeListener listener() {
+    return listener(new StaticListableBeanFactory().getBeanProvider(ProductWriteBuffer.class));
+  }
+
+  private ProductChangeListener listener(ObjectProvider<ProductWriteBuffer> writeBuffer) {
+    return new ProductChangeListener(source, new ResumeTokenStore(directory.resolve("resume-token")), cacheManager,
+        productPageCache, new MissingProductCache(cacheManager), productSearchIndex,
+        new StaticListableBeanFactory().getBeanProvider(ProductSearchIndexLoader.class), writeBuffer,
+        Duration.ofHours(1), meterRegistry);
+  }
+
+  private static ProductDTO product(String id, String name, Long version) {
+    return new ProductDTO(id, name, 1, 10.0, null, version);
+  }
+}
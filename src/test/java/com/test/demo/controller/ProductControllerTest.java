@@ -1,7 +1,13 @@
 package com.test.demo.controller;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -10,33 +16,69 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.exception.ProductConflictException;
+import com.test.demo.model.dto.BatchItemResult;
+import com.test.demo.model.dto.BatchResult;
+import com.test.demo.model.dto.CursorPage;
 import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductPage;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.service.ProductExportService;
+import com.test.demo.service.ProductImportService;
 import com.test.demo.service.ProductService;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(ProductController.class)
+@Import({ProductHttpCaching.class, BinaryFormatsConfig.class, AccessFrequencies.class})
 public class ProductControllerTest {
 
+  /**
+   * Fixed, with no trailing zero in its fraction: Jackson drops those, so {@code toString()} would not match.
+   */
+  private static final LocalDateTime CREATED = LocalDateTime.of(2024, 8, 1, 12, 30, 15, 123_456_789);
+
   @MockBean
   private ProductService productService;
 
+  @MockBean
+  private ProductExportService productExportService;
+
+  @MockBean
+  private ProductImportService productImportService;
+
   @Autowired
   private MockMvc mockMvc;
 
@@ -52,7 +94,7 @@ public class ProductControllerTest {
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void createProduct_whenValidInput_thenReturnsCreatedProduct() throws Exception {
-    var currentTime = LocalDateTime.now();
+    var currentTime = CREATED;
 
     ProductDTO productDTO = new ProductDTO(null, "Test Product", 1, 15.5, currentTime);
     when(productService.createProduct(any(ProductDTO.class))).thenReturn(productDTO);
@@ -70,10 +112,30 @@ public class ProductControllerTest {
     verify(productService).createProduct(any(ProductDTO.class));
   }
 
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void importProducts_whenNdjsonBody_thenReturnsPerItemResults() throws Exception {
+    BatchResult batchResult = new BatchResult(1, 0, 1, List.of(
+        new BatchItemResult(0, "1", BatchItemResult.Status.CREATED, null),
+        new BatchItemResult(1, null, BatchItemResult.Status.INVALID, Map.of("name", "Name is mandatory"))));
+    when(productImportService.importProducts(any(InputStream.class), argThat(MediaType.APPLICATION_NDJSON::isCompatibleWith)))
+        .thenReturn(batchResult);
+
+    mockMvc.perform(post("/api/v1/products/batch")
+            .with(csrf())
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content("{\"name\":\"Product1\",\"price\":1.0}\n{\"price\":1.0}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+        .andExpect(jsonPath("$.items[1].errors.name").value("Name is mandatory"));
+  }
+
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void updateProduct_whenValidInput_thenReturnsUpdatedProduct() throws Exception {
-    var currentTime = LocalDateTime.now();
+    var currentTime = CREATED;
     String productId = "123";
     ProductDTO productDTO = new ProductDTO(productId, "Updated Product", 1, 20.0, currentTime);
 
@@ -95,11 +157,11 @@ public class ProductControllerTest {
   @Test
   @WithMockUser(username = "admin", roles = {"ADMIN"})
   void updateProductPrice_whenValidInput_thenReturnsUpdatedProduct() throws Exception {
-    var currentTime = LocalDateTime.now();
+    var currentTime = CREATED;
     String productId = "123";
     ProductDTO productDTO = new ProductDTO(productId, "Test Product", 1, 50.0, currentTime);
 
-    when(productService.updateProductPrice(eq(productId), any(Double.class))).thenReturn(productDTO);
+    when(productService.updateProductPrice(eq(productId), any(Double.class), isNull())).thenReturn(productDTO);
 
     mockMvc.perform(patch("/api/v1/products/{id}/price", productId)
             .with(csrf())
@@ -111,7 +173,38 @@ public class ProductControllerTest {
         .andExpect(jsonPath("$.price").value(50.0))
         .andExpect(jsonPath("$.createdDate").value(productDTO.createdDate().toString()));
 
-    verify(productService).updateProductPrice(eq(productId), any(Double.class));
+    verify(productService).updateProductPrice(eq(productId), any(Double.class), isNull());
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void adjustStock_whenValidInput_thenReturnsUpdatedProduct() throws Exception {
+    String productId = "123";
+    ProductDTO productDTO = new ProductDTO(productId, "Test Product", 4, 50.0, CREATED, 6L);
+
+    when(productService.adjustStock(productId, -2, 5L)).thenReturn(productDTO);
+
+    mockMvc.perform(patch("/api/v1/products/{id}/stock", productId)
+            .with(csrf())
+            .param("delta", "-2")
+            .param("version", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.stock").value(4))
+        .andExpect(jsonPath("$.version").value(6));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void adjustStock_whenConflict_thenReturnsConflict() throws Exception {
+    String productId = "123";
+
+    when(productService.adjustStock(productId, -10, null))
+        .thenThrow(new ProductConflictException("Insufficient stock for product 123"));
+
+    mockMvc.perform(patch("/api/v1/products/{id}/stock", productId)
+            .with(csrf())
+            .param("delta", "-10"))
+        .andExpect(status().isConflict());
   }
 
   @Test
@@ -131,7 +224,7 @@ public class ProductControllerTest {
   @WithMockUser(username = "user")
   void getProductById_whenValidId_thenReturnsProduct() throws Exception {
     String productId = "12345";
-    var currentTime = LocalDateTime.now();
+    var currentTime = CREATED;
     ProductDTO productDTO = new ProductDTO(productId, "Test Product", 1, 25.5, currentTime);
 
     when(productService.getProductById(productId)).thenReturn(productDTO);
@@ -148,12 +241,77 @@ public class ProductControllerTest {
     verify(productService).getProductById(productId);
   }
 
+  @Test
+  @WithMockUser(username = "user")
+  void getProductById_whenETagOrDateStillMatch_thenReturnsNotModifiedWithoutBody() throws Exception {
+    LocalDateTime modified = LocalDateTime.of(2024, 8, 2, 9, 0);
+    ProductDTO productDTO = new ProductDTO("1", "Lamp", 1, 25.5, modified.minusDays(1), modified, 3L);
+    when(productService.getProductById("1")).thenReturn(productDTO);
+
+    MvcResult first = mockMvc.perform(get("/api/v1/products/{id}", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+        .andExpect(jsonPath("$.lastModifiedDate").value("2024-08-02T09:00:00"))
+        .andReturn();
+    String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+    String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+    mockMvc.perform(get("/api/v1/products/{id}", "1").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+    mockMvc.perform(get("/api/v1/products/{id}", "1").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+        .andExpect(status().isNotModified());
+
+    when(productService.getProductById("1"))
+        .thenReturn(new ProductDTO("1", "Lamp", 0, 25.5, modified.minusDays(1), modified.plusHours(1), 4L));
+    mockMvc.perform(get("/api/v1/products/{id}", "1").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(4));
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void lookupProducts_whenIdsPosted_thenReturnsFoundAndMissing() throws Exception {
+    when(productService.lookupProducts(List.of("1", "404")))
+        .thenReturn(new ProductLookup(List.of(new ProductDTO("1", "Product1", 1, 10.0, null)), List.of("404")));
+
+    mockMvc.perform(post("/api/v1/products/lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[\"1\", \"404\"]")
+            .with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.products[0].id").value("1"))
+        .andExpect(jsonPath("$.missing[0]").value("404"));
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getAllProducts_whenETagStillMatches_thenReturnsNotModified() throws Exception {
+    when(productService.getAllProducts(0, 10))
+        .thenReturn(new PageImpl<>(List.of(new ProductDTO("1", "Product1", 10, 100.0, null, 1L))));
+
+    String etag = mockMvc.perform(get("/api/v1/products"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+
+    when(productService.getAllProducts(0, 10))
+        .thenReturn(new PageImpl<>(List.of(new ProductDTO("1", "Product1", 10, 100.0, null, 2L))));
+    mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+  }
+
   @Test
   @WithMockUser(username = "user")
   void getAllProducts_whenCalled_thenReturnsPaginatedProducts() throws Exception {
     int page = 0;
     int size = 10;
-    var currentTime = LocalDateTime.now();
+    var currentTime = CREATED;
 
     ProductDTO productDTO1 = new ProductDTO("1", "Product1", 10, 100.0, currentTime);
     ProductDTO productDTO2 = new ProductDTO("2", "Product2", 20, 200.0, currentTime);
@@ -171,4 +329,135 @@ public class ProductControllerTest {
 
     verify(productService).getAllProducts(page, size);
   }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getAllProducts_whenSmileAccepted_thenReturnsCompactPage() throws Exception {
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 10, 100.0, LocalDateTime.of(2024, 8, 2, 9, 0));
+    when(productService.getAllProducts(0, 10))
+        .thenReturn(new PageImpl<>(List.of(productDTO), PageRequest.of(0, 10), 21));
+
+    MvcResult result = mockMvc.perform(get("/api/v1/products")
+            .accept(BinaryFormatsConfig.SMILE_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(BinaryFormatsConfig.SMILE_VALUE))
+        .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+        .andReturn();
+
+    ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+    ProductPage page = smileMapper.readValue(result.getResponse().getContentAsByteArray(), ProductPage.class);
+    assertEquals(new ProductPage(List.of(productDTO), 0, 10, 21, 3), page);
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getProductById_whenCborAccepted_thenReturnsCbor() throws Exception {
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 10, 100.0, LocalDateTime.of(2024, 8, 2, 9, 0));
+    when(productService.getProductById("1")).thenReturn(productDTO);
+
+    MvcResult result = mockMvc.perform(get("/api/v1/products/{id}", "1")
+            .accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn();
+
+    ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+    assertEquals(productDTO, cborMapper.readValue(result.getResponse().getContentAsByteArray(), ProductDTO.class));
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getAllProducts_whenFiltered_thenReturnsFilteredSortedPage() throws Exception {
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 10, 100.0, CREATED);
+    ProductFilter filter = new ProductFilter(50.0, 150.0, true, "Prod");
+
+    when(productService.findProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, 0, 10))
+        .thenReturn(new PageImpl<>(List.of(productDTO)));
+
+    mockMvc.perform(get("/api/v1/products")
+            .param("minPrice", "50")
+            .param("maxPrice", "150")
+            .param("inStock", "true")
+            .param("namePrefix", "Prod")
+            .param("sort", "price")
+            .param("direction", "desc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].name").value(productDTO.name()));
+
+    verify(productService).findProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, 0, 10);
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getAllProducts_whenPriceRangeInverted_thenReturnsBadRequest() throws Exception {
+    mockMvc.perform(get("/api/v1/products")
+            .param("minPrice", "150")
+            .param("maxPrice", "50"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void searchProducts_whenCalled_thenReturnsRankedMatches() throws Exception {
+    ProductDTO productDTO = new ProductDTO("1", "Red Wine", 10, 100.0, CREATED);
+
+    when(productService.searchProducts("wi", 5)).thenReturn(List.of(productDTO));
+
+    mockMvc.perform(get("/api/v1/products/search")
+            .param("q", "wi")
+            .param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value(productDTO.name()));
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void getProductsByCursor_whenCalled_thenReturnsSliceWithNextCursor() throws Exception {
+    var currentTime = CREATED;
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 10, 100.0, currentTime);
+
+    when(productService.getProductsByCursor("abc", 1, ProductSortKey.PRICE, Sort.Direction.DESC, false))
+        .thenReturn(new CursorPage<>(List.of(productDTO), "def", true, null));
+
+    mockMvc.perform(get("/api/v1/products/cursor")
+            .param("cursor", "abc")
+            .param("size", "1")
+            .param("sort", "price")
+            .param("direction", "desc")
+            .with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].name").value(productDTO.name()))
+        .andExpect(jsonPath("$.nextCursor").value("def"))
+        .andExpect(jsonPath("$.hasNext").value(true));
+
+    verify(productService).getProductsByCursor("abc", 1, ProductSortKey.PRICE, Sort.Direction.DESC, false);
+  }
+
+  @Test
+  @WithMockUser(username = "user")
+  void exportProducts_whenCalled_thenStreamsNdjson() throws Exception {
+    LocalDateTime modifiedSince = LocalDateTime.of(2024, 8, 1, 0, 0);
+    // The body is written on the async executor; hold it back until the initial dispatch, including the security
+    // filters' header writing, has finished, so both never touch the response at once
+    CountDownLatch dispatched = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      dispatched.await(5, TimeUnit.SECONDS);
+      OutputStream out = invocation.getArgument(2);
+      out.write("{\"id\":\"1\"}\n{\"id\":\"2\"}\n".getBytes(StandardCharsets.UTF_8));
+      return 2L;
+    }).when(productExportService).exportProducts(eq(modifiedSince), eq(false), any(OutputStream.class));
+
+    MvcResult mvcResult = mockMvc.perform(get("/api/v1/products/export")
+            .param("modifiedSince", "2024-08-01T00:00:00")
+            .with(csrf()))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    dispatched.countDown();
+
+    mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().string("{\"id\":\"1\"}\n{\"id\":\"2\"}\n"));
+  }
 }
@@ -0,0 +1,219 @@
+package com.test.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.exception.ProductConflictException;
+import com.test.demo.exception.ProductNotFoundException;
+import com.test.demo.model.dto.CursorPage;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductPage;
+import com.test.demo.model.dto.ProductSortKey;
+import com.test.demo.service.ReactiveProductService;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveProductController.class)
+@Import({ProductHttpCaching.class, BinaryFormatsConfig.class, AccessFrequencies.class})
+public class ReactiveProductControllerTest {
+
+  @MockBean
+  private ReactiveProductService productService;
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void createProduct_whenValidInput_thenReturnsCreatedProduct() {
+    ProductDTO productDTO = new ProductDTO("1", "Test Product", 1, 15.5, LocalDateTime.now(), 0L);
+    when(productService.createProduct(any(ProductDTO.class))).thenReturn(Mono.just(productDTO));
+
+    webTestClient.mutateWith(csrf()).post().uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new ProductDTO(null, "Test Product", 1, 15.5, null))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody()
+        .jsonPath("$.id").isEqualTo("1")
+        .jsonPath("$.version").isEqualTo(0);
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void createProduct_whenInvalidInput_thenReturnsBadRequest() {
+    webTestClient.mutateWith(csrf()).post().uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new ProductDTO(null, "", 1, -1.0, null))
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.errors.name").isEqualTo("Name is mandatory");
+
+    verify(productService, never()).createProduct(any(ProductDTO.class));
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void adjustStock_whenConflict_thenReturnsConflict() {
+    when(productService.adjustStock("123", -10, null))
+        .thenReturn(Mono.error(new ProductConflictException("Insufficient stock for product 123")));
+
+    webTestClient.mutateWith(csrf()).patch().uri("/api/v1/products/123/stock?delta=-10")
+        .exchange()
+        .expectStatus().isEqualTo(409);
+  }
+
+  @Test
+  @WithMockUser(username = "admin", roles = {"ADMIN"})
+  void updateProductPrice_whenValidInput_thenReturnsUpdatedProduct() {
+    ProductDTO productDTO = new ProductDTO("123", "Test Product", 1, 50.0, LocalDateTime.now(), 3L);
+    when(productService.updateProductPrice(eq("123"), eq(50.0), isNull())).thenReturn(Mono.just(productDTO));
+
+    webTestClient.mutateWith(csrf()).patch().uri("/api/v1/products/123/price?price=50.0")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.price").isEqualTo(50.0)
+        .jsonPath("$.version").isEqualTo(3);
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getProductById_whenMissing_thenReturnsNotFound() {
+    when(productService.getProductById("404")).thenReturn(Mono.error(new ProductNotFoundException("404")));
+
+    webTestClient.get().uri("/api/v1/products/404")
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getProductById_whenETagStillMatches_thenReturnsNotModified() {
+    ProductDTO productDTO = new ProductDTO("1", "Lamp", 1, 10.0, null, LocalDateTime.of(2024, 8, 2, 9, 0), 3L);
+    when(productService.getProductById("1")).thenReturn(Mono.just(productDTO));
+
+    String etag = webTestClient.get().uri("/api/v1/products/1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().cacheControl(CacheControl.noCache().cachePrivate())
+        .returnResult(ProductDTO.class).getResponseHeaders().getETag();
+
+    webTestClient.get().uri("/api/v1/products/1")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody().isEmpty();
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getAllProducts_whenJsonAccepted_thenReturnsPage() {
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 1, 10.0, LocalDateTime.now());
+    when(productService.getAllProducts(0, 10))
+        .thenReturn(Mono.just(new PageImpl<>(List.of(productDTO), PageRequest.of(0, 10), 1)));
+
+    webTestClient.get().uri("/api/v1/products")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.content[0].name").isEqualTo("Product1")
+        .jsonPath("$.totalElements").isEqualTo(1);
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getAllProducts_whenSmileAccepted_thenReturnsCompactPage() throws IOException {
+    ProductDTO productDTO = new ProductDTO("1", "Product1", 1, 10.0, LocalDateTime.of(2024, 8, 2, 9, 0));
+    when(productService.getAllProducts(0, 10))
+        .thenReturn(Mono.just(new PageImpl<>(List.of(productDTO), PageRequest.of(0, 10), 1)));
+
+    byte[] body = webTestClient.get().uri("/api/v1/products")
+        .accept(MediaType.parseMediaType(BinaryFormatsConfig.SMILE_VALUE))
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType(BinaryFormatsConfig.SMILE_VALUE)
+        .expectBody(byte[].class)
+        .returnResult()
+        .getResponseBody();
+
+    ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+    assertEquals(new ProductPage(List.of(productDTO), 0, 10, 1, 1), smileMapper.readValue(body, ProductPage.class));
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getAllProducts_whenNdjsonAccepted_thenStreamsProducts() {
+    when(productService.streamProducts(ProductFilter.NONE, null, Sort.Direction.ASC, 0, 2)).thenReturn(Flux.just(
+        new ProductDTO("1", "Product1", 1, 10.0, null),
+        new ProductDTO("2", "Product2", 2, 20.0, null)));
+
+    webTestClient.get().uri("/api/v1/products?size=2")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(ProductDTO.class)
+        .hasSize(2);
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void getProductsByCursor_whenCalled_thenReturnsSliceWithNextCursor() {
+    when(productService.getProductsByCursor(null, 1, ProductSortKey.PRICE, Sort.Direction.DESC, false))
+        .thenReturn(Mono.just(new CursorPage<>(List.of(new ProductDTO("1", "Product1", 1, 10.0, null)),
+            "next", true, null)));
+
+    webTestClient.get().uri("/api/v1/products/cursor?size=1&sort=price&direction=desc")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.nextCursor").isEqualTo("next")
+        .jsonPath("$.hasNext").isEqualTo(true);
+  }
+
+  @Test
+  @WithMockUser(username = "user", roles = {"USER"})
+  void exportProducts_whenCalled_thenStreamsNdjson() {
+    when(productService.exportProducts(null)).thenReturn(Flux.just(
+        new ProductDTO("1", "Product1", 1, 10.0, null),
+        new ProductDTO("2", "Product2", 2, 20.0, null),
+        new ProductDTO("3", "Product3", 3, 30.0, null)));
+
+    webTestClient.get().uri("/api/v1/products/export")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(ProductDTO.class)
+        .hasSize(3);
+  }
+}
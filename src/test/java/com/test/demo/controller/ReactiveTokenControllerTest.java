@@ -0,0 +1,86 @@
+package com.test.demo.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.model.dto.AccessToken;
+import com.test.demo.security.SecurityConfig;
+import com.test.demo.security.TokenService;
+import com.test.demo.service.ReactiveProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TokenControllerTest} on WebFlux, through the reactive filter chain and method security.
+ */
+@WebFluxTest({TokenController.class, ReactiveProductController.class})
+@Import({SecurityConfig.class, TokenService.class, SimpleMeterRegistry.class, ProductHttpCaching.class,
+    BinaryFormatsConfig.class, AccessFrequencies.class})
+public class ReactiveTokenControllerTest {
+
+  @MockBean
+  private ReactiveProductService productService;
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Test
+  void token_whenBasicCredentials_thenIssuesBearerToken() {
+    webTestClient.post().uri("/api/v1/auth/token")
+        .headers(headers -> headers.setBasicAuth("user", "password"))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.access_token").isNotEmpty()
+        .jsonPath("$.token_type").isEqualTo("Bearer");
+  }
+
+  @Test
+  void deleteProduct_whenBearerTokenOfAdmin_thenRolesClaimPassesPreAuthorize() {
+    when(productService.deleteProduct("1")).thenReturn(Mono.empty());
+    String token = token("admin");
+
+    webTestClient.delete().uri("/api/v1/products/1")
+        .headers(headers -> headers.setBearerAuth(token))
+        .exchange()
+        .expectStatus().isNoContent();
+
+    verify(productService).deleteProduct("1");
+  }
+
+  @Test
+  void deleteProduct_whenBearerTokenOfUser_thenForbidden() {
+    String token = token("user");
+
+    webTestClient.delete().uri("/api/v1/products/1")
+        .headers(headers -> headers.setBearerAuth(token))
+        .exchange()
+        .expectStatus().isForbidden();
+  }
+
+  @Test
+  void token_whenCallerHoldsBearerToken_thenForbidden() {
+    String token = token("admin");
+
+    webTestClient.post().uri("/api/v1/auth/token")
+        .headers(headers -> headers.setBearerAuth(token))
+        .exchange()
+        .expectStatus().isForbidden();
+  }
+
+  private String token(String username) {
+    return webTestClient.post().uri("/api/v1/auth/token")
+        .headers(headers -> headers.setBasicAuth(username, "password"))
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(AccessToken.class)
+        .returnResult().getResponseBody().accessToken();
+  }
+}
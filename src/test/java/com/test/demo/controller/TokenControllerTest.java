@@ -0,0 +1,95 @@
+package com.test.demo.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.security.SecurityConfig;
+import com.test.demo.security.TokenService;
+import com.test.demo.service.ProductExportService;
+import com.test.demo.service.ProductImportService;
+import com.test.demo.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Runs through the application's own filter chain and method security, unlike the {@code @WithMockUser} tests.
+ */
+@WebMvcTest({TokenController.class, ProductController.class})
+@Import({SecurityConfig.class, TokenService.class, SimpleMeterRegistry.class, ProductHttpCaching.class,
+    BinaryFormatsConfig.class, AccessFrequencies.class})
+public class TokenControllerTest {
+
+  @MockBean
+  private ProductService productService;
+
+  @MockBean
+  private ProductExportService productExportService;
+
+  @MockBean
+  private ProductImportService productImportService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void token_whenBasicCredentials_thenIssuesBearerToken() throws Exception {
+    mockMvc.perform(post("/api/v1/auth/token").with(httpBasic("user", "password")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.access_token").isNotEmpty())
+        .andExpect(jsonPath("$.token_type").value("Bearer"));
+  }
+
+  @Test
+  void token_whenWrongPassword_thenUnauthorized() throws Exception {
+    mockMvc.perform(post("/api/v1/auth/token").with(httpBasic("user", "wrong")))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  void deleteProduct_whenBearerTokenOfAdmin_thenRolesClaimPassesPreAuthorize() throws Exception {
+    String token = token("admin");
+
+    mockMvc.perform(delete("/api/v1/products/1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+        .andExpect(status().isNoContent());
+
+    verify(productService).deleteProduct("1");
+  }
+
+  @Test
+  void deleteProduct_whenBearerTokenOfUser_thenForbidden() throws Exception {
+    String token = token("user");
+
+    mockMvc.perform(delete("/api/v1/products/1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  void token_whenCallerHoldsBearerToken_thenForbidden() throws Exception {
+    String token = token("admin");
+
+    mockMvc.perform(post("/api/v1/auth/token").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+        .andExpect(status().isForbidden());
+  }
+
+  private String token(String username) throws Exception {
+    String body = mockMvc.perform(post("/api/v1/auth/token").with(httpBasic(username, "password")))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(body).get("access_token").asText();
+  }
+}
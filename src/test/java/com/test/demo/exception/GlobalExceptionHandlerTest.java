@@ -0,0 +1,64 @@
+package com.test.demo.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+public class GlobalExceptionHandlerTest {
+
+  @Test
+  void handleException_whenCalled_thenCountsByExceptionType() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry);
+
+    handler.handleProductNotFoundException(new ProductNotFoundException("1"));
+    handler.handleProductNotFoundException(new ProductNotFoundException("2"));
+    var response = handler.handleGlobalException(new IllegalStateException("boom"));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    assertEquals(2, meterRegistry.get("hub.exceptions")
+        .tags("exception", "ProductNotFoundException", "status", "404").counter().count());
+    assertEquals(1, meterRegistry.get("hub.exceptions")
+        .tags("exception", "IllegalStateException", "status", "500").counter().count());
+  }
+
+  @Test
+  void handleProductNotFoundException_whenDistinctIds_thenEachBodyNamesItsId() {
+    GlobalExceptionHandler handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+
+    var first = handler.handleProductNotFoundException(new ProductNotFoundException("1"));
+    var second = handler.handleProductNotFoundException(new ProductNotFoundException("2"));
+
+    assertEquals(HttpStatus.NOT_FOUND, second.getStatusCode());
+    assertEquals("Product not found with id: 1", first.getBody().errors());
+    assertEquals("Product not found with id: 2", second.getBody().errors());
+  }
+
+  @Test
+  void handleIllegalArgumentException_whenSameMessageAgain_thenReusesResponse() {
+    GlobalExceptionHandler handler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+
+    var first = handler.handleIllegalArgumentException(new IllegalArgumentException("Size must be positive"));
+    var second = handler.handleIllegalArgumentException(new IllegalArgumentException("Size must be positive"));
+
+    assertSame(first, second);
+    assertEquals(HttpStatus.BAD_REQUEST, second.getStatusCode());
+  }
+
+  @Test
+  void domainException_whenSampled_thenOnlySampledOnesCaptureStackTrace() {
+    try {
+      DomainException.sampleStackTraces(0);
+      assertFalse(new ProductNotFoundException("1").hasStackTrace());
+      DomainException.sampleStackTraces(1);
+      assertTrue(new ProductNotFoundException("1").hasStackTrace());
+    } finally {
+      DomainException.sampleStackTraces(1000);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.test.demo.limits;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+
+  private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+  @Test
+  void tryAcquire_whenLimitReached_thenRejectsUntilReleased() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 4, Duration.ofMillis(100), 0.5, 0);
+
+    assertTrue(limit.tryAcquire());
+    assertTrue(limit.tryAcquire());
+    assertFalse(limit.tryAcquire());
+
+    limit.release(FAST, 0);
+    assertTrue(limit.tryAcquire());
+  }
+
+  @Test
+  void release_whenSlow_thenLimitBacksOffOncePerPeriodDownToMinimum() {
+    long period = Duration.ofMillis(100).toNanos();
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 16, Duration.ofMillis(100), 0.5, 0);
+
+    acquireAndRelease(limit, SLOW, period);
+    acquireAndRelease(limit, SLOW, period + 1);
+    assertEquals(4, limit.limit());
+
+    acquireAndRelease(limit, SLOW, 2 * period);
+    acquireAndRelease(limit, SLOW, 3 * period);
+    assertEquals(3, limit.limit());
+  }
+
+  @Test
+  void release_whenFastUnderLoad_thenLimitGrowsUpToMaximum() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, Duration.ofMillis(100), 0.5, 0);
+
+    acquireAndRelease(limit, FAST, 0);
+    assertEquals(3, limit.limit());
+    limit.tryAcquire();
+    limit.tryAcquire();
+    limit.tryAcquire();
+    limit.release(FAST, 0);
+    assertEquals(3, limit.limit());
+  }
+
+  private static void acquireAndRelease(AdaptiveConcurrencyLimit limit, long latency, long now) {
+    assertTrue(limit.tryAcquire());
+    limit.release(latency, now);
+  }
+}
@@ -0,0 +1,114 @@
+package com.test.demo.limits;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.limits.RequestLimitProperties.Concurrency;
+import com.test.demo.limits.RequestLimitProperties.Rate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+public class RequestLimitFilterTest {
+
+  private MeterRegistry meterRegistry;
+
+  private RequestLimitFilter filter;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    meterRegistry = new SimpleMeterRegistry();
+    RequestLimits requestLimits = new RequestLimits(new RequestLimitProperties(
+        Map.of("user", new Rate(0.001, 2), "admin", new Rate(1000, 1000)),
+        new Concurrency(1, 1, 1, Duration.ofSeconds(10), 0.5)), meterRegistry);
+    filter = new RequestLimitFilter(requestLimits, new ObjectMapper());
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void doFilter_whenPrincipalExceedsBurst_thenRejectsWithTooManyRequests() throws Exception {
+    authenticate("user", "ROLE_USER");
+
+    assertEquals(200, get("/api/v1/products").getStatus());
+    assertEquals(200, get("/api/v1/products").getStatus());
+    MockHttpServletResponse rejected = get("/api/v1/products");
+
+    assertEquals(429, rejected.getStatus());
+    assertTrue(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER)) > 1);
+    assertTrue(rejected.getContentAsString().contains("Too many requests, retry later"));
+    assertEquals(1, meterRegistry.get("hub.limits.rejected").tags("reason", "rate", "role", "user").counter().count());
+  }
+
+  @Test
+  void doFilter_whenPrincipalHasSeveralRoles_thenMostGenerousRateApplies() throws Exception {
+    authenticate("both", "ROLE_USER", "ROLE_ADMIN");
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(200, get("/api/v1/products").getStatus());
+    }
+  }
+
+  @Test
+  void doFilter_whenConcurrencyLimitReached_thenShedsWithServiceUnavailable() throws Exception {
+    authenticate("admin", "ROLE_ADMIN");
+    AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+
+    MockHttpServletResponse outer = new MockHttpServletResponse();
+    filter.doFilter(request("/api/v1/products"), outer, new MockFilterChain() {
+      @Override
+      public void doFilter(jakarta.servlet.ServletRequest request, jakarta.servlet.ServletResponse response) {
+        nested.set(get("/api/v1/products"));
+      }
+    });
+
+    assertEquals(200, outer.getStatus());
+    assertEquals(503, nested.get().getStatus());
+    assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+    assertEquals(200, get("/api/v1/products").getStatus());
+  }
+
+  @Test
+  void doFilter_whenNotAnApiRequest_thenIsNotLimited() throws Exception {
+    authenticate("user", "ROLE_USER");
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(200, get("/actuator/health").getStatus());
+    }
+  }
+
+  private MockHttpServletResponse get(String uri) {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    try {
+      filter.doFilter(request(uri), response, new MockFilterChain());
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String uri) {
+    return new MockHttpServletRequest("GET", uri);
+  }
+
+  private static void authenticate(String name, String... roles) {
+    SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+        name, null, AuthorityUtils.createAuthorityList(roles)));
+  }
+}
@@ -0,0 +1,68 @@
+package com.test.demo.model.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductMapperTest {
+
+  private ObjectMapper objectMapper;
+
+  private ProductMapper productMapper;
+
+  @BeforeEach
+  void setUp() {
+    objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    productMapper = new ProductMapper();
+  }
+
+  @Test
+  void toDto_whenComparedWithJackson_thenProducesSameResult() {
+    for (Product product : products()) {
+      assertEquals(objectMapper.convertValue(product, ProductDTO.class), productMapper.toDto(product));
+    }
+  }
+
+  @Test
+  void toEntity_whenComparedWithJackson_thenProducesSameResult() {
+    for (Product product : products()) {
+      ProductDTO productDTO = objectMapper.convertValue(product, ProductDTO.class);
+      assertEquals(objectMapper.convertValue(productDTO, Product.class), productMapper.toEntity(productDTO));
+    }
+  }
+
+  @Test
+  void toDto_whenNull_thenReturnsNull() {
+    assertNull(productMapper.toDto(null));
+    assertNull(productMapper.toEntity(null));
+  }
+
+  private static List<Product> products() {
+    Product full = new Product();
+    full.setId("66b0f1c2a4e5b31d8c7f0a11");
+    full.setName("Product \"with\" ünicode");
+    full.setStock(42);
+    full.setPrice(19.99);
+    full.setCreatedDate(LocalDateTime.of(2024, 8, 1, 12, 30, 15, 123_456_789));
+    full.setLastModifiedDate(LocalDateTime.of(2024, 8, 2, 9, 0));
+    full.setVersion(3L);
+
+    Product sparse = new Product();
+    sparse.setName("Sparse");
+
+    return List.of(full, sparse, new Product());
+  }
+}
@@ -0,0 +1,53 @@
+package com.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.test.demo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrencyLimitInterceptorTest {
+
+  @Test
+  void invoke_whenLimitReached_thenRejectsAfterTimeoutAndRecoversOnRelease() throws Throwable {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(1, Duration.ofMillis(50));
+    interceptor.bindTo(meterRegistry);
+
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    MethodInvocation slow = mock(MethodInvocation.class);
+    when(slow.proceed()).thenAnswer(invocation -> {
+      entered.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return "slow";
+    });
+    MethodInvocation fast = mock(MethodInvocation.class);
+    when(fast.proceed()).thenReturn("fast");
+
+    CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() -> {
+      try {
+        return interceptor.invoke(slow);
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    entered.await(10, TimeUnit.SECONDS);
+
+    assertEquals(1.0, meterRegistry.get("hub.mongo.operations.active").gauge().value());
+    assertThrows(ServiceOverloadedException.class, () -> interceptor.invoke(fast));
+    assertEquals(1.0, meterRegistry.get("hub.mongo.operations.rejected").counter().count());
+
+    release.countDown();
+    assertEquals("slow", holder.get(10, TimeUnit.SECONDS));
+    assertEquals("fast", interceptor.invoke(fast));
+  }
+}
@@ -0,0 +1,450 @@
+package com.test.demo.repository;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.repository.query.FluentQuery;
+
+/**
+ * A thread-safe, in-process stand-in for the Mongo backed {@link ProductRepository}, for benchmarks and load tests
+ * that should measure the application rather than the database.
+ * <p>
+ * Mirrors the Mongo semantics the service relies on: listings follow insertion order, single document updates are
+ * atomic, and callers only ever see copies, the same way every read from Mongo materialises a new entity. Query by
+ * example is not supported.
+ */
+public class InMemoryProductRepository implements ProductRepository {
+
+  private final ConcurrentMap<String, Stored> documents = new ConcurrentHashMap<>();
+
+  private final ConcurrentNavigableMap<Long, String> insertionOrder = new ConcurrentSkipListMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * The last buffered batch applied to a product, by writer and product id.
+   */
+  private final ConcurrentMap<String, Long> appliedBatches = new ConcurrentHashMap<>();
+
+  @Override
+  public <S extends Product> S save(S entity) {
+    if (entity.getId() == null) {
+      entity.setId(new ObjectId().toHexString());
+    }
+    Product copy = copy(entity);
+    documents.compute(entity.getId(), (id, existing) -> {
+      if (existing != null) {
+        return new Stored(existing.sequence(), copy);
+      }
+      long position = sequence.incrementAndGet();
+      insertionOrder.put(position, id);
+      return new Stored(position, copy);
+    });
+    return entity;
+  }
+
+  @Override
+  public <S extends Product> List<S> saveAll(Iterable<S> entities) {
+    List<S> saved = new ArrayList<>();
+    entities.forEach(entity -> saved.add(save(entity)));
+    return saved;
+  }
+
+  @Override
+  public <S extends Product> S insert(S entity) {
+    if (entity.getId() != null && documents.containsKey(entity.getId())) {
+      throw new IllegalStateException("Duplicate key " + entity.getId());
+    }
+    return save(entity);
+  }
+
+  @Override
+  public <S extends Product> List<S> insert(Iterable<S> entities) {
+    List<S> inserted = new ArrayList<>();
+    entities.forEach(entity -> inserted.add(insert(entity)));
+    return inserted;
+  }
+
+  @Override
+  public Optional<Product> findById(String id) {
+    Stored stored = documents.get(id);
+    return stored == null ? Optional.empty() : Optional.of(copy(stored.product()));
+  }
+
+  @Override
+  public boolean existsById(String id) {
+    return documents.containsKey(id);
+  }
+
+  @Override
+  public List<Product> findAll() {
+    return ordered().map(InMemoryProductRepository::copy).toList();
+  }
+
+  @Override
+  public List<Product> findAllById(Iterable<String> ids) {
+    Set<String> wanted = new HashSet<>();
+    ids.forEach(wanted::add);
+    return ordered().filter(product -> wanted.contains(product.getId())).map(InMemoryProductRepository::copy).toList();
+  }
+
+  @Override
+  public List<Product> findAll(Sort sort) {
+    return ordered().sorted(comparator(sort)).map(InMemoryProductRepository::copy).toList();
+  }
+
+  @Override
+  public Page<Product> findAll(Pageable pageable) {
+    Stream<Product> products = ordered();
+    if (pageable.getSort().isSorted()) {
+      products = products.sorted(comparator(pageable.getSort()));
+    }
+    if (pageable.isPaged()) {
+      products = products.skip(pageable.getOffset()).limit(pageable.getPageSize());
+    }
+    return new PageImpl<>(products.map(InMemoryProductRepository::copy).toList(), pageable, documents.size());
+  }
+
+  @Override
+  public long count() {
+    return documents.size();
+  }
+
+  @Override
+  public void deleteById(String id) {
+    Stored removed = documents.remove(id);
+    if (removed != null) {
+      insertionOrder.remove(removed.sequence());
+    }
+  }
+
+  @Override
+  public void delete(Product entity) {
+    deleteById(entity.getId());
+  }
+
+  @Override
+  public void deleteAllById(Iterable<? extends String> ids) {
+    ids.forEach(this::deleteById);
+  }
+
+  @Override
+  public void deleteAll(Iterable<? extends Product> entities) {
+    entities.forEach(this::delete);
+  }
+
+  @Override
+  public void deleteAll() {
+    documents.clear();
+    insertionOrder.clear();
+    appliedBatches.clear();
+  }
+
+  @Override
+  public Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit) {
+    Comparator<Product> comparator = comparator(sort);
+    Stream<Product> products = ordered().sorted(comparator);
+    if (position instanceof OffsetScrollPosition offset && !offset.isInitial()) {
+      products = products.skip(offset.getOffset() + 1);
+    }
+    if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+      Product boundary = fromKeys(keyset.getKeys());
+      products = products.filter(product -> comparator.compare(product, boundary) > 0);
+    }
+
+    int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+    List<Product> fetched = products.limit(max == Integer.MAX_VALUE ? Long.MAX_VALUE : max + 1L)
+        .map(InMemoryProductRepository::copy)
+        .toList();
+    List<Product> content = fetched.size() > max ? fetched.subList(0, max) : fetched;
+    return Window.from(content, index -> ScrollPosition.forward(keys(content.get(index), sort)),
+        fetched.size() > max);
+  }
+
+  @Override
+  public Stream<Product> streamAllBy() {
+    return ordered().map(InMemoryProductRepository::copy);
+  }
+
+  @Override
+  public Stream<Product> streamModifiedSince(LocalDateTime since) {
+    return ordered()
+        .filter(product -> {
+          LocalDateTime modified = product.getLastModifiedDate() != null
+              ? product.getLastModifiedDate()
+              : product.getCreatedDate();
+          return modified != null && !modified.isBefore(since);
+        })
+        .map(InMemoryProductRepository::copy);
+  }
+
+  @Override
+  public BulkUpsertResult bulkUpsert(List<Product> products) {
+    Set<Integer> inserted = new HashSet<>();
+    for (int i = 0; i < products.size(); i++) {
+      Product product = products.get(i);
+      boolean[] created = new boolean[1];
+      documents.compute(product.getId(), (id, existing) -> {
+        Product stored = existing == null ? new Product() : copy(existing.product());
+        stored.setId(id);
+        stored.setName(product.getName());
+        stored.setStock(product.getStock());
+        stored.setPrice(product.getPrice());
+        stored.setLastModifiedDate(product.getLastModifiedDate());
+        stored.setVersion(stored.getVersion() == null ? 1 : stored.getVersion() + 1);
+        if (existing != null) {
+          return new Stored(existing.sequence(), stored);
+        }
+        created[0] = true;
+        stored.setCreatedDate(product.getCreatedDate());
+        long position = sequence.incrementAndGet();
+        insertionOrder.put(position, id);
+        return new Stored(position, stored);
+      });
+      if (created[0]) {
+        inserted.add(i);
+      }
+    }
+    return new BulkUpsertResult(inserted, Map.of());
+  }
+
+  @Override
+  public Page<Product> findFiltered(ProductFilter filter, Pageable pageable) {
+    List<Product> matching = ordered().filter(product -> matches(filter, product)).toList();
+    Stream<Product> products = matching.stream();
+    if (pageable.getSort().isSorted()) {
+      products = products.sorted(comparator(pageable.getSort()));
+    }
+    if (pageable.isPaged()) {
+      products = products.skip(pageable.getOffset()).limit(pageable.getPageSize());
+    }
+    return new PageImpl<>(products.map(InMemoryProductRepository::copy).toList(), pageable, matching.size());
+  }
+
+  @Override
+  public Product updatePrice(String id, Double price, Long expectedVersion) {
+    return modify(id, expectedVersion, product -> {
+      product.setPrice(price);
+      return true;
+    });
+  }
+
+  @Override
+  public Product updateDetails(String id, String name, Integer stock, Double price, Long expectedVersion) {
+    return modify(id, expectedVersion, product -> {
+      product.setName(name);
+      product.setStock(stock);
+      product.setPrice(price);
+      return true;
+    });
+  }
+
+  @Override
+  public Product adjustStock(String id, int delta, Long expectedVersion) {
+    return modify(id, expectedVersion, product -> {
+      int stock = product.getStock() == null ? 0 : product.getStock();
+      if (delta < 0 && (product.getStock() == null || stock < -delta)) {
+        return false;
+      }
+      product.setStock(stock + delta);
+      return true;
+    });
+  }
+
+  @Override
+  public Map<String, String> applyBuffered(String writer, long batch, Map<String, BufferedProductUpdate> updates) {
+    updates.forEach((id, update) -> documents.computeIfPresent(id, (key, existing) -> {
+      String applied = writer + '\u0000' + id;
+      Long last = appliedBatches.get(applied);
+      if (last != null && last >= batch) {
+        return existing;
+      }
+      appliedBatches.put(applied, batch);
+      Product product = copy(existing.product());
+      if (update.price() != null) {
+        product.setPrice(update.price());
+      }
+      if (update.stockDelta() != 0) {
+        product.setStock((product.getStock() == null ? 0 : product.getStock()) + update.stockDelta());
+      }
+      product.setLastModifiedDate(LocalDateTime.now());
+      product.setVersion(product.getVersion() == null ? 1 : product.getVersion() + 1);
+      return new Stored(existing.sequence(), product);
+    }));
+    return Map.of();
+  }
+
+  @Override
+  public <S extends Product> Optional<S> findOne(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product> List<S> findAll(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product> List<S> findAll(Example<S> example, Sort sort) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product> Page<S> findAll(Example<S> example, Pageable pageable) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product> long count(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product> boolean exists(Example<S> example) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  @Override
+  public <S extends Product, R> R findBy(Example<S> example,
+                                         Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+    throw new UnsupportedOperationException("Query by example is not supported");
+  }
+
+  /**
+   * The equivalent of a {@code findAndModify} with {@code returnNew}: applies {@code change} atomically when the
+   * version matches and the change accepts the document, bumping version and modification date.
+   */
+  private Product modify(String id, Long expectedVersion, Function<Product, Boolean> change) {
+    Product[] updated = new Product[1];
+    documents.computeIfPresent(id, (key, existing) -> {
+      if (expectedVersion != null && !expectedVersion.equals(existing.product().getVersion())) {
+        return existing;
+      }
+      Product product = copy(existing.product());
+      if (!change.apply(product)) {
+        return existing;
+      }
+      product.setLastModifiedDate(LocalDateTime.now());
+      product.setVersion(product.getVersion() == null ? 1 : product.getVersion() + 1);
+      updated[0] = copy(product);
+      return new Stored(existing.sequence(), product);
+    });
+    return updated[0];
+  }
+
+  private Stream<Product> ordered() {
+    return StreamSupport.stream(insertionOrder.values().spliterator(), false)
+        .map(documents::get)
+        .filter(stored -> stored != null)
+        .map(Stored::product);
+  }
+
+  private static Comparator<Product> comparator(Sort sort) {
+    Comparator<Product> comparator = (left, right) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<Product> byProperty = Comparator.comparing(product -> (Comparable) property(product,
+          order.getProperty()), Comparator.nullsFirst(Comparator.naturalOrder()));
+      comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+    }
+    return comparator;
+  }
+
+  /**
+   * Keyset keys the way Mongo reports them: stored field names and BSON values, so {@code _id} and {@link Date}s.
+   */
+  private static Map<String, Object> keys(Product product, Sort sort) {
+    Map<String, Object> keys = new LinkedHashMap<>();
+    sort.forEach(order -> {
+      Object value = property(product, order.getProperty());
+      if (value instanceof LocalDateTime dateTime) {
+        value = Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+      }
+      keys.put(order.getProperty().equals("id") ? "_id" : order.getProperty(), value);
+    });
+    return keys;
+  }
+
+  private static Product fromKeys(Map<String, Object> keys) {
+    Product boundary = new Product();
+    keys.forEach((property, value) -> {
+      Object normalized = value instanceof Date date
+          ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault())
+          : value;
+      switch (property) {
+        case "id", "_id" -> boundary.setId(normalized == null ? null : normalized.toString());
+        case "name" -> boundary.setName((String) normalized);
+        case "stock" -> boundary.setStock(normalized == null ? null : ((Number) normalized).intValue());
+        case "price" -> boundary.setPrice(normalized == null ? null : ((Number) normalized).doubleValue());
+        case "createdDate" -> boundary.setCreatedDate((LocalDateTime) normalized);
+        case "lastModifiedDate" -> boundary.setLastModifiedDate((LocalDateTime) normalized);
+        case "version" -> boundary.setVersion(normalized == null ? null : ((Number) normalized).longValue());
+        default -> throw new IllegalArgumentException("Unknown product property " + property);
+      }
+    });
+    return boundary;
+  }
+
+  private static boolean matches(ProductFilter filter, Product product) {
+    Double price = product.getPrice();
+    return (filter.minPrice() == null || price != null && price >= filter.minPrice())
+        && (filter.maxPrice() == null || price != null && price <= filter.maxPrice())
+        && (!filter.inStock() || product.getStock() != null && product.getStock() > 0)
+        && (filter.namePrefix() == null || product.getName() != null && product.getName().startsWith(filter.namePrefix()));
+  }
+
+  private static Object property(Product product, String property) {
+    return switch (property) {
+      case "id", "_id" -> product.getId();
+      case "name" -> product.getName();
+      case "stock" -> product.getStock();
+      case "price" -> product.getPrice();
+      case "createdDate" -> product.getCreatedDate();
+      case "lastModifiedDate" -> product.getLastModifiedDate();
+      case "version" -> product.getVersion();
+      default -> throw new IllegalArgumentException("Unknown product property " + property);
+    };
+  }
+
+  private static Product copy(Product source) {
+    Product copy = new Product();
+    copy.setId(source.getId());
+    copy.setName(source.getName());
+    copy.setStock(source.getStock());
+    copy.setPrice(source.getPrice());
+    copy.setCreatedDate(source.getCreatedDate());
+    copy.setLastModifiedDate(source.getLastModifiedDate());
+    copy.setVersion(source.getVersion());
+    return copy;
+  }
+
+  private record Stored(long sequence, Product product) { }
+}
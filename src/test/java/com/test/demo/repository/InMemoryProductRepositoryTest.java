@@ -0,0 +1,85 @@
+package com.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductFilter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+public class InMemoryProductRepositoryTest {
+
+  private InMemoryProductRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryProductRepository();
+    IntStream.range(0, 5).forEach(i -> {
+      Product product = new Product();
+      product.setId("p" + i);
+      product.setName("Product" + (4 - i));
+      product.setStock(i);
+      product.setPrice(10.0 + i);
+      product.setCreatedDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i));
+      product.setVersion(0L);
+      repository.save(product);
+    });
+  }
+
+  @Test
+  void findAll_whenPaged_thenFollowsInsertionOrder() {
+    List<Product> content = repository.findAll(PageRequest.of(1, 2)).getContent();
+
+    assertEquals(List.of("p2", "p3"), content.stream().map(Product::getId).toList());
+  }
+
+  @Test
+  void findFiltered_whenPriceRangeAndInStock_thenSortsMatchesAndCountsAll() {
+    Page<Product> page = repository.findFiltered(new ProductFilter(10.0, 13.0, true, null),
+        PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price", "id")));
+
+    assertEquals(List.of("p3", "p2"), page.getContent().stream().map(Product::getId).toList());
+    assertEquals(3, page.getTotalElements());
+  }
+
+  @Test
+  void findAllBy_whenScrollingByKeyset_thenContinuesAfterLastKey() {
+    Sort sort = Sort.by(Sort.Direction.ASC, "name", "id");
+
+    Window<Product> first = repository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(2));
+    Window<Product> second = repository.findAllBy(first.positionAt(first.size() - 1), sort, Limit.of(2));
+
+    assertEquals(List.of("p4", "p3"), first.stream().map(Product::getId).toList());
+    assertTrue(first.hasNext());
+    assertEquals(List.of("p2", "p1"), second.stream().map(Product::getId).toList());
+  }
+
+  @Test
+  void adjustStock_whenStockInsufficient_thenLeavesDocumentUnchanged() {
+    assertNull(repository.adjustStock("p1", -2, null));
+
+    Product adjusted = repository.adjustStock("p1", -1, 0L);
+    assertEquals(0, adjusted.getStock());
+    assertEquals(1L, adjusted.getVersion());
+    assertNull(repository.updatePrice("p1", 1.0, 0L));
+  }
+
+  @Test
+  void findById_whenCallerMutatesResult_thenStoredDocumentIsUnchanged() {
+    repository.findById("p0").orElseThrow().setName("Changed");
+
+    assertFalse(repository.findById("p0").orElseThrow().getName().equals("Changed"));
+  }
+}
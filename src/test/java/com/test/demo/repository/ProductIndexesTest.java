@@ -0,0 +1,61 @@
+package com.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+public class ProductIndexesTest {
+
+  @Test
+  void report_whenClassicPlanScansIndex_thenIsNotFlagged() {
+    Document plan = Document.parse("""
+        { "stage": "LIMIT", "inputStage": { "stage": "FETCH", "inputStage":
+          { "stage": "IXSCAN", "indexName": "price_id" } } }""");
+
+    QueryPlanReport report = ProductIndexes.report("price", Document.parse("{ price: { $gte: 10 } }"),
+        Document.parse("{ price: 1, _id: 1 }"), plan);
+
+    assertEquals(List.of("LIMIT", "FETCH", "IXSCAN"), report.stages());
+    assertEquals(List.of("price_id"), report.indexes());
+    assertFalse(report.flagged());
+  }
+
+  @Test
+  void report_whenSlotBasedPlanSortsInMemory_thenIsFlagged() {
+    Document plan = Document.parse("""
+        { "queryPlan": { "stage": "SORT", "inputStage": { "stage": "FETCH", "inputStage":
+          { "stage": "IXSCAN", "indexName": "stock_id" } } }, "slotBasedPlan": {} }""");
+
+    QueryPlanReport report = ProductIndexes.report("in stock sorted by name", Document.parse("{ stock: { $gt: 0 } }"),
+        Document.parse("{ name: 1, _id: 1 }"), plan);
+
+    assertEquals(List.of("SORT", "FETCH", "IXSCAN"), report.stages());
+    assertTrue(report.flagged());
+  }
+
+  @Test
+  void report_whenOrBranchScansCollection_thenIsFlagged() {
+    Document plan = Document.parse("""
+        { "stage": "SUBPLAN", "inputStage": { "stage": "OR", "inputStages": [
+          { "stage": "IXSCAN", "indexName": "lastModifiedDate_createdDate" }, { "stage": "COLLSCAN" } ] } }""");
+
+    QueryPlanReport report = ProductIndexes.report("export", Document.parse("{ $or: [] }"), new Document(), plan);
+
+    assertEquals(List.of("lastModifiedDate_createdDate"), report.indexes());
+    assertTrue(report.flagged());
+  }
+
+  @Test
+  void report_whenUnfilteredListingScansCollection_thenIsNotFlagged() {
+    Document plan = Document.parse("{ \"stage\": \"LIMIT\", \"inputStage\": { \"stage\": \"COLLSCAN\" } }");
+
+    QueryPlanReport report = ProductIndexes.report("listing", new Document(), new Document(), plan);
+
+    assertTrue(report.indexes().isEmpty());
+    assertFalse(report.flagged());
+  }
+}
@@ -0,0 +1,88 @@
+package com.test.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.test.demo.model.dto.ProductDTO;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductSearchIndexTest {
+
+  private ProductSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new ProductSearchIndex();
+    index.put(product("1", "Red Wine Glass"));
+    index.put(product("2", "Wine"));
+    index.put(product("3", "Winter Jacket"));
+    index.put(product("4", "Crème Brûlée Torch"));
+  }
+
+  @Test
+  void tokenize_whenNameHasCaseAccentsAndPunctuation_thenReturnsPlainWords() {
+    assertArrayEquals(new String[] {"creme", "brulee", "torch", "2"},
+        ProductSearchIndex.tokenize("Crème-Brûlée  TORCH (2)"));
+  }
+
+  @Test
+  void search_whenPrefixTyped_thenRanksExactAndLeadingMatchesFirst() {
+    assertEquals(List.of("2", "3", "1"), ids(index.search("win", 10)));
+    assertEquals(List.of("2", "1"), ids(index.search("wine", 10)));
+  }
+
+  @Test
+  void search_whenSeveralWords_thenEveryWordMustMatch() {
+    assertEquals(List.of("1"), ids(index.search("wine gl", 10)));
+    assertEquals(List.of("4"), ids(index.search("creme TORCH", 10)));
+    assertEquals(List.of(), ids(index.search("wine jacket", 10)));
+  }
+
+  @Test
+  void search_whenLimitReached_thenKeepsBestMatches() {
+    assertEquals(List.of("2"), ids(index.search("win", 1)));
+  }
+
+  @Test
+  void put_whenProductRenamed_thenOldWordsNoLongerMatch() {
+    index.put(product("2", "Whisky"));
+
+    assertEquals(List.of("3", "1"), ids(index.search("win", 10)));
+    assertEquals(List.of("2"), ids(index.search("whi", 10)));
+  }
+
+  @Test
+  void put_whenOlderVersionArrivesLate_thenNewerStateIsKept() {
+    index.put(new ProductDTO("2", "Whisky", 1, 10.0, null, 2L));
+    index.put(new ProductDTO("2", "Wine", 1, 10.0, null, 1L));
+
+    assertEquals(List.of("2"), ids(index.search("whisky", 10)));
+  }
+
+  @Test
+  void load_whenProductRemovedOrUpdatedDuringScan_thenScannedCopyIsIgnored() {
+    Stream<ProductDTO> scanned = Stream.of(product("5", "Wine Rack"), product("6", "Wine Cooler"),
+            product("3", "Stale Name"))
+        .peek(product -> {
+          if (product.id().equals("5")) {
+            index.remove("6");
+          }
+        });
+
+    assertEquals(1, index.load(scanned));
+
+    assertEquals(List.of("2", "5", "1"), ids(index.search("wine", 10)));
+    assertEquals(List.of("3"), ids(index.search("winter", 10)));
+  }
+
+  private static List<String> ids(List<ProductDTO> products) {
+    return products.stream().map(ProductDTO::id).toList();
+  }
+
+  private static ProductDTO product(String id, String name) {
+    return new ProductDTO(id, name, 1, 10.0, null, 0L);
+  }
+}
@@ -0,0 +1,107 @@
+package com.test.demo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class CachingAuthenticationProviderTest {
+
+  private PasswordEncoder passwordEncoder;
+
+  private ObservableUserDetailsManager userDetailsManager;
+
+  private CachingAuthenticationProvider provider;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = spy(new PlainTextPasswordEncoder());
+    userDetailsManager = new ObservableUserDetailsManager(
+        User.withUsername("user").password("password").roles("USER").build());
+
+    DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(passwordEncoder);
+    delegate.setUserDetailsService(userDetailsManager);
+    provider = new CachingAuthenticationProvider(delegate, 100, Duration.ofMinutes(5));
+    userDetailsManager.onUserChanged(provider::invalidate);
+  }
+
+  @Test
+  void authenticate_whenSameCredentialsRepeated_thenPasswordIsVerifiedOnce() {
+    Authentication first = provider.authenticate(credentials("user", "password"));
+    Authentication second = provider.authenticate(credentials("user", "password"));
+
+    assertTrue(first.isAuthenticated());
+    assertTrue(second.isAuthenticated());
+    assertEquals("user", second.getName());
+    assertEquals(first.getAuthorities(), second.getAuthorities());
+    verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    assertEquals(1, provider.getCache().stats().hitCount());
+  }
+
+  @Test
+  void authenticate_whenWrongPassword_thenNotCachedAndAlwaysVerified() {
+    provider.authenticate(credentials("user", "password"));
+
+    assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+    assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+
+    verify(passwordEncoder, times(3)).matches(anyString(), anyString());
+  }
+
+  @Test
+  void authenticate_whenUserChanged_thenCachedCredentialsAreInvalidated() {
+    provider.authenticate(credentials("user", "password"));
+
+    userDetailsManager.updateUser(User.withUsername("user").password("changed").roles("USER").build());
+
+    assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "password")));
+    assertTrue(provider.authenticate(credentials("user", "changed")).isAuthenticated());
+  }
+
+  @Test
+  void authenticate_whenUserInvalidatedWhileVerifying_thenResultIsNotCached() {
+    // The user changes after the old hash was checked, before the result is cached
+    doAnswer(invocation -> {
+      provider.invalidate("user");
+      return invocation.callRealMethod();
+    }).when(passwordEncoder).matches(anyString(), anyString());
+
+    assertTrue(provider.authenticate(credentials("user", "password")).isAuthenticated());
+
+    assertEquals(0, provider.getCache().estimatedSize());
+  }
+
+  private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+  }
+
+  /**
+   * Compares passwords as given, so tests run without hashing.
+   */
+  static class PlainTextPasswordEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      return rawPassword.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return rawPassword.toString().equals(encodedPassword);
+    }
+  }
+}
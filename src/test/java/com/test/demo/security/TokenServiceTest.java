@@ -0,0 +1,91 @@
+package com.test.demo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.test.demo.model.dto.AccessToken;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+public class TokenServiceTest {
+
+  private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+  private static final Instant NOW = Instant.parse("2024-08-01T10:00:00Z");
+
+  private TokenService tokenService;
+
+  @BeforeEach
+  void setUp() {
+    tokenService = new TokenService(SECRET, Duration.ofMinutes(15), Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @Test
+  void issue_whenDecoded_thenCarriesNameAndRolesAsAuthorities() {
+    AccessToken token = tokenService.issue(authenticated("admin", "ROLE_ADMIN"));
+
+    Jwt jwt = tokenService.jwtDecoder().decode(token.accessToken());
+    AbstractAuthenticationToken authentication = TokenService.authenticationConverter().convert(jwt);
+
+    assertEquals("Bearer", token.tokenType());
+    assertEquals(900, token.expiresIn());
+    assertEquals("admin", authentication.getName());
+    assertEquals(Set.of("ROLE_ADMIN"), authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .collect(Collectors.toSet()));
+  }
+
+  @Test
+  void decode_whenExpired_thenRejected() {
+    AccessToken token = tokenService.issue(authenticated("user", "ROLE_USER"));
+    TokenService later = new TokenService(SECRET, Duration.ofMinutes(15),
+        Clock.fixed(NOW.plus(Duration.ofMinutes(20)), ZoneOffset.UTC));
+
+    JwtValidationException rejected = assertThrows(JwtValidationException.class,
+        () -> later.jwtDecoder().decode(token.accessToken()));
+    assertTrue(rejected.getMessage().contains("expired"));
+  }
+
+  @Test
+  void decode_whenSignedWithAnotherKey_thenRejected() {
+    AccessToken token = new TokenService("", Duration.ofMinutes(15)).issue(authenticated("user", "ROLE_USER"));
+
+    assertThrows(BadJwtException.class, () -> tokenService.jwtDecoder().decode(token.accessToken()));
+  }
+
+  @Test
+  void reactiveDecoder_whenValidToken_thenDecodesSameClaims() {
+    AccessToken token = tokenService.issue(authenticated("user", "ROLE_USER"));
+
+    Jwt jwt = tokenService.reactiveJwtDecoder().decode(token.accessToken()).block();
+
+    assertEquals("user", jwt.getSubject());
+    assertEquals(TokenService.ISSUER, jwt.getClaimAsString("iss"));
+  }
+
+  @Test
+  void constructor_whenSecretTooShort_thenRejected() {
+    String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+
+    assertThrows(IllegalArgumentException.class, () -> new TokenService(shortSecret, Duration.ofMinutes(15)));
+  }
+
+  private static UsernamePasswordAuthenticationToken authenticated(String name, String... roles) {
+    return UsernamePasswordAuthenticationToken.authenticated(name, null, AuthorityUtils.createAuthorityList(roles));
+  }
+}
@@ -0,0 +1,105 @@
+package com.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.demo.cache.AccessFrequencies;
+import com.test.demo.cache.AccessSnapshot;
+import com.test.demo.cache.AccessSnapshot.PageCount;
+import com.test.demo.cache.AccessSnapshot.ProductCount;
+import com.test.demo.cache.AccessSnapshotStore;
+import com.test.demo.model.dto.ProductLookup;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProductCacheWarmerTest {
+
+  @TempDir
+  Path directory;
+
+  private ProductService productService;
+
+  private AccessFrequencies accessFrequencies;
+
+  private AccessSnapshotStore snapshotStore;
+
+  @BeforeEach
+  void setUp() {
+    productService = mock(ProductService.class);
+    accessFrequencies = new AccessFrequencies(true, 100);
+    snapshotStore = new AccessSnapshotStore(directory.resolve("snapshot.json"), new ObjectMapper());
+  }
+
+  @Test
+  void warm_whenSnapshotSaved_thenLoadsPagesAndProductsInLookupChunks() {
+    snapshotStore.save(new AccessSnapshot(
+        List.of(new ProductCount("a", 9), new ProductCount("b", 5), new ProductCount("c", 2)),
+        List.of(new PageCount(0, 20, 7))));
+    when(productService.lookupProducts(List.of("a", "b"))).thenReturn(new ProductLookup(List.of(), List.of()));
+    ProductCacheWarmer warmer = warmer(Duration.ofSeconds(5));
+
+    warmer.start();
+    warmer.run(null);
+    warmer.stop();
+
+    verify(productService).getAllProducts(0, 20);
+    verify(productService).lookupProducts(List.of("a", "b"));
+    verify(productService).lookupProducts(List.of("c"));
+  }
+
+  @Test
+  void warm_whenBudgetExceeded_thenReturnsWithoutWaitingForSlowLoads() throws Exception {
+    CountDownLatch never = new CountDownLatch(1);
+    when(productService.lookupProducts(List.of("a"))).thenAnswer(invocation -> {
+      never.await();
+      return null;
+    });
+    ProductCacheWarmer warmer = warmer(Duration.ofMillis(200));
+
+    long started = System.nanoTime();
+    int completed = warmer.warm(new AccessSnapshot(List.of(new ProductCount("a", 1)),
+        List.of(new PageCount(0, 20, 1), new PageCount(1, 20, 1))));
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+    assertEquals(2, completed);
+    verify(productService).getAllProducts(0, 20);
+    verify(productService).getAllProducts(1, 20);
+  }
+
+  @Test
+  void stop_whenReadsCounted_thenSnapshotSavedForNextStartWithPreviousCounts() {
+    snapshotStore.save(new AccessSnapshot(List.of(new ProductCount("old", 4)), List.of()));
+    ProductCacheWarmer warmer = warmer(Duration.ofSeconds(5));
+
+    warmer.start();
+    accessFrequencies.productRead("new");
+    accessFrequencies.pageRead(0, 10);
+    warmer.stop();
+
+    AccessSnapshot saved = snapshotStore.load();
+    assertEquals(List.of(new ProductCount("old", 4), new ProductCount("new", 1)), saved.products());
+    assertEquals(List.of(new PageCount(0, 10, 1)), saved.pages());
+  }
+
+  @Test
+  void load_whenSnapshotUnreadable_thenStartsCold() throws Exception {
+    Files.writeString(directory.resolve("snapshot.json"), "{not json");
+
+    assertEquals(AccessSnapshot.EMPTY, snapshotStore.load());
+  }
+
+  private ProductCacheWarmer warmer(Duration budget) {
+    return new ProductCacheWarmer(productService, accessFrequencies, snapshotStore, 10, 10, 2, budget,
+        Duration.ofMinutes(1), 2);
+  }
+}
@@ -0,0 +1,48 @@
+package com.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.test.demo.model.dto.ProductSortKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+public class ProductCursorCodecTest {
+
+  @Test
+  void decode_whenIssuedCursor_thenReturnsItsPosition() {
+    KeysetScrollPosition position = ScrollPosition.forward(Map.of("name", "Product7", "id", "7"));
+    String cursor = ProductCursorCodec.encode(ProductSortKey.NAME, Sort.Direction.ASC, position);
+
+    ScrollPosition decoded = ProductCursorCodec.decode(cursor, ProductSortKey.NAME, Sort.Direction.ASC);
+
+    assertEquals(Map.of("name", "Product7", "id", "7"), ((KeysetScrollPosition) decoded).getKeys());
+  }
+
+  @Test
+  void decode_whenKeysIncludeAnotherField_thenFails() {
+    String cursor = cursor("name", new Document("name", "Product7").append("id", "7").append("price", 1.0));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductCursorCodec.decode(cursor, ProductSortKey.NAME, Sort.Direction.ASC));
+  }
+
+  @Test
+  void decode_whenIdKeyMissing_thenFails() {
+    String cursor = cursor("name", new Document("name", "Product7"));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> ProductCursorCodec.decode(cursor, ProductSortKey.NAME, Sort.Direction.ASC));
+  }
+
+  private static String cursor(String sort, Document keys) {
+    Document token = new Document("sort", sort).append("direction", "ASC").append("keys", keys);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toJson().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,82 @@
+package com.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.model.Product;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.ProductRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ProductExportServiceTest {
+
+  private ProductRepository productRepository;
+
+  private ProductExportService productExportService;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ProductRepository.class);
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+    objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    productExportService = new ProductExportService(productRepository, new ProductMapper(), objectMapper, 2);
+  }
+
+  @Test
+  void exportProducts_whenCalled_thenWritesOneJsonObjectPerLine() throws Exception {
+    when(productRepository.streamAllBy()).thenReturn(products(3));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long exported = productExportService.exportProducts(null, false, out);
+
+    assertEquals(3, exported);
+    assertEquals("""
+        {"id":"0","name":"Product0","stock":0,"price":10.0,"createdDate":"2024-08-01T00:00:00","lastModifiedDate":null,"version":null}
+        {"id":"1","name":"Product1","stock":1,"price":11.0,"createdDate":"2024-08-01T00:00:00","lastModifiedDate":null,"version":null}
+        {"id":"2","name":"Product2","stock":2,"price":12.0,"createdDate":"2024-08-01T00:00:00","lastModifiedDate":null,"version":null}
+        """, out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void exportProducts_whenModifiedSinceAndGzip_thenStreamsFilteredCompressedOutput() throws Exception {
+    LocalDateTime since = LocalDateTime.of(2024, 8, 1, 0, 0);
+    when(productRepository.streamModifiedSince(since)).thenReturn(products(1));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    productExportService.exportProducts(since, true, out);
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals("{\"id\":\"0\",\"name\":\"Product0\",\"stock\":0,\"price\":10.0,"
+              + "\"createdDate\":\"2024-08-01T00:00:00\",\"lastModifiedDate\":null,\"version\":null}\n",
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    verify(productRepository, never()).streamAllBy();
+  }
+
+  private static Stream<Product> products(int count) {
+    return IntStream.range(0, count).mapToObj(i -> {
+      Product product = new Product();
+      product.setId(String.valueOf(i));
+      product.setName("Product" + i);
+      product.setStock(i);
+      product.setPrice(10.0 + i);
+      product.setCreatedDate(LocalDateTime.of(2024, 8, 1, 0, 0));
+      return product;
+    });
+  }
+}
@@ -0,0 +1,194 @@
+package com.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.BatchItemResult.Status;
+import com.test.demo.model.dto.BatchResult;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BulkUpsertResult;
+import com.test.demo.repository.ProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+
+public class ProductImportServiceTest {
+
+  private ProductRepository productRepository;
+
+  private ProductPageCache productPageCache;
+
+  private Cache productCache;
+
+  private ProductSearchIndex productSearchIndex;
+
+  private ProductImportService productImportService;
+
+  private List<List<Product>> chunks;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ProductRepository.class);
+    productPageCache = mock(ProductPageCache.class);
+    productCache = mock(Cache.class);
+    productSearchIndex = new ProductSearchIndex();
+    CacheManager cacheManager = mock(CacheManager.class);
+    when(cacheManager.getCache("products")).thenReturn(productCache);
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    productImportService = new ProductImportService(productRepository, new ProductMapper(), productPageCache,
+        cacheManager, productSearchIndex, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), 2,
+        new MissingProductCache(cacheManager));
+
+    chunks = new ArrayList<>();
+    when(productRepository.bulkUpsert(anyList())).thenAnswer(invocation -> {
+      List<Product> chunk = List.copyOf(invocation.getArgument(0));
+      chunks.add(chunk);
+      return chunks.size() == 1
+          ? new BulkUpsertResult(Set.of(0), Map.of())
+          : new BulkUpsertResult(Set.of(), Map.of(1, "E11000 duplicate key"));
+    });
+    when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+      List<String> ids = new ArrayList<>();
+      ((Iterable<String>) invocation.getArgument(0)).forEach(ids::add);
+      return chunks.stream().flatMap(List::stream).filter(product -> ids.contains(product.getId())).toList();
+    });
+  }
+
+  @Test
+  void importProducts_whenJsonArray_thenWritesInChunksAndReportsEveryItem() throws Exception {
+    String body = """
+        [
+          {"name": "New", "stock": 1, "price": 1.0},
+          {"id": "existing", "name": "Existing", "stock": 2, "price": 2.0},
+          {"name": "", "price": -1.0},
+          {"id": "other", "name": "Other", "price": 3.0},
+          {"id": "broken", "name": "Broken", "price": 4.0}
+        ]""";
+
+    BatchResult result = productImportService.importProducts(stream(body), MediaType.APPLICATION_JSON);
+
+    assertEquals(1, result.created());
+    assertEquals(2, result.updated());
+    assertEquals(2, result.failed());
+    assertEquals(5, result.items().size());
+    assertEquals(Status.CREATED, result.items().get(0).status());
+    assertNotNull(result.items().get(0).id());
+    assertEquals(Status.UPDATED, result.items().get(1).status());
+    assertEquals(Status.INVALID, result.items().get(2).status());
+    assertEquals(Set.of("name", "price"), ((Map<?, ?>) result.items().get(2).errors()).keySet());
+    assertEquals(Status.UPDATED, result.items().get(3).status());
+    assertEquals(Status.FAILED, result.items().get(4).status());
+    assertEquals(4, result.items().get(4).index());
+
+    assertEquals(2, chunks.size());
+    assertEquals(List.of("Existing", "Other", "Broken"),
+        List.of(chunks.get(0).get(1).getName(), chunks.get(1).get(0).getName(), chunks.get(1).get(1).getName()));
+    verify(productCache).evict("existing");
+    verify(productCache).evict("other");
+    verify(productPageCache, times(1)).clear();
+    assertEquals(3, productSearchIndex.size());
+    assertEquals(List.of("other"), productSearchIndex.search("oth", 10).stream().map(ProductDTO::id).toList());
+    assertEquals(List.of(), productSearchIndex.search("broken", 10));
+  }
+
+  @Test
+  void importProducts_whenNdjson_thenMalformedLinesAreReportedAndOthersWritten() throws Exception {
+    String body = """
+        {"name": "New", "price": 1.0}
+        {"name": "Truncated",
+
+        {"id": "existing", "name": "Existing", "price": 2.0}
+        """;
+
+    BatchResult result = productImportService.importProducts(stream(body), MediaType.APPLICATION_NDJSON);
+
+    assertEquals(3, result.items().size());
+    assertEquals(Status.CREATED, result.items().get(0).status());
+    assertEquals(Status.INVALID, result.items().get(1).status());
+    assertEquals(Status.UPDATED, result.items().get(2).status());
+    assertEquals(1, chunks.size());
+  }
+
+  @Test
+  void importProducts_whenItemIsNull_thenItIsRejectedAndOthersWritten() throws Exception {
+    BatchResult array = productImportService.importProducts(
+        stream("[null, {\"name\": \"New\", \"price\": 1.0}]"), MediaType.APPLICATION_JSON);
+    BatchResult ndjson = productImportService.importProducts(
+        stream("null\n{\"name\": \"New\", \"price\": 1.0}\n"), MediaType.APPLICATION_NDJSON);
+
+    for (BatchResult result : List.of(array, ndjson)) {
+      assertEquals(1, result.failed());
+      assertEquals(Status.INVALID, result.items().get(0).status());
+      assertEquals(Map.of("item", "must not be null"), result.items().get(0).errors());
+      assertEquals(1, result.created() + result.updated());
+    }
+  }
+
+  @Test
+  void importProducts_whenBodyBreaksAfterAChunkWasWritten_thenCachesAreStillInvalidated() {
+    String body = """
+        [
+          {"name": "New", "price": 1.0},
+          {"id": "existing", "name": "Existing", "price": 2.0},
+          {"name": "Truncated",
+        """;
+
+    assertThrows(IOException.class,
+        () -> productImportService.importProducts(stream(body), MediaType.APPLICATION_JSON));
+
+    assertEquals(1, chunks.size());
+    verify(productCache).evict("existing");
+    verify(productPageCache).clear();
+  }
+
+  @Test
+  void importProducts_whenLaterChunkWriteThrows_thenItsProductsAreEvictedToo() {
+    when(productRepository.bulkUpsert(anyList()))
+        .thenReturn(new BulkUpsertResult(Set.of(), Map.of()))
+        .thenThrow(new DataAccessResourceFailureException("connection reset"));
+    String body = """
+        [
+          {"id": "first", "name": "First", "price": 1.0},
+          {"id": "second", "name": "Second", "price": 2.0},
+          {"id": "third", "name": "Third", "price": 3.0}
+        ]""";
+
+    assertThrows(DataAccessResourceFailureException.class,
+        () -> productImportService.importProducts(stream(body), MediaType.APPLICATION_JSON));
+
+    verify(productCache).evict("first");
+    verify(productCache).evict("second");
+    verify(productCache).evict("third");
+    verify(productPageCache).clear();
+  }
+
+  private static ByteArrayInputStream stream(String body) {
+    return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+  }
+}
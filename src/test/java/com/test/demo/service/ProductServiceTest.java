@@ -3,19 +3,40 @@ package com.test.demo.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.test.demo.exception.ProductConflictException;
 import com.test.demo.exception.ProductNotFoundException;
 import com.test.demo.model.Product;
+import com.test.demo.model.dto.CursorPage;
 import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.dto.ProductLookup;
+import com.test.demo.model.dto.ProductSortKey;
 import com.test.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -24,10 +45,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 @SpringBootTest
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +65,9 @@ public class ProductServiceTest {
   @Autowired
   private ProductService productService;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   @Captor
   private ArgumentCaptor<Product> productCaptor;
 
@@ -77,8 +106,8 @@ public class ProductServiceTest {
     product.setPrice(productDTO.price());
     product.setCreatedDate(currentTime);
 
-    when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-    when(productRepository.save(any(Product.class))).thenReturn(product);
+    when(productRepository.updateDetails(productId, productDTO.name(), productDTO.stock(), productDTO.price(), null))
+        .thenReturn(product);
 
     ProductDTO updatedProduct = productService.updateProduct(productId, productDTO);
     assertEquals(productDTO.name(), updatedProduct.name());
@@ -110,14 +139,16 @@ public class ProductServiceTest {
     product.setPrice(productDTO.price());
     product.setCreatedDate(currentTime);
 
-    when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-    when(productRepository.save(any(Product.class))).thenReturn(product);
+    when(productRepository.updatePrice(productId, 50.0, null)).thenReturn(product);
 
-    ProductDTO updatedProduct = productService.updateProductPrice(productId, 50.0);
+    ProductDTO updatedProduct = productService.updateProductPrice(productId, 50.0, null);
     assertEquals(productDTO.name(), updatedProduct.name());
     assertEquals(productDTO.stock(), updatedProduct.stock());
     assertEquals(productDTO.price(), updatedProduct.price());
     assertEquals(product.getCreatedDate(), updatedProduct.createdDate());
+
+    assertEquals(50.0, productService.getProductById(productId).price());
+    verify(productRepository, never()).findById(productId);
   }
 
   @Test
@@ -125,7 +156,56 @@ public class ProductServiceTest {
     String productId = "123";
     when(productRepository.findById(productId)).thenReturn(Optional.empty());
 
-    assertThrows(ProductNotFoundException.class, () -> productService.updateProductPrice(productId, 50.0));
+    assertThrows(ProductNotFoundException.class, () -> productService.updateProductPrice(productId, 50.0, null));
+  }
+
+  @Test
+  void updateProductPrice_whenVersionIsStale_thenThrowsConflict() {
+    String productId = "stale-version";
+    Product product = new Product();
+    product.setId(productId);
+    product.setVersion(4L);
+
+    when(productRepository.updatePrice(productId, 50.0, 3L)).thenReturn(null);
+    when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+
+    assertThrows(ProductConflictException.class, () -> productService.updateProductPrice(productId, 50.0, 3L));
+  }
+
+  @Test
+  void adjustStock_whenStockCoversDelta_thenReturnsAdjustedProduct() {
+    String productId = "stock-adjusted";
+    Product product = new Product();
+    product.setId(productId);
+    product.setStock(7);
+    product.setVersion(2L);
+
+    when(productRepository.adjustStock(productId, -3, null)).thenReturn(product);
+
+    ProductDTO adjusted = productService.adjustStock(productId, -3, null);
+    assertEquals(7, adjusted.stock());
+    assertEquals(2L, adjusted.version());
+  }
+
+  @Test
+  void adjustStock_whenStockInsufficient_thenThrowsConflict() {
+    String productId = "stock-insufficient";
+    Product product = new Product();
+    product.setId(productId);
+    product.setStock(2);
+
+    when(productRepository.adjustStock(productId, -3, null)).thenReturn(null);
+    when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+
+    assertThrows(ProductConflictException.class, () -> productService.adjustStock(productId, -3, null));
+  }
+
+  @Test
+  void adjustStock_whenProductNotFound_thenThrowsException() {
+    String productId = "stock-missing";
+    when(productRepository.findById(productId)).thenReturn(Optional.empty());
+
+    assertThrows(ProductNotFoundException.class, () -> productService.adjustStock(productId, 5, null));
   }
 
   @Test
@@ -169,6 +249,20 @@ public class ProductServiceTest {
     assertThrows(ProductNotFoundException.class, () -> productService.getProductById(productId));
   }
 
+  @Test
+  void getProductById_whenCalled_thenServiceLayerIsTimedByOutcome() {
+    String productId = "timed-missing";
+    when(productRepository.findById(productId)).thenReturn(Optional.empty());
+
+    assertThrows(ProductNotFoundException.class, () -> productService.getProductById(productId));
+
+    Timer timer = meterRegistry.find("hub.layer.duration")
+        .tags("layer", "service", "class", "ProductService", "method", "getProductById", "outcome", "error")
+        .timer();
+    assertNotNull(timer);
+    assertTrue(timer.count() >= 1);
+  }
+
   @Test
   void getAllProducts_whenCalled_thenReturnsPaginatedProducts() {
     int page = 0;
@@ -205,4 +299,202 @@ public class ProductServiceTest {
 
     verify(productRepository, times(1)).findAll(pageable);
   }
+
+  @Test
+  void findProducts_whenFiltered_thenQueriesSortedWithIdTieBreaker() {
+    ProductFilter filter = new ProductFilter(50.0, null, true, null);
+    Pageable pageable = PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "price", "id"));
+    Product product = new Product();
+    product.setId("filtered");
+    product.setName("Filtered");
+    product.setPrice(60.0);
+
+    when(productRepository.findFiltered(filter, pageable))
+        .thenReturn(new PageImpl<>(List.of(product), pageable, 6));
+
+    Page<ProductDTO> result = productService.findProducts(filter, ProductSortKey.PRICE, Sort.Direction.DESC, 1, 5);
+
+    assertEquals(6, result.getTotalElements());
+    assertEquals("Filtered", result.getContent().get(0).name());
+    verify(productRepository).findFiltered(filter, pageable);
+  }
+
+  @Test
+  void searchProducts_whenProductCreatedThenDeleted_thenIndexFollows() {
+    Product saved = new Product();
+    saved.setId("searchable");
+    saved.setName("Searchable Lamp");
+    saved.setPrice(30.0);
+    saved.setVersion(0L);
+    when(productRepository.save(any(Product.class))).thenReturn(saved);
+
+    productService.createProduct(new ProductDTO(null, "Searchable Lamp", null, 30.0, null));
+    assertEquals(List.of("searchable"),
+        productService.searchProducts("searchab", 10).stream().map(ProductDTO::id).toList());
+
+    productService.deleteProduct("searchable");
+    assertTrue(productService.searchProducts("searchab", 10).isEmpty());
+  }
+
+  @Test
+  void searchProducts_whenLimitAboveMaximum_thenThrowsException() {
+    assertThrows(IllegalArgumentException.class, () -> productService.searchProducts("lamp", 1000));
+  }
+
+  @Test
+  void lookupProducts_whenSomeCached_thenFetchesOnlyMissesInOneQueryAndCachesThem() {
+    when(productRepository.findById("lookup-cached")).thenReturn(Optional.of(product("lookup-cached")));
+    productService.getProductById("lookup-cached");
+    when(productRepository.findAllById(List.of("lookup-stored", "lookup-unknown")))
+        .thenReturn(List.of(product("lookup-stored")));
+
+    ProductLookup lookup = productService.lookupProducts(
+        List.of("lookup-stored", "lookup-cached", "lookup-unknown", "lookup-stored"));
+
+    assertEquals(List.of("lookup-stored", "lookup-cached"), lookup.products().stream().map(ProductDTO::id).toList());
+    assertEquals(List.of("lookup-unknown"), lookup.missing());
+
+    productService.lookupProducts(List.of("lookup-cached", "lookup-stored"));
+    verify(productRepository, times(1)).findAllById(any());
+  }
+
+  @Test
+  void lookupProducts_whenTooManyIds_thenThrowsException() {
+    List<String> ids = IntStream.range(0, 101).mapToObj(String::valueOf).toList();
+
+    assertThrows(IllegalArgumentException.class, () -> productService.lookupProducts(ids));
+  }
+
+  @Test
+  void getProductById_whenConcurrentMisses_thenRepositoryIsQueriedOnce() throws Exception {
+    String productId = "hot-product";
+    Product product = new Product();
+    product.setId(productId);
+    product.setName("Hot Product");
+    product.setStock(1);
+    product.setPrice(10.0);
+    product.setCreatedDate(LocalDateTime.now());
+
+    CountDownLatch release = new CountDownLatch(1);
+    when(productRepository.findById(productId)).thenAnswer(invocation -> {
+      release.await(10, TimeUnit.SECONDS);
+      return Optional.of(product);
+    });
+
+    List<ProductDTO> results = runConcurrently("products", release, () -> productService.getProductById(productId));
+
+    results.forEach(result -> assertEquals("Hot Product", result.name()));
+    verify(productRepository, times(1)).findById(productId);
+  }
+
+  @Test
+  void getAllProducts_whenConcurrentMisses_thenRepositoryIsQueriedOnce() throws Exception {
+    int page = 3;
+    int size = 7;
+    Pageable pageable = PageRequest.of(page, size);
+    Product product = new Product();
+    product.setId("page-product");
+    product.setName("Page Product");
+    product.setCreatedDate(LocalDateTime.now());
+
+    CountDownLatch release = new CountDownLatch(1);
+    when(productRepository.findAll(pageable)).thenAnswer(invocation -> {
+      release.await(10, TimeUnit.SECONDS);
+      return new PageImpl<>(List.of(product), pageable, 22);
+    });
+
+    List<Page<ProductDTO>> results = runConcurrently("paginatedProducts", release,
+        () -> productService.getAllProducts(page, size));
+
+    results.forEach(result -> assertEquals("Page Product", result.getContent().get(0).name()));
+    verify(productRepository, times(1)).findAll(pageable);
+  }
+
+  @Test
+  void getProductsByCursor_whenNextCursorPassedBack_thenSeeksFromLastKey() {
+    Product product1 = new Product();
+    product1.setId("1");
+    product1.setName("Product1");
+    Product product2 = new Product();
+    product2.setId("2");
+    product2.setName("Product2");
+    Date lastCreated = new Date(1_700_000_000_000L);
+
+    when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+        .thenReturn(Window.from(List.of(product1, product2),
+            index -> ScrollPosition.forward(Map.of("createdDate", lastCreated, "id", String.valueOf(index + 1))),
+            true));
+    when(productRepository.count()).thenReturn(5L);
+
+    CursorPage<ProductDTO> first = productService.getProductsByCursor(null, 2, ProductSortKey.CREATED_DATE,
+        Sort.Direction.ASC, true);
+
+    assertEquals(2, first.content().size());
+    assertTrue(first.hasNext());
+    assertNotNull(first.nextCursor());
+    assertNotNull(first.totalElements());
+
+    productService.getProductsByCursor(first.nextCursor(), 2, ProductSortKey.CREATED_DATE, Sort.Direction.ASC, false);
+
+    ArgumentCaptor<ScrollPosition> positions = ArgumentCaptor.forClass(ScrollPosition.class);
+    verify(productRepository, times(2)).findAllBy(positions.capture(),
+        eq(Sort.by(Sort.Direction.ASC, "createdDate", "id")), eq(Limit.of(2)));
+    assertTrue(positions.getAllValues().get(0).isInitial());
+    KeysetScrollPosition next = (KeysetScrollPosition) positions.getAllValues().get(1);
+    assertEquals(lastCreated, next.getKeys().get("createdDate"));
+    assertEquals("2", next.getKeys().get("id"));
+  }
+
+  @Test
+  void getProductsByCursor_whenCursorIssuedForOtherSort_thenThrowsException() {
+    when(productRepository.findAllBy(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+        .thenReturn(Window.from(List.of(new Product()), index -> ScrollPosition.forward(Map.of("name", "a", "id", "1")),
+            true));
+
+    String cursor = productService.getProductsByCursor(null, 1, ProductSortKey.NAME, Sort.Direction.ASC, false)
+        .nextCursor();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> productService.getProductsByCursor(cursor, 1, ProductSortKey.PRICE, Sort.Direction.ASC, false));
+    assertThrows(IllegalArgumentException.class,
+        () -> productService.getProductsByCursor("not-a-cursor", 1, ProductSortKey.NAME, Sort.Direction.ASC, false));
+  }
+
+  private <T> List<T> runConcurrently(String cacheName, CountDownLatch release, Callable<T> call) throws Exception {
+    int callers = 32;
+    Counter coalesced = meterRegistry.counter("cache.singleflight.coalesced", "cache", cacheName);
+    double coalescedBefore = coalesced.count();
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        futures.add(executor.submit(call));
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (coalesced.count() - coalescedBefore < callers - 1 && System.nanoTime() < deadline) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(callers - 1, coalesced.count() - coalescedBefore);
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Product product(String id) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Product " + id);
+    product.setStock(1);
+    product.setPrice(10.0);
+    product.setVersion(0L);
+    return product;
+  }
 }
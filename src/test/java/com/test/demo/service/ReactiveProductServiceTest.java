@@ -0,0 +1,221 @@
+package com.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.test.demo.cache.MissingProductCache;
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.exception.ProductConflictException;
+import com.test.demo.exception.ProductNotFoundException;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.dto.ProductFilter;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.ReactiveProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+public class ReactiveProductServiceTest {
+
+  private ReactiveProductRepository productRepository;
+
+  private Cache productCache;
+
+  private ReactiveProductService productService;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = mock(ReactiveProductRepository.class);
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("products",
+        MissingProductCache.CACHE_NAME, ProductPageCache.CACHE_NAME);
+    productCache = cacheManager.getCache("products");
+    productService = new ReactiveProductService(productRepository, new ProductMapper(), cacheManager,
+        new ProductSearchIndex(), 100, 3, new MissingProductCache(cacheManager), 100,
+        new ProductPageCache(cacheManager, new SimpleMeterRegistry()));
+  }
+
+  @Test
+  void getProductById_whenCalledTwice_thenSecondReadIsServedFromCache() {
+    when(productRepository.findById("1")).thenReturn(Mono.just(product("1", 5L)));
+
+    StepVerifier.create(productService.getProductById("1"))
+        .assertNext(product -> assertEquals("Product1", product.name()))
+        .verifyComplete();
+    StepVerifier.create(productService.getProductById("1"))
+        .assertNext(product -> assertEquals(5L, product.version()))
+        .verifyComplete();
+
+    verify(productRepository, times(1)).findById("1");
+  }
+
+  @Test
+  void getProductById_whenConcurrentMisses_thenSharesOneQuery() {
+    Sinks.One<Product> pending = Sinks.one();
+    when(productRepository.findById("1")).thenReturn(pending.asMono());
+
+    Mono<ProductDTO> first = productService.getProductById("1");
+    Mono<ProductDTO> second = productService.getProductById("1");
+    StepVerifier.create(first.zipWith(second))
+        .then(() -> pending.tryEmitValue(product("1", 1L)))
+        .assertNext(both -> assertEquals(both.getT1(), both.getT2()))
+        .verifyComplete();
+
+    verify(productRepository, times(1)).findById("1");
+  }
+
+  @Test
+  void getProductById_whenMissing_thenFailsWithNotFoundAndCachesNothing() {
+    when(productRepository.findById("404")).thenReturn(Mono.empty());
+
+    StepVerifier.create(productService.getProductById("404"))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+
+    assertNull(productCache.get("404"));
+  }
+
+  @Test
+  void getProductById_whenMissingAgain_thenAnsweredWithoutQueryUntilCreated() {
+    when(productRepository.findById("404")).thenReturn(Mono.empty());
+    when(productRepository.save(any(Product.class))).thenReturn(Mono.just(product("404", 0L)));
+
+    StepVerifier.create(productService.getProductById("404"))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+    StepVerifier.create(productService.getProductById("404"))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+    verify(productRepository, times(1)).findById("404");
+
+    StepVerifier.create(productService.createProduct(new ProductDTO("404", "Product404", 1, 10.0, null)))
+        .expectNextCount(1)
+        .verifyComplete();
+    StepVerifier.create(productService.getProductById("404"))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+    verify(productRepository, times(2)).findById("404");
+  }
+
+  @Test
+  void updateProductPrice_whenUpdated_thenCachesNewState() {
+    when(productRepository.updatePrice("1", 20.0, 1L)).thenReturn(Mono.just(product("1", 2L)));
+
+    StepVerifier.create(productService.updateProductPrice("1", 20.0, 1L))
+        .assertNext(product -> assertEquals(2L, product.version()))
+        .verifyComplete();
+
+    assertEquals(2L, productCache.get("1", ProductDTO.class).version());
+  }
+
+  @Test
+  void updateProductPrice_whenVersionMovedOn_thenFailsWithConflict() {
+    when(productRepository.updatePrice("1", 20.0, 1L)).thenReturn(Mono.empty());
+    when(productRepository.findById("1")).thenReturn(Mono.just(product("1", 3L)));
+
+    StepVerifier.create(productService.updateProductPrice("1", 20.0, 1L))
+        .expectError(ProductConflictException.class)
+        .verify();
+  }
+
+  @Test
+  void adjustStock_whenProductMissing_thenFailsWithNotFound() {
+    when(productRepository.adjustStock("404", -1, null)).thenReturn(Mono.empty());
+    when(productRepository.findById("404")).thenReturn(Mono.empty());
+
+    StepVerifier.create(productService.adjustStock("404", -1, null))
+        .expectError(ProductNotFoundException.class)
+        .verify();
+  }
+
+  @Test
+  void lookupProducts_whenSomeCached_thenFetchesOnlyMissesAndCachesThem() {
+    productCache.put("1", new ProductDTO("1", "Product1", 1, 10.0, null));
+    when(productRepository.findAllById(List.of("2", "404"))).thenReturn(Flux.just(product("2", 0L)));
+
+    StepVerifier.create(productService.lookupProducts(List.of("2", "1", "404")))
+        .assertNext(lookup -> {
+          assertEquals(List.of("2", "1"), lookup.products().stream().map(ProductDTO::id).toList());
+          assertEquals(List.of("404"), lookup.missing());
+        })
+        .verifyComplete();
+
+    assertEquals("Product2", productCache.get("2", ProductDTO.class).name());
+  }
+
+  @Test
+  void lookupProducts_whenTooManyIds_thenFailsWithBadArgument() {
+    StepVerifier.create(productService.lookupProducts(List.of("1", "2", "3", "4")))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+  }
+
+  @Test
+  void deleteProduct_whenCalled_thenEvictsCachedProduct() {
+    productCache.put("1", new ProductDTO("1", "Product1", 1, 10.0, null));
+    when(productRepository.deleteById("1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(productService.deleteProduct("1")).verifyComplete();
+
+    assertNull(productCache.get("1"));
+  }
+
+  @Test
+  void getAllProducts_whenPageRequestedAgain_thenServedWithoutQuery() {
+    when(productRepository.findFiltered(ProductFilter.NONE, PageRequest.of(0, 2)))
+        .thenReturn(Flux.just(product("1", 0L), product("2", 0L)));
+    when(productRepository.count()).thenReturn(Mono.just(5L));
+
+    StepVerifier.create(productService.getAllProducts(0, 2))
+        .assertNext(page -> assertEquals(5, page.getTotalElements()))
+        .verifyComplete();
+    StepVerifier.create(productService.getAllProducts(0, 2))
+        .assertNext(page -> assertEquals(List.of("1", "2"), page.getContent().stream().map(ProductDTO::id).toList()))
+        .verifyComplete();
+
+    verify(productRepository, times(1)).findFiltered(ProductFilter.NONE, PageRequest.of(0, 2));
+    verify(productRepository, times(1)).count();
+  }
+
+  @Test
+  void getAllProducts_whenProductUpdatedAfterCaching_thenPageShowsIt() {
+    when(productRepository.findFiltered(ProductFilter.NONE, PageRequest.of(0, 2)))
+        .thenReturn(Flux.just(product("1", 0L), product("2", 0L)));
+    when(productRepository.count()).thenReturn(Mono.just(2L));
+    when(productRepository.updatePrice("2", 20.0, null)).thenReturn(Mono.just(product("2", 1L)));
+
+    StepVerifier.create(productService.getAllProducts(0, 2)).expectNextCount(1).verifyComplete();
+    StepVerifier.create(productService.updateProductPrice("2", 20.0, null)).expectNextCount(1).verifyComplete();
+
+    StepVerifier.create(productService.getAllProducts(0, 2))
+        .assertNext(page -> assertEquals(1L, page.getContent().get(1).version()))
+        .verifyComplete();
+    verify(productRepository, times(1)).count();
+  }
+
+  private static Product product(String id, Long version) {
+    Product product = new Product();
+    product.setId(id);
+    product.setName("Product" + id);
+    product.setStock(1);
+    product.setPrice(10.0);
+    product.setCreatedDate(LocalDateTime.of(2024, 8, 1, 0, 0));
+    product.setVersion(version);
+    return product;
+  }
+}
@@ -0,0 +1,194 @@
+package com.test.demo.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.test.demo.cache.ProductPageCache;
+import com.test.demo.exception.ServiceOverloadedException;
+import com.test.demo.model.Product;
+import com.test.demo.model.dto.ProductDTO;
+import com.test.demo.model.mapper.ProductMapper;
+import com.test.demo.repository.BufferedProductUpdate;
+import com.test.demo.repository.InMemoryProductRepository;
+import com.test.demo.search.ProductSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+public class ProductWriteBufferTest {
+
+  @TempDir
+  Path directory;
+
+  private InMemoryProductRepository productRepository;
+
+  private ConcurrentMapCacheManager cacheManager;
+
+  private MeterRegistry meterRegistry;
+
+  private ProductWriteBuffer buffer;
+
+  @BeforeEach
+  void setUp() {
+    productRepository = new InMemoryProductRepository();
+    cacheManager = new ConcurrentMapCacheManager("products", ProductPageCache.CACHE_NAME);
+    meterRegistry = new SimpleMeterRegistry();
+    Product product = new Product();
+    product.setId("1");
+    product.setName("Lamp");
+    product.setStock(10);
+    product.setPrice(5.0);
+    product.setVersion(0L);
+    productRepository.save(product);
+    buffer = buffer(100, Duration.ofSeconds(1));
+    buffer.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    buffer.stop();
+  }
+
+  @Test
+  void flush_whenUpdatesCoalesced_thenLatestPriceAndSummedStockAreWrittenOnce() {
+    buffer.add("1", new BufferedProductUpdate(6.0, 0), () -> stored("1"));
+    buffer.add("1", new BufferedProductUpdate(null, 2), () -> stored("1"));
+    buffer.add("1", new BufferedProductUpdate(7.0, 3), () -> stored("1"));
+
+    buffer.flush();
+
+    Product stored = productRepository.findById("1").orElseThrow();
+    assertEquals(7.0, stored.getPrice());
+    assertEquals(15, stored.getStock());
+    assertEquals(1L, stored.getVersion());
+    assertFalse(buffer.isPending("1"));
+    assertEquals(1L, cacheManager.getCache("products").get("1", ProductDTO.class).version());
+  }
+
+  @Test
+  void add_whenUpdatesOfOneProductFollowEachOther_thenEachAnswerIncludesTheEarlierOnes() {
+    AtomicInteger reads = new AtomicInteger();
+
+    ProductDTO first = buffer.add("1", new BufferedProductUpdate(null, 5), () -> {
+      reads.incrementAndGet();
+      return stored("1");
+    });
+    ProductDTO second = buffer.add("1", new BufferedProductUpdate(null, 5), () -> {
+      reads.incrementAndGet();
+      return stored("1");
+    });
+
+    assertEquals(15, first.stock());
+    assertEquals(20, second.stock());
+    assertEquals(1, reads.get());
+  }
+
+  @Test
+  void add_whenAddedAfterFlush_thenBuildsOnWrittenProduct() {
+    buffer.add("1", new BufferedProductUpdate(null, 5), () -> stored("1"));
+    buffer.flush();
+
+    ProductDTO view = buffer.add("1", new BufferedProductUpdate(9.0, 3), () -> stored("1"));
+
+    assertEquals(18, view.stock());
+    assertEquals(9.0, view.price());
+    assertEquals(1L, view.version());
+  }
+
+  @Test
+  void applyPending_beforeFlush_thenReadsSeeBufferedUpdates() {
+    buffer.add("1", new BufferedProductUpdate(8.0, 4), () -> stored("1"));
+
+    ProductDTO read = buffer.read(() -> buffer.applyPending(
+        new ProductMapper().toDto(productRepository.findById("1").orElseThrow())));
+
+    assertTrue(buffer.isPending("1"));
+    assertEquals(8.0, read.price());
+    assertEquals(14, read.stock());
+    assertEquals(10, productRepository.findById("1").orElseThrow().getStock());
+  }
+
+  @Test
+  void start_whenJournalLeftBehind_thenUnwrittenUpdatesAreReplayed() {
+    buffer.add("1", new BufferedProductUpdate(null, 5), () -> stored("1"));
+    // A crash: the buffer is never flushed or stopped
+
+    ProductWriteBuffer restarted = buffer(100, Duration.ofSeconds(1));
+    restarted.start();
+    restarted.flush();
+    restarted.stop();
+
+    assertEquals(15, productRepository.findById("1").orElseThrow().getStock());
+  }
+
+  @Test
+  void start_whenWrittenSegmentIsReplayed_thenStockIsNotIncrementedTwice() throws IOException {
+    buffer.add("1", new BufferedProductUpdate(null, 5), () -> stored("1"));
+    Path backup = Files.createDirectory(directory.resolve("backup"));
+    copy(directory.resolve("journal"), backup);
+    buffer.flush();
+    // A crash after the bulk write, before the segment was deleted
+    copy(backup, directory.resolve("journal"));
+
+    ProductWriteBuffer restarted = buffer(100, Duration.ofSeconds(1));
+    restarted.start();
+    restarted.flush();
+    restarted.stop();
+
+    assertEquals(15, productRepository.findById("1").orElseThrow().getStock());
+  }
+
+  @Test
+  void add_whenBufferFull_thenRejectsNewProductsButCoalescesBufferedOnes() {
+    buffer.stop();
+    buffer = buffer(1, Duration.ZERO);
+    buffer.start();
+
+    buffer.add("1", new BufferedProductUpdate(6.0, 0), () -> stored("1"));
+    buffer.add("1", new BufferedProductUpdate(7.0, 0), () -> stored("1"));
+
+    assertThrows(ServiceOverloadedException.class,
+        () -> buffer.add("2", new BufferedProductUpdate(1.0, 0), () -> stored("2")));
+    assertEquals(1, meterRegistry.get("hub.products.write-behind.rejected").counter().count());
+  }
+
+  @Test
+  void constructor_whenWriterIdMissingOrInvalid_thenFailsToStart() {
+    for (String writer : new String[] {"", "pod.1"}) {
+      assertThrows(IllegalStateException.class, () -> new ProductWriteBuffer(productRepository, new ProductMapper(),
+          cacheManager, new ProductPageCache(cacheManager, meterRegistry), new ProductSearchIndex(),
+          directory.resolve("other"), false, writer, 10, Duration.ZERO, Duration.ofHours(1), meterRegistry));
+    }
+  }
+
+  private ProductDTO stored(String id) {
+    return new ProductMapper().toDto(productRepository.findById(id).orElseThrow());
+  }
+
+  private ProductWriteBuffer buffer(int maxPending, Duration maxWait) {
+    return new ProductWriteBuffer(productRepository, new ProductMapper(), cacheManager,
+        new ProductPageCache(cacheManager, meterRegistry), new ProductSearchIndex(), directory.resolve("journal"),
+        false, "test", maxPending, maxWait, Duration.ofHours(1), meterRegistry);
+  }
+
+  private static void copy(Path from, Path to) throws IOException {
+    try (Stream<Path> files = Files.list(from)) {
+      for (Path file : files.toList()) {
+        Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+}